@@ -47,18 +47,26 @@ import com.jcabi.github.wire.RetryCarefulWire;
 import com.jcabi.log.Logger;
 import com.jcabi.manifests.Manifests;
 import com.jcabi.urn.URN;
+import com.rultor.agents.Agents;
 import com.rultor.cached.CdTalks;
+import com.rultor.dynamo.BlockCounter;
+import com.rultor.dynamo.DyActiveTalks;
 import com.rultor.dynamo.DyTalks;
+import com.rultor.dynamo.DyTiering;
 import com.rultor.spi.Pulse;
-import com.rultor.spi.Talks;
 import com.rultor.spi.Tick;
 import com.rultor.web.TkApp;
+import com.rultor.web.TkWebhook;
 import io.sentry.Sentry;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
 import org.takes.http.Exit;
 import org.takes.http.FtCli;
@@ -107,23 +115,52 @@ public final class Entry {
         if (!dsn.startsWith("test")) {
             Sentry.init(dsn);
         }
-        final Talks talks = new CdTalks(
-            new DyTalks(
-                this.dynamo(), this.sttc().counters().get("rt-talk")
-            )
+        final DyTalks dytalks = new DyTalks(
+            this.dynamo(),
+            new BlockCounter(
+                this.sttc().counters().get("rt-talk"),
+                (long) Tv.HUNDRED
+            ),
+            Agents.bucket()
+        );
+        Logger.info(this, "Backfilling attributes of old talks...");
+        Logger.info(this, "%d old talk(s) backfilled", dytalks.backfill());
+        final CdTalks talks = new CdTalks(new DyActiveTalks(dytalks));
+        Logger.info(this, "Starting cold storage tiering...");
+        final DyTiering tiering = new DyTiering(
+            this.dynamo(), Agents.bucket(), (long) Tv.NINETY
         );
+        final Queue<String> urgent = new ConcurrentLinkedQueue<>();
         Logger.info(this, "Starting the Routine...");
         final Routine routine = new Routine(
-            talks, Entry.pulse(), this.github(), this.sttc()
+            talks, Entry.pulse(), this.github(), this.sttc(), urgent
         );
         Logger.info(this, "Starting the web front to run forever...");
+        String secret = Manifests.read("Rultor-WebhookSecret");
+        if (secret.startsWith("${")) {
+            secret = "";
+        }
         try {
             new FtCli(
-                new TkApp(talks, Entry.pulse(), new Toggles.InFile()),
+                new TkApp(
+                    talks, Entry.pulse(), new Toggles.InFile(),
+                    () -> {
+                        final Map<String, Number> values = new HashMap<>(
+                            talks.values()
+                        );
+                        values.putAll(routine.values());
+                        return values;
+                    },
+                    new TkWebhook(
+                        talks, secret,
+                        this.github().users().self().login(), urgent
+                    )
+                ),
                 this.arguments
             ).start(Exit.NEVER);
         } finally {
             routine.close();
+            tiering.close();
         }
     }
 
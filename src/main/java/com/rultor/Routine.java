@@ -36,7 +36,9 @@ import com.jcabi.aspects.Tv;
 import com.jcabi.github.Github;
 import com.jcabi.log.Logger;
 import com.rultor.agents.Agents;
+import com.rultor.profiles.Priorities;
 import com.rultor.profiles.Profiles;
+import com.rultor.spi.Metrics;
 import com.rultor.spi.Profile;
 import com.rultor.spi.Pulse;
 import com.rultor.spi.Talk;
@@ -45,10 +47,17 @@ import com.rultor.spi.Tick;
 import io.sentry.Sentry;
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeSet;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.validation.constraints.NotNull;
 
 /**
@@ -67,10 +76,21 @@ import javax.validation.constraints.NotNull;
  *  circumvent this issue, in
  *  com.rultor.agents.github.Reports#process(com.jcabi.xml.XML) should be
  *  removed.
+ *
+ * <p>Awake talks (see {@link Talks#awake()}) are processed once a minute,
+ * all active talks once an hour, in case some of them were never parked,
+ * while urgent talks, woken up by webhooks or having daemons to kill,
+ * are processed in between, within a second, in the same thread.</p>
+ *
+ * <p>Within a sweep talks are processed in the order of priorities of
+ * their requests (see {@link Priorities}), so that a release doesn't wait
+ * behind a dozen of merges. Since every sweep processes all its talks,
+ * none of them starves; aging of builds waiting for a slot is done
+ * by {@link com.rultor.agents.daemons.Admission}.</p>
  */
-@ScheduleWithFixedDelay(delay = 1, unit = TimeUnit.MINUTES, threads = 1)
+@ScheduleWithFixedDelay(delay = 1, unit = TimeUnit.SECONDS, threads = 1)
 @SuppressWarnings("PMD.DoNotUseThreads")
-final class Routine implements Runnable, Closeable {
+final class Routine implements Runnable, Closeable, Metrics {
 
     /**
      * Shutting down?
@@ -82,6 +102,21 @@ final class Routine implements Runnable, Closeable {
      */
     private final transient long start = System.currentTimeMillis();
 
+    /**
+     * When the last full sweep ended, in msec.
+     */
+    private final transient AtomicLong swept = new AtomicLong();
+
+    /**
+     * When the last sweep over all active talks started, in msec.
+     */
+    private final transient AtomicLong full = new AtomicLong();
+
+    /**
+     * Names of urgent talks.
+     */
+    private final transient Queue<String> urgent;
+
     /**
      * Ticks.
      */
@@ -103,15 +138,22 @@ final class Routine implements Runnable, Closeable {
      * @param pls Pulse
      * @param github Github client
      * @param sttc Sttc client
+     * @param queue Names of urgent talks
      * @checkstyle ParameterNumberCheck (4 lines)
      */
     Routine(@NotNull final Talks tlks, final Pulse pls,
-        final Github github, final Sttc sttc) {
+        final Github github, final Sttc sttc, final Queue<String> queue) {
+        this.urgent = queue;
         this.talks = tlks;
         this.pulse = pls;
         this.agents = new Agents(github, sttc);
     }
 
+    @Override
+    public Map<String, Number> values() {
+        return this.agents.metrics().values();
+    }
+
     @Override
     public void close() {
         this.down.set(true);
@@ -121,12 +163,18 @@ final class Routine implements Runnable, Closeable {
     @SuppressWarnings("PMD.AvoidCatchingThrowable")
     public void run() {
         try {
-            Logger.info(
-                this, "%d active talks, alive for %[ms]s: %tc",
-                this.safe(),
-                System.currentTimeMillis() - this.start, new Date()
-            );
-            this.pulse.error(Collections.<Throwable>emptyList());
+            if (System.currentTimeMillis() - this.swept.get()
+                < TimeUnit.MINUTES.toMillis(1L)) {
+                this.express();
+            } else {
+                Logger.info(
+                    this, "%d talks processed, alive for %[ms]s: %tc",
+                    this.safe(),
+                    System.currentTimeMillis() - this.start, new Date()
+                );
+                this.swept.set(System.currentTimeMillis());
+                this.pulse.error(Collections.<Throwable>emptyList());
+            }
             // @checkstyle IllegalCatchCheck (1 line)
         } catch (final Throwable ex) {
             if (!this.down.get()) {
@@ -142,6 +190,37 @@ final class Routine implements Runnable, Closeable {
         }
     }
 
+    /**
+     * Process urgent talks only, including the ones with overdue daemons.
+     * @return Total talks processed
+     * @throws IOException If fails
+     */
+    @Timeable(limit = Tv.FIVE, unit = TimeUnit.MINUTES)
+    private int express() throws IOException {
+        final Collection<String> names = new TreeSet<>();
+        for (String name = this.urgent.poll(); name != null;
+            name = this.urgent.poll()) {
+            names.add(name);
+        }
+        names.addAll(this.agents.overdue());
+        int total = 0;
+        if (!names.isEmpty() && !new Toggles.InFile().readOnly()) {
+            final Profiles profiles = new Profiles();
+            for (final String name : names) {
+                if (this.talks.exists(name)) {
+                    final Talk talk = this.talks.get(name);
+                    this.agents.agent(talk, profiles.fetch(talk))
+                        .execute(talk);
+                    ++total;
+                }
+            }
+            Logger.info(
+                this, "%d urgent talk(s) processed: %[list]s", total, names
+            );
+        }
+        return total;
+    }
+
     /**
      * Routine every-minute proc.
      * @return Total talks processed
@@ -170,14 +249,80 @@ final class Routine implements Runnable, Closeable {
     private int process() throws IOException {
         this.agents.starter().execute(this.talks);
         final Profiles profiles = new Profiles();
+        final Iterable<Talk> list;
+        if (System.currentTimeMillis() - this.full.get()
+            < TimeUnit.HOURS.toMillis(1L)) {
+            list = this.talks.awake();
+        } else {
+            this.full.set(System.currentTimeMillis());
+            list = this.talks.active();
+        }
+        final List<Routine.Job> jobs = new LinkedList<>();
+        for (final Talk talk : list) {
+            final Profile profile = profiles.fetch(talk);
+            jobs.add(
+                new Routine.Job(talk, profile, Routine.priority(talk, profile))
+            );
+        }
+        jobs.sort(
+            (left, right) -> Integer.compare(right.priority, left.priority)
+        );
         int total = 0;
-        for (final Talk talk : this.talks.active()) {
+        for (final Routine.Job job : jobs) {
             ++total;
-            final Profile profile = profiles.fetch(talk);
-            this.agents.agent(talk, profile).execute(talk);
+            this.agents.agent(job.talk, job.profile).execute(job.talk);
         }
         this.agents.closer().execute(this.talks);
         return total;
     }
 
+    /**
+     * Priority of the talk, or zero if it can't be found out, since
+     * one broken talk must not stop the processing of others.
+     * @param talk The talk
+     * @param profile Its profile
+     * @return Priority
+     */
+    private static int priority(final Talk talk, final Profile profile) {
+        int priority = 0;
+        try {
+            priority = new Priorities(profile).of(talk.read());
+        } catch (final IOException ex) {
+            Logger.warn(
+                Routine.class, "failed to prioritize %s: %[exception]s",
+                talk, ex
+            );
+        }
+        return priority;
+    }
+
+    /**
+     * Talk to process.
+     */
+    private static final class Job {
+        /**
+         * The talk.
+         */
+        private final transient Talk talk;
+        /**
+         * Its profile.
+         */
+        private final transient Profile profile;
+        /**
+         * Priority of its request.
+         */
+        private final transient int priority;
+        /**
+         * Ctor.
+         * @param tlk The talk
+         * @param prof Its profile
+         * @param prt Priority of its request
+         */
+        Job(final Talk tlk, final Profile prof, final int prt) {
+            this.talk = tlk;
+            this.profile = prof;
+            this.priority = prt;
+        }
+    }
+
 }
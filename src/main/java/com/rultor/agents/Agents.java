@@ -31,21 +31,31 @@ package com.rultor.agents;
 
 import co.stateful.Locks;
 import co.stateful.Sttc;
-import com.jcabi.aspects.Immutable;
 import com.jcabi.github.Github;
 import com.jcabi.immutable.Array;
 import com.jcabi.manifests.Manifests;
+import com.jcabi.s3.Bucket;
 import com.jcabi.s3.Region;
 import com.jcabi.s3.retry.ReRegion;
 import com.jcabi.ssh.SSH;
+import com.jcabi.ssh.Shell;
+import com.rultor.agents.daemons.Admission;
 import com.rultor.agents.daemons.ArchivesDaemon;
+import com.rultor.agents.daemons.Deadlines;
+import com.rultor.agents.daemons.Durations;
 import com.rultor.agents.daemons.EndsDaemon;
+import com.rultor.agents.daemons.HoldsSlot;
 import com.rultor.agents.daemons.KillsDaemon;
 import com.rultor.agents.daemons.SanitizesDaemon;
+import com.rultor.agents.daemons.SeedsAdmission;
 import com.rultor.agents.daemons.StartsDaemon;
 import com.rultor.agents.daemons.StopsDaemon;
 import com.rultor.agents.daemons.WipesDaemon;
-import com.rultor.agents.docker.DockerExec;
+import com.rultor.agents.docker.DockerHealthCheck;
+import com.rultor.agents.docker.HostStats;
+import com.rultor.agents.docker.Images;
+import com.rultor.agents.docker.PullsImages;
+import com.rultor.agents.docker.TracksImage;
 import com.rultor.agents.github.CommentsTag;
 import com.rultor.agents.github.Dephantomizes;
 import com.rultor.agents.github.Invitations;
@@ -84,20 +94,32 @@ import com.rultor.agents.github.qtn.QnVersion;
 import com.rultor.agents.github.qtn.QnWithAuthor;
 import com.rultor.agents.req.EndsRequest;
 import com.rultor.agents.req.StartsRequest;
+import com.rultor.agents.shells.Pool;
 import com.rultor.agents.shells.RegistersShell;
 import com.rultor.agents.shells.RemovesShell;
+import com.rultor.agents.shells.Samples;
+import com.rultor.agents.shells.SamplesHost;
 import com.rultor.agents.twitter.OAuthTwitter;
 import com.rultor.agents.twitter.Tweets;
+import com.rultor.profiles.Priorities;
 import com.rultor.spi.Agent;
+import com.rultor.spi.Metrics;
 import com.rultor.spi.Profile;
 import com.rultor.spi.SuperAgent;
 import com.rultor.spi.Talk;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.CharEncoding;
+import org.cactoos.iterable.IterableOf;
+import org.cactoos.iterable.Joined;
+import org.cactoos.iterable.Mapped;
 
 /**
  * Agents.
@@ -109,12 +131,31 @@ import org.apache.commons.lang3.CharEncoding;
  * @checkstyle ClassFanOutComplexityCheck (500 lines)
  * @checkstyle MultipleStringLiteralsCheck (500 lines)
  */
-@Immutable
 @ToString
 @EqualsAndHashCode(of = { "github", "sttc" })
 @SuppressWarnings("PMD.ExcessiveImports")
 public final class Agents {
 
+    /**
+     * Manifest attribute with build hosts.
+     */
+    private static final String HOSTS = "Rultor-Hosts";
+
+    /**
+     * Manifest attribute with the number of daemons per build host.
+     */
+    private static final String SLOTS = "Rultor-HostSlots";
+
+    /**
+     * SSH port of build hosts.
+     */
+    private static final int PORT = 22;
+
+    /**
+     * SSH login at build hosts.
+     */
+    private static final String LOGIN = "rultor";
+
     /**
      * Github client.
      */
@@ -125,6 +166,46 @@ public final class Agents {
      */
     private final transient Sttc sttc;
 
+    /**
+     * Deadlines of running daemons.
+     */
+    private final transient Deadlines deadlines;
+
+    /**
+     * Durations of recent builds.
+     */
+    private final transient Durations durations;
+
+    /**
+     * Samples of build hosts.
+     */
+    private final transient Samples samples;
+
+    /**
+     * Pool of build hosts.
+     */
+    private final transient Pool pool;
+
+    /**
+     * Admission of daemons to build hosts.
+     */
+    private final transient Admission admission;
+
+    /**
+     * Seeds of the admission, after a restart.
+     */
+    private final transient SuperAgent seeds;
+
+    /**
+     * Docker images in demand.
+     */
+    private final transient Images images;
+
+    /**
+     * Statistics of build hosts.
+     */
+    private final transient HostStats stats;
+
     /**
      * Ctor.
      * @param ghub Github client
@@ -133,6 +214,42 @@ public final class Agents {
     public Agents(final Github ghub, final Sttc stc) {
         this.github = ghub;
         this.sttc = stc;
+        this.deadlines = new Deadlines();
+        this.durations = new Durations();
+        this.samples = new Samples(
+            new Pool.Ssh(Agents.PORT, Agents.LOGIN, Agents.key())
+        );
+        this.pool = new Pool(Agents.hosts(), this.samples);
+        this.admission = new Admission(Agents.slots());
+        this.seeds = new SeedsAdmission(this.admission);
+        this.images = new Images();
+        this.stats = new HostStats();
+    }
+
+    /**
+     * Names of talks, which daemons are overdue and have to be killed,
+     * see {@link KillsDaemon}; every name is returned once.
+     * @return Names of talks
+     * @since 2.0
+     */
+    public Collection<String> overdue() {
+        return this.deadlines.expired(System.currentTimeMillis());
+    }
+
+    /**
+     * Statistics and samples of build hosts, to show on the status
+     * page and to export as metrics.
+     * @return Metrics
+     * @since 2.0
+     */
+    public Metrics metrics() {
+        return () -> {
+            final Map<String, Number> values = new HashMap<>(
+                this.stats.values()
+            );
+            values.putAll(this.samples.values());
+            return values;
+        };
     }
 
     /**
@@ -143,20 +260,30 @@ public final class Agents {
     public SuperAgent starter() throws IOException {
         return new SuperAgent.Iterative(
             new Array<>(
-                new StartsTalks(this.github),
-                new Invitations(this.github),
-                new IndexesRequests(),
-                new DockerExec(
-                    new SSH(
-                        // @checkstyle MagicNumber (1 line)
-                        "b4.rultor.com", 22,
-                        "rultor",
-                        IOUtils.toString(
-                            this.getClass().getResourceAsStream("rultor.key"),
-                            CharEncoding.UTF_8
+                new Joined<SuperAgent>(
+                    new IterableOf<>(
+                        this.seeds,
+                        new StartsTalks(this.github, this.sttc.counters()),
+                        new Invitations(this.github),
+                        new IndexesRequests(
+                            this.sttc.counters().get("rt-request")
                         )
                     ),
-                    "rmi.sh"
+                    new Mapped<>(
+                        host -> {
+                            final Shell shell = Agents.shell(host);
+                            return new SuperAgent.Iterative(
+                                new IterableOf<SuperAgent>(
+                                    new SamplesHost(shell, host, this.samples),
+                                    new PullsImages(shell, host, this.images),
+                                    new DockerHealthCheck(
+                                        shell, host, this.stats
+                                    )
+                                )
+                            );
+                        },
+                        Agents.hosts()
+                    )
                 )
             )
         );
@@ -168,11 +295,9 @@ public final class Agents {
      * @throws IOException If fails
      */
     public SuperAgent closer() throws IOException {
-        return new SuperAgent.Iterative(
-            new Array<>(
-                new UnlocksRepo(this.sttc.locks(), this.github),
-                new DeactivatesTalks()
-            )
+        return new SuperAgent.Fused(
+            new UnlocksRepo(this.sttc.locks(), this.github),
+            new DeactivatesTalks()
         );
     }
 
@@ -220,7 +345,7 @@ public final class Agents {
                                     new QnIfCollaborator(
                                         new QnAlone(
                                             talk, locks,
-                                            Agents.commands(profile)
+                                            this.commands(profile)
                                         )
                                     ),
                                     new QnIamLost()
@@ -239,20 +364,19 @@ public final class Agents {
                 new QnSafe(question)
             ),
             new StartsRequest(profile),
+            new TracksImage(profile, this.images),
             new RegistersShell(
-                profile,
-                // @checkstyle MagicNumber (1 line)
-                "b4.rultor.com", 22,
-                "rultor",
-                IOUtils.toString(
-                    this.getClass().getResourceAsStream("rultor.key"),
-                    CharEncoding.UTF_8
-                )
+                profile, this.pool, this.admission,
+                Agents.PORT, Agents.LOGIN, Agents.key()
+            ),
+            new StartsDaemon(profile, this.admission),
+            new KillsDaemon(
+                profile, this.deadlines, this.durations,
+                TimeUnit.HOURS.toMinutes(2L)
             ),
-            new StartsDaemon(profile),
-            new KillsDaemon(TimeUnit.HOURS.toMinutes(2L)),
             new StopsDaemon(),
             new EndsDaemon(),
+            new HoldsSlot(this.admission),
             new EndsRequest(),
             new SafeAgent(
                 new Tweets(
@@ -270,25 +394,93 @@ public final class Agents {
             new Dephantomizes(this.github),
             new Reports(this.github),
             new RemovesShell(),
-            new ArchivesDaemon(
-                new ReRegion(
-                    new Region.Simple(
-                        Manifests.read("Rultor-S3Key"),
-                        Manifests.read("Rultor-S3Secret")
-                    )
-                ).bucket(Manifests.read("Rultor-S3Bucket"))
-            ),
+            new ArchivesDaemon(Agents.bucket()),
             new Publishes(profile, this.github),
-            new SafeAgent(new Stars(this.github))
+            new SafeAgent(new Stars(this.github)),
+            new Parks()
         );
     }
 
+    /**
+     * S3 bucket of logs and cold talks, from the manifest.
+     * @return Bucket
+     * @since 2.0
+     */
+    public static Bucket bucket() {
+        return new ReRegion(
+            new Region.Simple(
+                Manifests.read("Rultor-S3Key"),
+                Manifests.read("Rultor-S3Secret")
+            )
+        ).bucket(Manifests.read("Rultor-S3Bucket"));
+    }
+
+    /**
+     * Shell of a build host, which connects on every command, in order
+     * to report a host, which can't be resolved or reached, as a failure
+     * of the command; agents of the host log it and let other hosts go.
+     * @param host The host
+     * @return Shell
+     */
+    private static Shell shell(final String host) {
+        final String key = Agents.key();
+        return (cmd, stdin, stdout, stderr) -> new SSH(
+            host, Agents.PORT, Agents.LOGIN, key
+        ).exec(cmd, stdin, stdout, stderr);
+    }
+
+    /**
+     * Build hosts, from the manifest, comma-separated.
+     * @return Host names
+     */
+    private static Iterable<String> hosts() {
+        String hosts = "";
+        if (Manifests.exists(Agents.HOSTS)) {
+            hosts = Manifests.read(Agents.HOSTS);
+        }
+        if (hosts.isEmpty() || hosts.startsWith("${")) {
+            hosts = "b4.rultor.com";
+        }
+        return Arrays.asList(hosts.trim().split("\\s*,\\s*"));
+    }
+
+    /**
+     * Daemons per build host, from the manifest.
+     * @return Number of slots
+     */
+    private static int slots() {
+        String slots = "";
+        if (Manifests.exists(Agents.SLOTS)) {
+            slots = Manifests.read(Agents.SLOTS);
+        }
+        if (slots.isEmpty() || slots.startsWith("${")) {
+            slots = "8";
+        }
+        return Integer.parseInt(slots.trim());
+    }
+
+    /**
+     * Private SSH key of build hosts.
+     * @return The key
+     */
+    private static String key() {
+        try {
+            return IOUtils.toString(
+                Agents.class.getResourceAsStream("rultor.key"),
+                CharEncoding.UTF_8
+            );
+        } catch (final IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
     /**
      * Handle main commands.
      * @param profile Profile to uuse
      * @return Array of questions.
      */
-    private static Question commands(final Profile profile) {
+    private Question commands(final Profile profile) {
+        final Priorities priorities = new Priorities(profile);
         return new QnByArchitect(
             profile,
             "/p/entry[@key='architect']/item/text()",
@@ -306,7 +498,11 @@ public final class Agents {
                     new QnAskedBy(
                         profile,
                         Agents.commanders("merge"),
-                        new QnIfPull(new QnIfUnlocked(new QnMerge()))
+                        new QnIfPull(
+                            new QnIfUnlocked(
+                                new QnMerge(this.admission, priorities)
+                            )
+                        )
                     )
                 ),
                 new QnIfContains(
@@ -314,7 +510,7 @@ public final class Agents {
                     new QnAskedBy(
                         profile,
                         Agents.commanders("deploy"),
-                        new QnDeploy()
+                        new QnDeploy(this.admission, priorities)
                     )
                 ),
                 new QnIfContains(
@@ -322,7 +518,7 @@ public final class Agents {
                     new QnAskedBy(
                         profile,
                         Agents.commanders("release"),
-                        new QnRelease()
+                        new QnRelease(this.admission, priorities)
                     )
                 )
             )
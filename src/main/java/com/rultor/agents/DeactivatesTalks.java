@@ -50,7 +50,7 @@ import org.apache.commons.lang3.StringUtils;
 @Immutable
 @ToString
 @EqualsAndHashCode
-public final class DeactivatesTalks implements SuperAgent {
+public final class DeactivatesTalks implements SuperAgent, SuperAgent.Closer {
 
     /**
      * Which talks should be deactivated.
@@ -62,13 +62,18 @@ public final class DeactivatesTalks implements SuperAgent {
 
     @Override
     public void execute(final Talks talks) throws IOException {
-        for (final Talk talk : talks.active()) {
-            final XML xml = talk.read();
-            if (!xml.nodes(DeactivatesTalks.XPATH).isEmpty()) {
-                talk.active(false);
-                Logger.info(this, "%s deactivated", talk.name());
-            }
-        }
+        new SuperAgent.Fused(this).execute(talks);
+    }
+
+    @Override
+    public String xpath() {
+        return DeactivatesTalks.XPATH;
+    }
+
+    @Override
+    public void close(final Talk talk, final XML xml) throws IOException {
+        talk.active(false);
+        Logger.info(this, "%s deactivated", talk.name());
     }
 
 }
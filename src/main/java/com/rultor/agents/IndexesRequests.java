@@ -29,10 +29,15 @@
  */
 package com.rultor.agents;
 
+import co.stateful.Counter;
+import com.jcabi.log.Logger;
+import com.jcabi.xml.XML;
 import com.rultor.spi.SuperAgent;
 import com.rultor.spi.Talk;
 import com.rultor.spi.Talks;
 import java.io.IOException;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import org.cactoos.collection.Mapped;
 import org.cactoos.list.SolidList;
 import org.cactoos.scalar.MaxOf;
@@ -42,21 +47,72 @@ import org.xembly.Directives;
 /**
  * Adds index to all the requests received.
  *
+ * <p>Indexes are taken from a persistent counter, which is seeded
+ * only once, when it is still zero, from the maximal index found
+ * in active talks. Only talks which may have a request are read, see
+ * {@link Talks#requested()}, and only requests without an index
+ * get one.</p>
+ *
  * @author Krzysztof Krason (Krzysztof.Krason@gmail.com)
  * @version $Id$
  */
+@ToString
+@EqualsAndHashCode(of = "counter")
 @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
 public final class IndexesRequests implements SuperAgent {
+
+    /**
+     * Which requests need an index.
+     */
+    private static final String XPATH = "/talk/request[not(@index)]";
+
+    /**
+     * Counter of indexes.
+     */
+    private final transient Counter counter;
+
+    /**
+     * Ctor.
+     * @param cnt Counter of indexes
+     * @since 2.0
+     */
+    public IndexesRequests(final Counter cnt) {
+        this.counter = cnt;
+    }
+
     @Override
     public void execute(final Talks talks) throws IOException {
-        int idx = this.index(talks);
-        for (final Talk talk : talks.active()) {
-            idx += 1;
-            talk.modify(
-                new Directives()
-                    .xpath("/talk/request")
-                    .attr("index", Integer.toString(idx))
-            );
+        boolean seeded = false;
+        for (final Talk talk : talks.requested()) {
+            final XML xml = talk.read();
+            if (!xml.nodes(IndexesRequests.XPATH).isEmpty()) {
+                if (!seeded) {
+                    this.seed(talks);
+                    seeded = true;
+                }
+                final long idx = this.counter.incrementAndGet(1L);
+                talk.modify(
+                    new Directives()
+                        .xpath(IndexesRequests.XPATH)
+                        .attr("index", Long.toString(idx))
+                );
+                Logger.info(
+                    this, "index #%d assigned to %s", idx, talk.name()
+                );
+            }
+        }
+    }
+
+    /**
+     * Seed the counter, if it was never used.
+     * @param talks Talks
+     * @throws IOException If fails
+     */
+    private void seed(final Talks talks) throws IOException {
+        if (this.counter.incrementAndGet(0L) == 0L) {
+            final int max = IndexesRequests.index(talks);
+            this.counter.set((long) max);
+            Logger.info(this, "index counter seeded with %d", max);
         }
     }
 
@@ -66,10 +122,10 @@ public final class IndexesRequests implements SuperAgent {
      * @return The maximal index value
      * @throws IOException if the content of one {@link Talk} object can't be read
      */
-    private int index(final Talks talks) throws IOException {
+    private static int index(final Talks talks) throws IOException {
         int index = 0;
         for (final Talk talk : talks.active()) {
-            final int idx = this.index(talk);
+            final int idx = IndexesRequests.index(talk);
             if (idx > index) {
                 index = idx;
             }
@@ -85,7 +141,7 @@ public final class IndexesRequests implements SuperAgent {
      *  read
      */
     @SuppressWarnings("PMD.AvoidCatchingThrowable")
-    private int index(final Talk talk) throws IOException {
+    private static int index(final Talk talk) throws IOException {
         final SolidList<Number> indexes = new SolidList<>(
             new Mapped<>(
                 input -> new NumberOf(input),
@@ -0,0 +1,132 @@
+/**
+ * Copyright (c) 2009-2019, Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.agents;
+
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Tv;
+import com.jcabi.xml.XML;
+import com.rultor.Time;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.xembly.Directive;
+import org.xembly.Directives;
+
+/**
+ * Parks the talk until its wake-up condition fires, by setting
+ * {@code /talk/@wake}.
+ *
+ * <p>It has to be the last agent in the chain. A talk with
+ * unread comments or waiting for a lock ({@code @later} is true)
+ * or in the middle of a request is not parked at all. A talk
+ * with a running daemon sleeps for a quarter of the time its daemon
+ * is running already, so that long builds are checked less often, but
+ * not less than a minute and not more than five minutes. A talk with
+ * nothing to do sleeps for an hour, since the next comment will
+ * wake it up anyway. The attribute is not touched if the talk
+ * already wakes up in time.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@Immutable
+@ToString
+@EqualsAndHashCode(callSuper = false)
+public final class Parks extends AbstractAgent {
+
+    /**
+     * XPath of a running daemon.
+     */
+    private static final String RUNNING =
+        "/talk/daemon[started and not(ended) and not(code)]";
+
+    /**
+     * Ctor.
+     */
+    public Parks() {
+        super("/talk");
+    }
+
+    @Override
+    public Iterable<Directive> process(final XML xml) {
+        final long now = System.currentTimeMillis();
+        final long delay;
+        if (!xml.nodes("/talk[@later='true']").isEmpty()) {
+            delay = 0L;
+        } else if (!xml.nodes(Parks.RUNNING).isEmpty()) {
+            delay = Math.min(
+                Math.max(
+                    (now - new Time(
+                        xml.xpath("/talk/daemon/started/text()").get(0)
+                    ).msec()) / (long) Tv.FOUR,
+                    TimeUnit.MINUTES.toMillis(1L)
+                ),
+                TimeUnit.MINUTES.toMillis((long) Tv.FIVE)
+            );
+        } else if (xml.nodes("/talk[request or daemon or shell]").isEmpty()) {
+            delay = TimeUnit.HOURS.toMillis(1L);
+        } else {
+            delay = 0L;
+        }
+        final List<String> wake = xml.xpath("/talk/@wake");
+        final Directives dirs = new Directives();
+        if (wake.isEmpty()
+            || Parks.moved(Long.parseLong(wake.get(0)), now, delay)) {
+            dirs.xpath("/talk").attr("wake", now + delay);
+        }
+        return dirs;
+    }
+
+    /**
+     * Does the wake-up time have to be moved?
+     *
+     * <p>An awake talk, which has to stay awake, and a talk, which will
+     * wake up earlier than required anyway, are left as they are, since
+     * every write of the talk costs a full rewrite of its item.</p>
+     *
+     * @param wake Current wake-up time
+     * @param now Current time
+     * @param delay Required delay
+     * @return TRUE if it has to be written
+     */
+    private static boolean moved(final long wake, final long now,
+        final long delay) {
+        final boolean moved;
+        if (delay == 0L) {
+            moved = wake > now;
+        } else {
+            moved = wake <= now || wake > now + delay;
+        }
+        return moved;
+    }
+
+}
@@ -0,0 +1,334 @@
+/**
+ * Copyright (c) 2009-2019, Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.agents.daemons;
+
+import com.jcabi.aspects.Tv;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Admission of daemons to build hosts.
+ *
+ * <p>Every host has a limited number of slots, a daemon holds one slot
+ * of its host from the moment it is admitted and until it is released.
+ * Daemons, which can't be admitted yet, wait in a queue; they are
+ * admitted in the order of their priorities (higher first) and then
+ * in the order of their requests (see {@code /talk/request/@index}).
+ * A waiting daemon gains one extra point of priority for every period
+ * of aging it spends in the queue, in order to not starve behind
+ * a flow of more important ones.</p>
+ *
+ * <p>A daemon may wait for a slot at any of a few hosts, see
+ * {@link #free(Collection, String, int, long)}; then it takes a slot
+ * of the first host, where one gets free, instead of waiting
+ * for a busy host, picked before.</p>
+ *
+ * <p>The state is in memory only; after a restart, running daemons
+ * take their slots back before the first sweep, see
+ * {@link SeedsAdmission}, and then as soon as their talks are seen,
+ * see {@link HoldsSlot}. The class is thread-safe.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString(of = { "max", "age" })
+@EqualsAndHashCode(of = { "max", "age" })
+public final class Admission {
+
+    /**
+     * Slots per host.
+     */
+    private final transient int max;
+
+    /**
+     * Aging period, in msec.
+     */
+    private final transient long age;
+
+    /**
+     * Hosts of admitted talks, by talk names.
+     */
+    private final transient Map<String, String> holders;
+
+    /**
+     * Waiting talks, by names.
+     */
+    private final transient Map<String, Admission.Ticket> waiting;
+
+    /**
+     * Ctor.
+     */
+    public Admission() {
+        this(Tv.EIGHT);
+    }
+
+    /**
+     * Ctor.
+     * @param slots Slots per host
+     */
+    public Admission(final int slots) {
+        this(slots, TimeUnit.MINUTES.toMillis((long) Tv.FIFTEEN));
+    }
+
+    /**
+     * Ctor.
+     * @param slots Slots per host
+     * @param aging Aging period, in msec
+     */
+    public Admission(final int slots, final long aging) {
+        this.max = slots;
+        this.age = aging;
+        this.holders = new HashMap<>(0);
+        this.waiting = new HashMap<>(0);
+    }
+
+    /**
+     * Admit the daemon of the talk, if there is a free slot and
+     * there is nobody ahead of it in the queue of its host.
+     * @param host The host
+     * @param talk Name of the talk
+     * @param priority Priority, the higher the sooner
+     * @param index Index of the request
+     * @return TRUE if admitted (or was admitted before)
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    public boolean admit(final String host, final String talk,
+        final int priority, final long index) {
+        synchronized (this.holders) {
+            final boolean admitted = !this.free(
+                Collections.singleton(host), talk, priority, index
+            ).isEmpty();
+            if (admitted) {
+                this.hold(host, talk);
+            }
+            return admitted;
+        }
+    }
+
+    /**
+     * Hosts, where the daemon of the talk may take a slot right now,
+     * since there are more free slots at them than daemons ahead of it;
+     * if there are none, the daemon waits in the queue of these hosts.
+     * The slot has to be taken by {@link #hold(String, String)}.
+     * @param hosts Hosts, which the daemon may run at
+     * @param talk Name of the talk
+     * @param priority Priority, the higher the sooner
+     * @param index Index of the request
+     * @return Hosts with free slots, or the host of the talk, if
+     *  it holds a slot already, or nothing if it has to wait
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    public Collection<String> free(final Collection<String> hosts,
+        final String talk, final int priority, final long index) {
+        synchronized (this.holders) {
+            final Collection<String> free = new LinkedList<>();
+            if (this.holders.containsKey(talk)) {
+                free.add(this.holders.get(talk));
+            } else {
+                final long now = System.currentTimeMillis();
+                long since = now;
+                if (this.waiting.containsKey(talk)) {
+                    since = this.waiting.get(talk).since;
+                }
+                final Admission.Ticket ticket = new Admission.Ticket(
+                    hosts, talk, priority, index, since
+                );
+                this.waiting.put(talk, ticket);
+                final long rank = ticket.rank(now, this.age);
+                long slots = 0L;
+                for (final String host : hosts) {
+                    final long left = (long) this.max - this.busy(host);
+                    if (left > 0L) {
+                        slots += left;
+                        free.add(host);
+                    }
+                }
+                long ahead = 0L;
+                for (final Admission.Ticket other : this.waiting.values()) {
+                    if (other.shares(ticket)
+                        && other.before(ticket, rank, now, this.age)) {
+                        ++ahead;
+                    }
+                }
+                if (ahead >= slots) {
+                    free.clear();
+                }
+            }
+            return free;
+        }
+    }
+
+    /**
+     * Give a slot to the daemon of the talk, which is running already.
+     * @param host The host
+     * @param talk Name of the talk
+     */
+    public void hold(final String host, final String talk) {
+        synchronized (this.holders) {
+            this.waiting.remove(talk);
+            this.holders.put(talk, host);
+        }
+    }
+
+    /**
+     * Release the slot of the talk or remove it from the queue.
+     * @param talk Name of the talk
+     */
+    public void release(final String talk) {
+        synchronized (this.holders) {
+            this.waiting.remove(talk);
+            this.holders.remove(talk);
+        }
+    }
+
+    /**
+     * How many daemons wait in the queues of all hosts with the same
+     * or higher priority, including the one they gained by aging.
+     * @param priority Priority
+     * @return Total
+     */
+    public int ahead(final int priority) {
+        synchronized (this.holders) {
+            final long now = System.currentTimeMillis();
+            int total = 0;
+            for (final Admission.Ticket ticket : this.waiting.values()) {
+                if (ticket.rank(now, this.age) >= priority) {
+                    ++total;
+                }
+            }
+            return total;
+        }
+    }
+
+    /**
+     * How many slots of the host are held.
+     * @param host The host
+     * @return Total
+     */
+    private int busy(final String host) {
+        int busy = 0;
+        for (final String holder : this.holders.values()) {
+            if (holder.equals(host)) {
+                ++busy;
+            }
+        }
+        return busy;
+    }
+
+    /**
+     * Place in the queue.
+     */
+    @ToString
+    @EqualsAndHashCode(of = "talk")
+    private static final class Ticket {
+        /**
+         * Hosts, which the daemon may run at.
+         */
+        private final transient Collection<String> hosts;
+        /**
+         * Name of the talk.
+         */
+        private final transient String talk;
+        /**
+         * Priority.
+         */
+        private final transient int priority;
+        /**
+         * Index of the request.
+         */
+        private final transient long index;
+        /**
+         * When it started to wait, in msec.
+         */
+        private final transient long since;
+        /**
+         * Ctor.
+         * @param hsts Hosts, which the daemon may run at
+         * @param name Name of the talk
+         * @param prt Priority
+         * @param idx Index of the request
+         * @param when When it started to wait, in msec
+         * @checkstyle ParameterNumberCheck (3 lines)
+         */
+        Ticket(final Collection<String> hsts, final String name,
+            final int prt, final long idx, final long when) {
+            this.hosts = hsts;
+            this.talk = name;
+            this.priority = prt;
+            this.index = idx;
+            this.since = when;
+        }
+        /**
+         * Priority, including the points gained by aging.
+         * @param now Current time, in msec
+         * @param age Aging period, in msec
+         * @return Priority
+         */
+        public long rank(final long now, final long age) {
+            return (long) this.priority + (now - this.since) / age;
+        }
+        /**
+         * Do this ticket and the other one wait for the same host?
+         * @param other The other ticket
+         * @return TRUE if they have a host in common
+         */
+        public boolean shares(final Admission.Ticket other) {
+            return !Collections.disjoint(this.hosts, other.hosts);
+        }
+        /**
+         * Must this ticket go before the other one?
+         * @param other The other ticket
+         * @param rank Priority of the other ticket
+         * @param now Current time, in msec
+         * @param age Aging period, in msec
+         * @return TRUE if it's ahead
+         * @checkstyle ParameterNumberCheck (3 lines)
+         */
+        public boolean before(final Admission.Ticket other, final long rank,
+            final long now, final long age) {
+            int cmp = Long.compare(rank, this.rank(now, age));
+            if (cmp == 0) {
+                cmp = Long.compare(this.index, other.index);
+            }
+            if (cmp == 0) {
+                cmp = this.talk.compareTo(other.talk);
+            }
+            return cmp < 0;
+        }
+    }
+
+}
@@ -116,6 +116,7 @@ public final class ArchivesDaemon extends AbstractAgent {
         final String hash = xml.xpath("/talk/daemon/@id").get(0);
         final URI uri = this.upload(file, hash);
         final String title = ArchivesDaemon.title(xml, file);
+        final long msec = ArchivesDaemon.msec(xml);
         Logger.info(
             this, "daemon of %s archived into %s: %s",
             xml.xpath("/talk/@name").get(0), uri, title
@@ -125,6 +126,9 @@ public final class ArchivesDaemon extends AbstractAgent {
             .xpath("/talk").addIf("archive")
             .add("log").attr("id", hash)
             .attr("title", title)
+            .attr("type", xml.xpath("/talk/daemon/title/text()").get(0))
+            .attr("code", xml.xpath("/talk/daemon/code/text()").get(0))
+            .attr("msec", Long.toString(msec))
             .set(uri.toString());
     }
 
@@ -168,10 +172,19 @@ public final class ArchivesDaemon extends AbstractAgent {
             xml.xpath("/talk/daemon/title/text()").get(0),
             code,
             status,
-            new Time(xml.xpath("/talk/daemon/ended/text()").get(0)).msec()
-            - new Time(xml.xpath("/talk/daemon/started/text()").get(0)).msec(),
+            ArchivesDaemon.msec(xml),
             FileUtils.readLines(file).size()
         );
     }
 
+    /**
+     * Duration of the daemon.
+     * @param xml XML
+     * @return Msec
+     */
+    private static long msec(final XML xml) {
+        return new Time(xml.xpath("/talk/daemon/ended/text()").get(0)).msec()
+            - new Time(xml.xpath("/talk/daemon/started/text()").get(0)).msec();
+    }
+
 }
@@ -0,0 +1,178 @@
+/**
+ * Copyright (c) 2009-2019, Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.agents.daemons;
+
+import com.jcabi.aspects.Tv;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Deadlines of daemons, in a hashed timer wheel.
+ *
+ * <p>The wheel has a slot per tick (a minute by default); a name
+ * is kept in the slot of the tick of its deadline, modulo the size of
+ * the wheel. {@link #expired(long)} visits only the slots of the ticks
+ * passed since the previous call, so it doesn't depend on the total
+ * number of deadlines. Deadlines further than the size of the wheel
+ * stay in their slots until their turn comes.</p>
+ *
+ * <p>The wheel lives in memory only, it is refilled by
+ * {@link KillsDaemon} from XML of the talks it sees, which happens
+ * to all running daemons during the first sweep after start.</p>
+ *
+ * <p>The class is thread-safe.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString(of = "tick")
+@EqualsAndHashCode(of = "tick")
+public final class Deadlines {
+
+    /**
+     * Length of a tick, in msec.
+     */
+    private final transient long tick;
+
+    /**
+     * Slots of the wheel.
+     */
+    private final transient List<Set<String>> slots;
+
+    /**
+     * Deadlines of names, in msec.
+     */
+    private final transient Map<String, Long> when;
+
+    /**
+     * Slots of names.
+     */
+    private final transient Map<String, Integer> place;
+
+    /**
+     * The tick visited last.
+     */
+    private transient long cursor;
+
+    /**
+     * Ctor.
+     */
+    public Deadlines() {
+        this(TimeUnit.MINUTES.toMillis(1L), Tv.SIXTY);
+    }
+
+    /**
+     * Ctor.
+     * @param msec Length of a tick, in msec
+     * @param size How many slots
+     */
+    public Deadlines(final long msec, final int size) {
+        this.tick = msec;
+        this.slots = new ArrayList<>(size);
+        for (int idx = 0; idx < size; ++idx) {
+            this.slots.add(new HashSet<>(0));
+        }
+        this.when = new HashMap<>(0);
+        this.place = new HashMap<>(0);
+    }
+
+    /**
+     * Schedule a deadline, replacing the previous one, if any. A deadline
+     * in the past goes to the slot of the last visited tick, in order
+     * to expire at the next call of {@link #expired(long)}.
+     * @param name Name of the talk
+     * @param msec Deadline, in msec
+     */
+    public void schedule(final String name, final long msec) {
+        synchronized (this.slots) {
+            this.cancel(name);
+            final int idx = (int) (Math.max(msec / this.tick, this.cursor)
+                % (long) this.slots.size());
+            this.slots.get(idx).add(name);
+            this.when.put(name, msec);
+            this.place.put(name, idx);
+        }
+    }
+
+    /**
+     * Cancel the deadline, if it exists.
+     * @param name Name of the talk
+     */
+    public void cancel(final String name) {
+        synchronized (this.slots) {
+            final Integer idx = this.place.remove(name);
+            if (idx != null) {
+                this.slots.get(idx).remove(name);
+                this.when.remove(name);
+            }
+        }
+    }
+
+    /**
+     * Remove and return the names, which deadlines are passed.
+     * @param now Current time, in msec
+     * @return Names of talks
+     */
+    public Collection<String> expired(final long now) {
+        synchronized (this.slots) {
+            final Collection<String> names = new LinkedList<>();
+            final long last = now / this.tick;
+            for (long pos = Math.max(this.cursor, last - this.slots.size() + 1);
+                pos <= last; ++pos) {
+                final Iterator<String> iter = this.slots.get(
+                    (int) (pos % (long) this.slots.size())
+                ).iterator();
+                while (iter.hasNext()) {
+                    final String name = iter.next();
+                    if (this.when.get(name) <= now) {
+                        iter.remove();
+                        this.when.remove(name);
+                        this.place.remove(name);
+                        names.add(name);
+                    }
+                }
+            }
+            this.cursor = last;
+            return names;
+        }
+    }
+
+}
@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2009-2019, Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.agents.daemons;
+
+import com.jcabi.aspects.Tv;
+import com.jcabi.xml.XML;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Durations of recent successful builds of each type in each repository,
+ * learned from archived logs (see {@link ArchivesDaemon}).
+ *
+ * <p>Only logs with exact durations and exit codes are taken, and
+ * only builds which succeeded, since a failed or killed build tells
+ * nothing about how long a build takes. Merges, releases and deploys
+ * of the same repository may take very different time, so each type of
+ * request has its own history. Only the latest hundred builds of each
+ * type in each repository are kept, in memory. The class is
+ * thread-safe.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString(of = "size")
+@EqualsAndHashCode(of = "size")
+public final class Durations {
+
+    /**
+     * Logs of successful builds with known durations.
+     */
+    private static final String LOGS =
+        "/talk/archive/log[@type and @msec and @code='0']";
+
+    /**
+     * How many builds to keep per repository and type.
+     */
+    private final transient int size;
+
+    /**
+     * Durations of builds by log IDs, by repositories and types.
+     */
+    private final transient Map<String, Map<String, Long>> repos;
+
+    /**
+     * Ctor.
+     */
+    public Durations() {
+        this(Tv.HUNDRED);
+    }
+
+    /**
+     * Ctor.
+     * @param max How many builds to keep per repository and type
+     */
+    public Durations(final int max) {
+        this.size = max;
+        this.repos = new HashMap<>(0);
+    }
+
+    /**
+     * Learn durations from the archive of the talk.
+     * @param xml XML of the talk
+     */
+    public void learn(final XML xml) {
+        final String repo = Durations.repo(xml);
+        synchronized (this.repos) {
+            for (final XML log : xml.nodes(Durations.LOGS)) {
+                final String key = Durations.key(
+                    repo, log.xpath("@type").get(0)
+                );
+                this.repos.putIfAbsent(key, new LinkedHashMap<>(0));
+                final Map<String, Long> builds = this.repos.get(key);
+                builds.put(
+                    log.xpath("@id").get(0),
+                    Long.parseLong(log.xpath("@msec").get(0))
+                );
+                final Iterator<String> ids = builds.keySet().iterator();
+                while (builds.size() > this.size) {
+                    ids.next();
+                    ids.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * The 99th percentile of durations of builds of the same type, as
+     * the daemon of the talk, in the repository of the talk, in msec.
+     * @param xml XML of the talk
+     * @return Duration or zero, if there are less than five builds known
+     */
+    public long percentile(final XML xml) {
+        final String key = Durations.key(
+            Durations.repo(xml),
+            String.join("", xml.xpath("/talk/daemon/title/text()"))
+        );
+        final List<Long> list;
+        synchronized (this.repos) {
+            if (this.repos.containsKey(key)) {
+                list = new ArrayList<>(this.repos.get(key).values());
+            } else {
+                list = new ArrayList<>(0);
+            }
+        }
+        long msec = 0L;
+        if (list.size() >= Tv.FIVE) {
+            Collections.sort(list);
+            msec = list.get(
+                (int) Math.ceil(list.size() * 0.99d) - 1
+            );
+        }
+        return msec;
+    }
+
+    /**
+     * Key of the history of builds.
+     * @param repo Name of the repository
+     * @param type Type of the request, like "merge"
+     * @return Key
+     */
+    private static String key(final String repo, final String type) {
+        return String.format("%s %s", repo, type);
+    }
+
+    /**
+     * Name of the repository of the talk.
+     * @param xml XML of the talk
+     * @return Name
+     */
+    private static String repo(final XML xml) {
+        final List<String> repos = xml.xpath("/talk/wire/github-repo/text()");
+        final String repo;
+        if (repos.isEmpty()) {
+            repo = xml.xpath("/talk/@name").get(0);
+        } else {
+            repo = repos.get(0);
+        }
+        return repo;
+    }
+
+}
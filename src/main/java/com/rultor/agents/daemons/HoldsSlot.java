@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2009-2019, Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.agents.daemons;
+
+import com.jcabi.xml.XML;
+import com.rultor.agents.AbstractAgent;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.xembly.Directive;
+import org.xembly.Directives;
+
+/**
+ * Keeps the slot of a running daemon in {@link Admission} and releases
+ * it when the daemon is over or gone.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString
+@EqualsAndHashCode(callSuper = false, of = "admission")
+public final class HoldsSlot extends AbstractAgent {
+
+    /**
+     * XPath of a talk with a running daemon.
+     */
+    private static final String RUNNING =
+        "/talk[daemon[started and not(ended)] and shell/host]";
+
+    /**
+     * Admission.
+     */
+    private final transient Admission admission;
+
+    /**
+     * Ctor.
+     * @param adm Admission
+     */
+    public HoldsSlot(final Admission adm) {
+        super("/talk");
+        this.admission = adm;
+    }
+
+    @Override
+    public Iterable<Directive> process(final XML xml) {
+        final String name = xml.xpath("/talk/@name").get(0);
+        if (!xml.nodes(HoldsSlot.RUNNING).isEmpty()) {
+            this.admission.hold(
+                xml.xpath("/talk/shell/host/text()").get(0), name
+            );
+        } else if (xml.nodes("/talk/daemon[not(started)]").isEmpty()) {
+            this.admission.release(name);
+        }
+        return new Directives();
+    }
+
+}
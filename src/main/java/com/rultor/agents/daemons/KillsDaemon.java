@@ -29,10 +29,12 @@
  */
 package com.rultor.agents.daemons;
 
-import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Tv;
 import com.jcabi.log.Logger;
 import com.jcabi.xml.XML;
+import com.rultor.Time;
 import com.rultor.agents.AbstractAgent;
+import com.rultor.spi.Profile;
 import java.io.IOException;
 import java.util.concurrent.TimeUnit;
 import lombok.EqualsAndHashCode;
@@ -43,46 +45,132 @@ import org.xembly.Directives;
 /**
  * Kills daemon if too old.
  *
+ * <p>The limit is twice the 99th percentile of durations of recent
+ * successful builds of the same type in the same repository (see
+ * {@link Durations}), but not less than twenty minutes. It is capped
+ * by the maximum given to the constructor and by {@code timeout} in
+ * {@code .rultor.yml}, in minutes, whichever is smaller. The deadline of every running daemon is kept in
+ * {@link Deadlines}, which tells the routine when the talk has to be
+ * processed in order to be killed.</p>
+ *
  * @author Yegor Bugayenko (yegor256@gmail.com)
  * @version $Id$
  * @since 1.0
  */
-@Immutable
 @ToString
-@EqualsAndHashCode(callSuper = false)
+@EqualsAndHashCode(callSuper = false, of = "max")
 public final class KillsDaemon extends AbstractAgent {
 
+    /**
+     * Profile.
+     */
+    private final transient Profile profile;
+
+    /**
+     * Deadlines of daemons.
+     */
+    private final transient Deadlines deadlines;
+
+    /**
+     * Durations of recent builds.
+     */
+    private final transient Durations durations;
+
+    /**
+     * Maximum minutes per build.
+     */
+    private final transient long max;
+
     /**
      * Ctor.
      */
     public KillsDaemon() {
-        this(TimeUnit.HOURS.toMinutes(1L));
+        this(
+            new Profile.Fixed(), new Deadlines(), new Durations(),
+            TimeUnit.HOURS.toMinutes(1L)
+        );
     }
 
     /**
      * Ctor.
+     * @param prof Profile
+     * @param dlns Deadlines of daemons
+     * @param drns Durations of recent builds
      * @param mins Maximum minutes per build
+     * @checkstyle ParameterNumberCheck (5 lines)
+     * @since 2.0
      */
-    public KillsDaemon(final long mins) {
+    public KillsDaemon(final Profile prof, final Deadlines dlns,
+        final Durations drns, final long mins) {
         super(
             "/talk/daemon[started and not(code) and not(ended)]",
-            "/talk/daemon/dir",
-            String.format(
-                // @checkstyle LineLength (1 line)
-                "/talk[(current-dateTime() - xs:dateTime(daemon/started)) div xs:dayTimeDuration('PT1M') > %d]",
-                mins
-        )
+            "/talk/daemon/dir"
         );
+        this.profile = prof;
+        this.deadlines = dlns;
+        this.durations = drns;
+        this.max = mins;
     }
 
     @Override
     public Iterable<Directive> process(final XML xml) throws IOException {
+        this.durations.learn(xml);
+        final String name = xml.xpath("/talk/@name").get(0);
+        final long deadline = new Time(
+            xml.xpath("/talk/daemon/started/text()").get(0)
+        ).msec() + this.limit(xml);
+        if (deadline > System.currentTimeMillis()) {
+            this.deadlines.schedule(name, deadline);
+        } else {
+            this.deadlines.cancel(name);
+            this.kill(xml);
+        }
+        return new Directives();
+    }
+
+    /**
+     * Kill the daemon right now.
+     * @param xml XML of the talk
+     * @throws IOException If fails
+     * @since 2.0
+     */
+    public void kill(final XML xml) throws IOException {
         Logger.info(
             this, "daemon of %s killed due to delay, code=%d",
             xml.xpath("/talk/@name").get(0),
             new Script("kill.sh").exec(xml)
         );
-        return new Directives();
+    }
+
+    /**
+     * Limit of the daemon of this talk.
+     * @param xml XML of the talk
+     * @return Msec
+     * @throws IOException If fails
+     */
+    private long limit(final XML xml) throws IOException {
+        long cap = TimeUnit.MINUTES.toMillis(this.max);
+        final String custom = new Profile.Defaults(this.profile).text(
+            "/p/entry[@key='timeout']", ""
+        );
+        if (!custom.isEmpty()) {
+            try {
+                cap = Math.min(
+                    cap, TimeUnit.MINUTES.toMillis(Long.parseLong(custom))
+                );
+            } catch (final NumberFormatException ex) {
+                throw new Profile.ConfigException(ex);
+            }
+        }
+        final long pct = this.durations.percentile(xml);
+        long limit = cap;
+        if (pct > 0L) {
+            limit = Math.min(
+                cap,
+                Math.max(pct * 2L, TimeUnit.MINUTES.toMillis((long) Tv.TWENTY))
+            );
+        }
+        return limit;
     }
 
 }
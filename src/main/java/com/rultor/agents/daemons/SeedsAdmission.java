@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) 2009-2019, Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.agents.daemons;
+
+import com.rultor.spi.SuperAgent;
+import com.rultor.spi.Talk;
+import com.rultor.spi.Talks;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Gives slots in {@link Admission} to all running daemons, once, before
+ * the first sweep, so that after a restart no waiting daemon is admitted
+ * to a host, which slots are held already.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString
+@EqualsAndHashCode(of = "admission")
+public final class SeedsAdmission implements SuperAgent {
+
+    /**
+     * Admission.
+     */
+    private final transient Admission admission;
+
+    /**
+     * Seeded already?
+     */
+    private final transient AtomicBoolean done;
+
+    /**
+     * Ctor.
+     * @param adm Admission
+     */
+    public SeedsAdmission(final Admission adm) {
+        this.admission = adm;
+        this.done = new AtomicBoolean();
+    }
+
+    @Override
+    public void execute(final Talks talks) throws IOException {
+        if (!this.done.get()) {
+            final HoldsSlot agent = new HoldsSlot(this.admission);
+            for (final Talk talk : talks.active()) {
+                agent.execute(talk);
+            }
+            this.done.set(true);
+        }
+    }
+
+}
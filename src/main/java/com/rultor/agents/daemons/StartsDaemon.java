@@ -29,7 +29,6 @@
  */
 package com.rultor.agents.daemons;
 
-import com.jcabi.aspects.Immutable;
 import com.jcabi.aspects.RetryOnFailure;
 import com.jcabi.log.Logger;
 import com.jcabi.manifests.Manifests;
@@ -39,6 +38,7 @@ import com.jcabi.xml.XML;
 import com.rultor.Time;
 import com.rultor.agents.AbstractAgent;
 import com.rultor.agents.shells.TalkShells;
+import com.rultor.profiles.Priorities;
 import com.rultor.profiles.ProfileDeprecations;
 import com.rultor.spi.Profile;
 import java.io.ByteArrayInputStream;
@@ -46,6 +46,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.logging.Level;
 import lombok.EqualsAndHashCode;
@@ -61,12 +62,16 @@ import org.xembly.Directives;
 /**
  * Starts daemon.
  *
+ * <p>The daemon starts only when {@link Admission} gives it a slot
+ * at its host, otherwise it waits, without occupying the host. Its place
+ * in the queue depends on the type of the request, see
+ * {@link Priorities}.</p>
+ *
  * @author Yegor Bugayenko (yegor256@gmail.com)
  * @version $Id$
  * @since 1.0
  * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
  */
-@Immutable
 @ToString
 @EqualsAndHashCode(callSuper = false)
 public final class StartsDaemon extends AbstractAgent {
@@ -76,32 +81,63 @@ public final class StartsDaemon extends AbstractAgent {
      */
     private final transient Profile profile;
 
+    /**
+     * Admission to hosts.
+     */
+    private final transient Admission admission;
+
     /**
      * Ctor.
      * @param prof Profile
      */
     public StartsDaemon(final Profile prof) {
+        this(prof, new Admission(Integer.MAX_VALUE));
+    }
+
+    /**
+     * Ctor.
+     * @param prof Profile
+     * @param adm Admission to hosts
+     * @since 2.0
+     */
+    public StartsDaemon(final Profile prof, final Admission adm) {
         super(
             "/talk/shell[host and port and login and key]",
             "/talk/daemon[script and not(started) and not(ended)]"
         );
         this.profile = prof;
+        this.admission = adm;
     }
 
     @Override
-    public Iterable<Directive> process(final XML xml) {
-        final Directives dirs = new Directives()
-            .xpath("/talk/daemon[not(started)]")
-            .strict(1)
-            .add("started").set(new Time().iso()).up();
-        try {
-            final String dir = this.run(xml);
-            dirs.add("dir").set(dir);
-        } catch (final IOException ex) {
-            dirs.add("ended").set(new Time().iso()).up()
-                .add("code").set("128").up()
-                .add("tail").set(ex.getLocalizedMessage());
-            Logger.warn(this, "%[exception]s", ex);
+    public Iterable<Directive> process(final XML xml) throws IOException {
+        final Directives dirs = new Directives();
+        final String host = xml.xpath("/talk/shell/host/text()").get(0);
+        final String name = xml.xpath("/talk/@name").get(0);
+        final List<String> index = xml.xpath("/talk/request/@index");
+        long idx = 0L;
+        if (!index.isEmpty()) {
+            idx = Long.parseLong(index.get(0));
+        }
+        final int priority = new Priorities(this.profile).of(xml);
+        if (this.admission.admit(host, name, priority, idx)) {
+            dirs.xpath("/talk/daemon[not(started)]")
+                .strict(1)
+                .add("started").set(new Time().iso()).up();
+            try {
+                final String dir = this.run(xml);
+                dirs.add("dir").set(dir);
+            } catch (final IOException ex) {
+                dirs.add("ended").set(new Time().iso()).up()
+                    .add("code").set("128").up()
+                    .add("tail").set(ex.getLocalizedMessage());
+                Logger.warn(this, "%[exception]s", ex);
+            }
+        } else {
+            Logger.info(
+                this, "daemon of %s waits for a free slot at %s",
+                name, host
+            );
         }
         return dirs;
     }
@@ -33,21 +33,30 @@ import com.jcabi.log.Logger;
 import com.jcabi.ssh.Shell;
 import com.rultor.spi.SuperAgent;
 import com.rultor.spi.Talks;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.logging.Level;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.input.NullInputStream;
+import org.apache.commons.io.output.TeeOutputStream;
+import org.apache.commons.lang3.CharEncoding;
 
 /**
  * Checks the Health of a Docker host and tries to recover Docker daemon
  * crashes.
+ *
+ * <p>The check also reports statistics of the host to {@link HostStats},
+ * which decides when to check the host again and when to collect garbage
+ * on it: unused images ({@code rmi.sh}), dependency caches of
+ * repositories ({@code caches.sh}), stale directories of daemons and
+ * dangling volumes ({@code gc.sh}).</p>
+ *
+ * <p>A host, which doesn't respond, is reported to the log and
+ * skipped, since other hosts and agents must still run.</p>
+ *
  * @author Armin Braun (me@obrown.io)
  * @version $Id$
  * @since 1.63
- * @todo #1041:30min Add DockerHealthCheck to the running SuperAgents.
- *  In doing so make sure that Rultor crashes throwing a meaningful exception
- *  as soon as DockerHealthCheck#execute throws and exception.
- *  #1041 has the details on the motivation behind this agent.
  */
 public final class DockerHealthCheck implements SuperAgent {
 
@@ -56,24 +65,75 @@ public final class DockerHealthCheck implements SuperAgent {
      */
     private final transient Shell shell;
 
+    /**
+     * Name of the host.
+     */
+    private final transient String host;
+
+    /**
+     * Statistics of hosts.
+     */
+    private final transient HostStats stats;
+
     /**
      * Ctor.
      * @param ssh Shell
      */
     public DockerHealthCheck(final Shell ssh) {
+        this(ssh, "localhost", new HostStats());
+    }
+
+    /**
+     * Ctor.
+     * @param ssh Shell
+     * @param name Name of the host
+     * @param sts Statistics of hosts
+     * @since 2.0
+     */
+    public DockerHealthCheck(final Shell ssh, final String name,
+        final HostStats sts) {
         this.shell = ssh;
+        this.host = name;
+        this.stats = sts;
     }
 
     @Override
-    public void execute(final Talks talks) throws IOException {
+    public void execute(final Talks talks) {
+        if (this.stats.due(this.host)) {
+            try {
+                this.stats.update(this.host, this.run("checkhost.sh"));
+                if (this.stats.collect(this.host)) {
+                    Logger.info(this, "collecting garbage at %s", this.host);
+                    this.run("rmi.sh");
+                    this.run("caches.sh");
+                    this.run("gc.sh");
+                }
+            } catch (final IOException | IllegalArgumentException ex) {
+                Logger.warn(
+                    this, "failed to check %s: %[exception]s", this.host, ex
+                );
+            }
+        }
+    }
+
+    /**
+     * Run the script on the host.
+     * @param script Name of the script
+     * @return Stdout
+     * @throws IOException If fails
+     */
+    private String run(final String script) throws IOException {
+        final ByteArrayOutputStream stdout = new ByteArrayOutputStream();
         new Shell.Safe(this.shell).exec(
             IOUtils.toString(
-                this.getClass().getResourceAsStream("checkhost.sh")
+                this.getClass().getResourceAsStream(script),
+                CharEncoding.UTF_8
             ),
             new NullInputStream(0L),
-            Logger.stream(Level.INFO, this),
+            new TeeOutputStream(stdout, Logger.stream(Level.INFO, this)),
             Logger.stream(Level.WARNING, this)
         );
+        return new String(stdout.toByteArray(), CharEncoding.UTF_8);
     }
 
 }
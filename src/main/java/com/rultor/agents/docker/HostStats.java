@@ -0,0 +1,191 @@
+/**
+ * Copyright (c) 2009-2019, Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.agents.docker;
+
+import com.jcabi.aspects.Tv;
+import com.rultor.spi.Metrics;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Statistics of build hosts, reported by {@code checkhost.sh}, and
+ * the schedule of their maintenance.
+ *
+ * <p>A host is checked once in five minutes. Garbage is collected on it
+ * (see {@link DockerHealthCheck}) when its disk or inodes are used
+ * by {@link #PRESSURE} percent or more, and anyway once a day.</p>
+ *
+ * <p>The class is thread-safe.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString(of = "stats")
+@EqualsAndHashCode(of = "stats")
+public final class HostStats implements Metrics {
+
+    /**
+     * Usage of disk or inodes, in percent, which triggers collection.
+     */
+    public static final int PRESSURE = 80;
+
+    /**
+     * Line of statistics.
+     */
+    private static final Pattern LINE = Pattern.compile(
+        "^([a-z]+) (\\d{1,18})$", Pattern.MULTILINE
+    );
+
+    /**
+     * How often to check a host, in msec.
+     */
+    private static final long CHECK = TimeUnit.MINUTES.toMillis(
+        (long) Tv.FIVE
+    );
+
+    /**
+     * How often to collect garbage on a host without pressure, in msec.
+     */
+    private static final long COLLECT = TimeUnit.DAYS.toMillis(1L);
+
+    /**
+     * Statistics, by hosts.
+     */
+    private final transient Map<String, Map<String, Long>> stats;
+
+    /**
+     * When hosts were checked, by hosts.
+     */
+    private final transient Map<String, Long> checked;
+
+    /**
+     * When garbage was collected, by hosts.
+     */
+    private final transient Map<String, Long> collected;
+
+    /**
+     * Ctor.
+     */
+    public HostStats() {
+        this.stats = new HashMap<>(0);
+        this.checked = new HashMap<>(0);
+        this.collected = new HashMap<>(0);
+    }
+
+    @Override
+    public Map<String, Number> values() {
+        synchronized (this.stats) {
+            final long now = System.currentTimeMillis();
+            final Map<String, Number> values = new HashMap<>(0);
+            for (final Map.Entry<String, Map<String, Long>> host
+                : this.stats.entrySet()) {
+                final String prefix = String.format("hosts.%s.", host.getKey());
+                for (final Map.Entry<String, Long> stat
+                    : host.getValue().entrySet()) {
+                    values.put(prefix.concat(stat.getKey()), stat.getValue());
+                }
+                if (this.collected.containsKey(host.getKey())) {
+                    values.put(
+                        prefix.concat("collected-min-ago"),
+                        TimeUnit.MILLISECONDS.toMinutes(
+                            now - this.collected.get(host.getKey())
+                        )
+                    );
+                }
+            }
+            return values;
+        }
+    }
+
+    /**
+     * Is it time to check the host? The host is considered checked
+     * after this call.
+     * @param host The host
+     * @return TRUE if it has to be checked now
+     */
+    public boolean due(final String host) {
+        synchronized (this.stats) {
+            final long now = System.currentTimeMillis();
+            final boolean due = !this.checked.containsKey(host)
+                || now - this.checked.get(host) >= HostStats.CHECK;
+            if (due) {
+                this.checked.put(host, now);
+            }
+            return due;
+        }
+    }
+
+    /**
+     * Take statistics of the host, printed by {@code checkhost.sh}.
+     * @param host The host
+     * @param text Output of the script, "name value" lines
+     */
+    public void update(final String host, final String text) {
+        final Map<String, Long> values = new HashMap<>(0);
+        final Matcher matcher = HostStats.LINE.matcher(text);
+        while (matcher.find()) {
+            values.put(matcher.group(1), Long.parseLong(matcher.group(2)));
+        }
+        synchronized (this.stats) {
+            this.stats.put(host, values);
+        }
+    }
+
+    /**
+     * Is it time to collect garbage on the host? It is considered
+     * collected after this call.
+     * @param host The host
+     * @return TRUE if the garbage has to be collected now
+     */
+    public boolean collect(final String host) {
+        synchronized (this.stats) {
+            final long now = System.currentTimeMillis();
+            final Map<String, Long> values = this.stats.getOrDefault(
+                host, new HashMap<>(0)
+            );
+            final boolean due = values.getOrDefault("disk", 0L)
+                >= HostStats.PRESSURE
+                || values.getOrDefault("inodes", 0L) >= HostStats.PRESSURE
+                || !this.collected.containsKey(host)
+                || now - this.collected.get(host) >= HostStats.COLLECT;
+            if (due) {
+                this.collected.put(host, now);
+            }
+            return due;
+        }
+    }
+
+}
@@ -0,0 +1,164 @@
+/**
+ * Copyright (c) 2009-2019, Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.agents.docker;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Docker images, which profiles of active talks reference, in demand.
+ *
+ * <p>An image stays in demand for a week since it was seen last time,
+ * see {@link TracksImage}. Images in demand are pre-pulled on build
+ * hosts, at most once an hour per host, see {@link PullsImages}.
+ * The class is thread-safe.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString(of = "seen")
+@EqualsAndHashCode(of = "seen")
+public final class Images {
+
+    /**
+     * How long an image stays in demand, in msec.
+     */
+    private static final long DEMAND = TimeUnit.DAYS.toMillis(7L);
+
+    /**
+     * How often to pull an image on the same host, in msec.
+     */
+    private static final long PERIOD = TimeUnit.HOURS.toMillis(1L);
+
+    /**
+     * When images were seen last time, by names.
+     */
+    private final transient Map<String, Long> seen;
+
+    /**
+     * When images were pulled, by host and image names.
+     */
+    private final transient Map<String, Long> pulled;
+
+    /**
+     * Ctor.
+     */
+    public Images() {
+        this.seen = new HashMap<>(0);
+        this.pulled = new HashMap<>(0);
+    }
+
+    /**
+     * The image is in demand now; names, which are not valid Docker
+     * references, are ignored.
+     * @param image Name of the image, like "yegor256/rultor-image"
+     */
+    public void see(final String image) {
+        if (image.matches("[a-z0-9][a-zA-Z0-9._/:@-]{0,254}")) {
+            synchronized (this.seen) {
+                this.seen.put(
+                    Images.tagged(image), System.currentTimeMillis()
+                );
+            }
+        }
+    }
+
+    /**
+     * Images in demand, which are due to be pulled on the host;
+     * they stay due until {@link #pulled(String, Iterable)} is called.
+     * @param host The host
+     * @return Names of images
+     */
+    public Collection<String> due(final String host) {
+        synchronized (this.seen) {
+            final long now = System.currentTimeMillis();
+            final Iterator<Map.Entry<String, Long>> seens =
+                this.seen.entrySet().iterator();
+            while (seens.hasNext()) {
+                if (now - seens.next().getValue() > Images.DEMAND) {
+                    seens.remove();
+                }
+            }
+            final Iterator<Map.Entry<String, Long>> pulls =
+                this.pulled.entrySet().iterator();
+            while (pulls.hasNext()) {
+                if (now - pulls.next().getValue() > Images.PERIOD) {
+                    pulls.remove();
+                }
+            }
+            final Collection<String> due = new LinkedList<>();
+            for (final String image : this.seen.keySet()) {
+                final String key = String.format("%s %s", host, image);
+                if (!this.pulled.containsKey(key)) {
+                    due.add(image);
+                }
+            }
+            return due;
+        }
+    }
+
+    /**
+     * Images were pulled on the host.
+     * @param host The host
+     * @param images Names of images
+     */
+    public void pulled(final String host, final Iterable<String> images) {
+        synchronized (this.seen) {
+            final long now = System.currentTimeMillis();
+            for (final String image : images) {
+                this.pulled.put(String.format("%s %s", host, image), now);
+            }
+        }
+    }
+
+    /**
+     * Name of the image with a tag, the way Docker lists it.
+     * @param image Name of the image
+     * @return Name with a tag
+     */
+    private static String tagged(final String image) {
+        final String name;
+        if (image.contains("@")
+            || image.substring(image.lastIndexOf('/') + 1).contains(":")) {
+            name = image;
+        } else {
+            name = String.format("%s:latest", image);
+        }
+        return name;
+    }
+
+}
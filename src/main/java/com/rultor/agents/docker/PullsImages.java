@@ -0,0 +1,123 @@
+/**
+ * Copyright (c) 2009-2019, Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.agents.docker;
+
+import com.jcabi.log.Logger;
+import com.jcabi.ssh.SSH;
+import com.jcabi.ssh.Shell;
+import com.rultor.spi.SuperAgent;
+import com.rultor.spi.Talks;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.logging.Level;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.NullInputStream;
+import org.apache.commons.lang3.CharEncoding;
+import org.cactoos.iterable.Mapped;
+
+/**
+ * Pulls Docker images in demand on a build host, in the background,
+ * and marks them as hot for {@code rmi.sh}, see {@code pull.sh}.
+ *
+ * <p>A host, which doesn't respond, is reported to the log and
+ * skipped, its images stay due, since other hosts and agents must
+ * still run.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString
+@EqualsAndHashCode(of = { "host", "images" })
+public final class PullsImages implements SuperAgent {
+
+    /**
+     * Shell of the host.
+     */
+    private final transient Shell shell;
+
+    /**
+     * Name of the host.
+     */
+    private final transient String host;
+
+    /**
+     * Images in demand.
+     */
+    private final transient Images images;
+
+    /**
+     * Ctor.
+     * @param ssh Shell of the host
+     * @param name Name of the host
+     * @param imgs Images in demand
+     */
+    public PullsImages(final Shell ssh, final String name,
+        final Images imgs) {
+        this.shell = ssh;
+        this.host = name;
+        this.images = imgs;
+    }
+
+    @Override
+    public void execute(final Talks talks) {
+        final Collection<String> due = this.images.due(this.host);
+        if (!due.isEmpty()) {
+            try {
+                new Shell.Safe(this.shell).exec(
+                    String.format(
+                        "set -- %s\n%s",
+                        String.join(" ", new Mapped<>(SSH::escape, due)),
+                        IOUtils.toString(
+                            this.getClass().getResourceAsStream("pull.sh"),
+                            CharEncoding.UTF_8
+                        )
+                    ),
+                    new NullInputStream(0L),
+                    Logger.stream(Level.INFO, this),
+                    Logger.stream(Level.WARNING, this)
+                );
+                this.images.pulled(this.host, due);
+                Logger.info(
+                    this, "%d image(s) pulled at %s: %[list]s",
+                    due.size(), this.host, due
+                );
+            } catch (final IOException | IllegalArgumentException ex) {
+                Logger.warn(
+                    this, "failed to pull images at %s: %[exception]s",
+                    this.host, ex
+                );
+            }
+        }
+    }
+
+}
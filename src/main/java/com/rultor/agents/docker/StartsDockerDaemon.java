@@ -30,29 +30,58 @@
 package com.rultor.agents.docker;
 
 import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.NotFoundException;
 import com.github.dockerjava.api.command.CreateContainerResponse;
 import com.github.dockerjava.api.model.ExposedPort;
 import com.github.dockerjava.api.model.Ports;
 import com.github.dockerjava.core.DockerClientBuilder;
 import com.github.dockerjava.core.command.BuildImageResultCallback;
+import com.jcabi.log.Logger;
+import com.jcabi.log.VerboseThreads;
 import com.rultor.agents.shells.PfShell;
 import com.rultor.spi.Profile;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.StringWriter;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.io.IOUtils;
 
 /**
  * Starts a Docker Container containing a Docker daemon and SSHD.
+ *
+ * <p>The image is built once per JVM and per Docker daemon, it is tagged
+ * by the hash of its Dockerfile. Besides that, a pool of containers
+ * may be kept started in advance: {@link #shell()} takes one of them and
+ * starts another one in the background, instead of it. All containers,
+ * including the ones still in the pool, are removed by
+ * {@link #close()}.</p>
+ *
  * @author Armin Braun (me@obrown.io)
  * @version $Id$
  * @since 1.63
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
  */
+@SuppressWarnings("PMD.DoNotUseThreads")
 public final class StartsDockerDaemon implements AutoCloseable {
 
+    /**
+     * Images built, by hashes of their Dockerfiles.
+     */
+    private static final Map<String, String> IMAGES =
+        new ConcurrentHashMap<>(0);
+
     /**
      * Profile used.
      */
@@ -68,17 +97,50 @@ public final class StartsDockerDaemon implements AutoCloseable {
      */
     private final transient Collection<CreateContainerResponse> containers;
 
+    /**
+     * Containers started in advance.
+     */
+    private final transient BlockingQueue<CreateContainerResponse> pool;
+
+    /**
+     * Starter of containers for the pool.
+     */
+    private final transient ExecutorService starter;
+
+    /**
+     * Closed already?
+     */
+    private final transient AtomicBoolean closed;
+
     /**
      * Ctor.
      * @param prof Current Profile
      */
     public StartsDockerDaemon(final Profile prof) {
+        this(prof, 0);
+    }
+
+    /**
+     * Ctor.
+     * @param prof Current Profile
+     * @param size How many containers to keep started in advance
+     * @since 2.0
+     */
+    public StartsDockerDaemon(final Profile prof, final int size) {
         this.profile = prof;
         this.client = DockerClientBuilder.getInstance().build();
         this.containers = Collections.newSetFromMap(
             // @checkstyle MagicNumber (1 line)
             new ConcurrentHashMap<CreateContainerResponse, Boolean>(1, 0.9f, 1)
         );
+        this.pool = new LinkedBlockingQueue<>();
+        this.starter = Executors.newSingleThreadExecutor(
+            new VerboseThreads(StartsDockerDaemon.class)
+        );
+        this.closed = new AtomicBoolean();
+        for (int idx = 0; idx < size; ++idx) {
+            this.refill();
+        }
     }
 
     /**
@@ -87,15 +149,12 @@ public final class StartsDockerDaemon implements AutoCloseable {
      * @throws IOException on failure
      */
     public PfShell shell() throws IOException {
-        final ExposedPort ssh = ExposedPort.tcp(22);
-        final Ports ports = new Ports();
-        ports.bind(ssh, Ports.Binding(null));
-        final CreateContainerResponse container = this.client
-            .createContainerCmd(this.build()).withExposedPorts(
-                ssh
-            ).withPortBindings(ports).exec();
-        this.containers.add(container);
-        this.client.startContainerCmd(container.getId()).exec();
+        CreateContainerResponse container = this.pool.poll();
+        if (container == null) {
+            container = this.container();
+        } else {
+            this.refill();
+        }
         return new PfShell(
             this.profile,
             this.client.infoCmd().exec().getName(),
@@ -109,6 +168,14 @@ public final class StartsDockerDaemon implements AutoCloseable {
 
     @Override
     public void close() throws IOException {
+        this.closed.set(true);
+        this.starter.shutdownNow();
+        try {
+            this.starter.awaitTermination(1L, TimeUnit.MINUTES);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException(ex);
+        }
         for (final CreateContainerResponse container : this.containers) {
             this.client.killContainerCmd(container.getId()).exec();
             this.client.removeContainerCmd(container.getId()).exec();
@@ -116,6 +183,49 @@ public final class StartsDockerDaemon implements AutoCloseable {
         this.client.close();
     }
 
+    /**
+     * Start one more container for the pool, in the background.
+     *
+     * <p>A failure is logged here, since nobody waits for the result;
+     * the pool stays one container short and {@link #shell()} starts
+     * a container in the foreground when it is empty.</p>
+     */
+    private void refill() {
+        this.starter.execute(
+            () -> {
+                if (!this.closed.get()) {
+                    try {
+                        this.pool.add(this.container());
+                        // @checkstyle IllegalCatchCheck (1 line)
+                    } catch (final IOException | RuntimeException ex) {
+                        Logger.warn(
+                            this, "failed to start a container: %[exception]s",
+                            ex
+                        );
+                    }
+                }
+            }
+        );
+    }
+
+    /**
+     * Create and start a container.
+     * @return The container
+     * @throws IOException on failure
+     */
+    private CreateContainerResponse container() throws IOException {
+        final ExposedPort ssh = ExposedPort.tcp(22);
+        final Ports ports = new Ports();
+        ports.bind(ssh, Ports.Binding(null));
+        final CreateContainerResponse container = this.client
+            .createContainerCmd(this.image()).withExposedPorts(
+                ssh
+            ).withPortBindings(ports).exec();
+        this.containers.add(container);
+        this.client.startContainerCmd(container.getId()).exec();
+        return container;
+    }
+
     /**
      * Retrieves SSH private key needed to connect to a given container.
      * @param container Container from which to get the SSH key
@@ -136,13 +246,34 @@ public final class StartsDockerDaemon implements AutoCloseable {
     }
 
     /**
-     * Builds a fresh Rultor runner base image on the Docker daemon.
-     * @return Image ID of the Rultor runner base image
+     * Rultor runner base image on the Docker daemon, built only if
+     * there is no image with the same Dockerfile yet.
+     * @return Image ID or tag of the Rultor runner base image
+     * @throws IOException on failure
      */
-    private String build() {
-        return this.client.buildImageCmd(
-            new File(this.getClass().getResource("image").getPath())
-        ).exec(new BuildImageResultCallback()).awaitImageId();
+    private String image() throws IOException {
+        final File dir = new File(
+            this.getClass().getResource("image").getPath()
+        );
+        final String hash;
+        try (InputStream dockerfile =
+            new FileInputStream(new File(dir, "Dockerfile"))) {
+            hash = DigestUtils.sha1Hex(dockerfile);
+        }
+        final String tag = String.format("rultor-runner:%s", hash);
+        synchronized (StartsDockerDaemon.IMAGES) {
+            if (!StartsDockerDaemon.IMAGES.containsKey(hash)) {
+                try {
+                    this.client.inspectImageCmd(tag).exec();
+                } catch (final NotFoundException ex) {
+                    Logger.info(this, "building image %s", tag);
+                    this.client.buildImageCmd(dir).withTag(tag)
+                        .exec(new BuildImageResultCallback()).awaitImageId();
+                }
+                StartsDockerDaemon.IMAGES.put(hash, tag);
+            }
+        }
+        return StartsDockerDaemon.IMAGES.get(hash);
     }
 
 }
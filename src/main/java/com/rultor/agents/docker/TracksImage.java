@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2009-2019, Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.agents.docker;
+
+import com.jcabi.xml.XML;
+import com.rultor.agents.AbstractAgent;
+import com.rultor.spi.Profile;
+import java.io.IOException;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.xembly.Directive;
+import org.xembly.Directives;
+
+/**
+ * Tells {@link Images} which Docker image the profile of a talk with
+ * a request references.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString
+@EqualsAndHashCode(callSuper = false, of = { "profile", "images" })
+public final class TracksImage extends AbstractAgent {
+
+    /**
+     * Profile.
+     */
+    private final transient Profile profile;
+
+    /**
+     * Images in demand.
+     */
+    private final transient Images images;
+
+    /**
+     * Ctor.
+     * @param prof Profile
+     * @param imgs Images in demand
+     */
+    public TracksImage(final Profile prof, final Images imgs) {
+        super("/talk/request[type]");
+        this.profile = prof;
+        this.images = imgs;
+    }
+
+    @Override
+    public Iterable<Directive> process(final XML xml) throws IOException {
+        try {
+            final Profile.Defaults def = new Profile.Defaults(this.profile);
+            if (def.text("/p/entry[@key='docker']/entry[@key='directory']")
+                .isEmpty()) {
+                this.images.see(
+                    def.text(
+                        "/p/entry[@key='docker']/entry[@key='image']",
+                        "yegor256/rultor-image"
+                    )
+                );
+            }
+        } catch (final Profile.ConfigException ex) {
+            this.images.see("yegor256/rultor-image");
+        }
+        return new Directives();
+    }
+
+}
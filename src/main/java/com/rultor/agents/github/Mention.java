@@ -0,0 +1,116 @@
+/**
+ * Copyright (c) 2009-2019, Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.agents.github;
+
+import com.jcabi.aspects.Immutable;
+import com.jcabi.github.Coordinates;
+import com.jcabi.log.Logger;
+import com.rultor.spi.Talks;
+import java.io.IOException;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.xembly.Directives;
+
+/**
+ * Mention of rultor in a Github issue, which starts or wakes up a talk.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@Immutable
+@ToString
+@EqualsAndHashCode(of = { "coords", "number", "href" })
+public final class Mention {
+
+    /**
+     * Coordinates of the repo.
+     */
+    private final transient Coordinates coords;
+
+    /**
+     * Number of the issue.
+     */
+    private final transient int number;
+
+    /**
+     * HTML URL of the issue.
+     */
+    private final transient String href;
+
+    /**
+     * Ctor.
+     * @param repo Coordinates of the repo
+     * @param issue Number of the issue
+     * @param url HTML URL of the issue
+     */
+    public Mention(final Coordinates repo, final int issue, final String url) {
+        this.coords = repo;
+        this.number = issue;
+        this.href = url;
+    }
+
+    /**
+     * Name of the talk.
+     * @return Name
+     */
+    public String name() {
+        return String.format("%s#%d", this.coords, this.number);
+    }
+
+    /**
+     * Create or activate the talk.
+     * @param talks Talks
+     * @return Name of the talk activated
+     * @throws IOException If fails
+     */
+    public String activate(final Talks talks) throws IOException {
+        final String name = this.name();
+        talks.activate(
+            this.coords.toString(),
+            name,
+            new Directives()
+                .xpath("/talk").attr("later", Boolean.toString(true))
+                .xpath("/talk[not(wire)]")
+                .add("wire").add("href").set(this.href)
+                .up()
+                .add("github-repo").set(this.coords.toString())
+                .up()
+                .add("github-issue")
+                .set(Integer.toString(this.number))
+        );
+        Logger.info(
+            this, "talk %s#%d activated as %s",
+            this.coords, this.number, name
+        );
+        return name;
+    }
+
+}
@@ -29,6 +29,8 @@
  */
 package com.rultor.agents.github;
 
+import co.stateful.Counter;
+import co.stateful.Counters;
 import com.jcabi.aspects.Immutable;
 import com.jcabi.aspects.Tv;
 import com.jcabi.github.Coordinates;
@@ -36,82 +38,221 @@ import com.jcabi.github.Github;
 import com.jcabi.github.Issue;
 import com.jcabi.github.RtPagination;
 import com.jcabi.http.Request;
+import com.jcabi.http.Response;
+import com.jcabi.http.response.JsonResponse;
 import com.jcabi.http.response.RestResponse;
+import com.jcabi.http.response.WebLinkingResponse;
 import com.jcabi.log.Logger;
 import com.rultor.Time;
 import com.rultor.spi.SuperAgent;
-import com.rultor.spi.Talk;
 import com.rultor.spi.Talks;
 import java.io.IOException;
 import java.net.HttpURLConnection;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.Collection;
-import java.util.Date;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import javax.json.JsonObject;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.time.DateUtils;
-import org.xembly.Directives;
+import org.cactoos.iterable.Joined;
 
 /**
  * Starts talk when I'm mentioned in a Github issue.
  *
+ * <p>Notifications are fetched since the time of update of the last
+ * one processed, which is kept in a Sttc counter, and only then
+ * marked as read. Github treats that time as inclusive and has
+ * a precision of one second, that's why a second is added to it,
+ * in order to not get the last notification again. Github is polled
+ * not more often than it asks to in {@code X-Poll-Interval}, with
+ * {@code If-Modified-Since}, in order to not spend the rate limit
+ * when nothing happened.</p>
+ *
  * @author Yegor Bugayenko (yegor256@gmail.com)
  * @version $Id$
  * @since 1.0
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
  */
 @Immutable
 @ToString
-@EqualsAndHashCode(of = "github")
+@EqualsAndHashCode(of = { "github", "counters" })
 public final class StartsTalks implements SuperAgent {
 
+    /**
+     * Counter with the time of update of the last notification
+     * processed, in msec.
+     */
+    private static final String SINCE = "rt-notifications-since";
+
+    /**
+     * Counter with {@code Last-Modified} of notifications, in msec.
+     */
+    private static final String MODIFIED = "rt-notifications-modified";
+
+    /**
+     * Counter with the time of the next poll, in msec.
+     */
+    private static final String POLL = "rt-notifications-poll";
+
     /**
      * Github.
      */
     private final transient Github github;
 
+    /**
+     * Counters.
+     */
+    private final transient Counters counters;
+
     /**
      * Ctor.
      * @param ghub Github client
+     * @param cnts Counters of Sttc
+     * @since 2.0
      */
-    public StartsTalks(final Github ghub) {
+    public StartsTalks(final Github ghub, final Counters cnts) {
         this.github = ghub;
+        this.counters = cnts;
     }
 
     @Override
-    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
     public void execute(final Talks talks) throws IOException {
-        final String since = new Time(
-            DateUtils.addMinutes(new Date(), -Tv.THREE)
-        ).iso();
+        final long now = System.currentTimeMillis();
+        final Counter poll = this.counters.get(StartsTalks.POLL);
+        final long next = poll.incrementAndGet(0L);
+        if (next > now) {
+            Logger.info(
+                this, "notifications will be polled in %[ms]s", next - now
+            );
+        } else {
+            this.poll(talks, poll, now);
+        }
+    }
+
+    /**
+     * Poll notifications.
+     * @param talks Talks
+     * @param poll Counter with the time of the next poll
+     * @param now Current time
+     * @throws IOException If fails
+     */
+    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+    private void poll(final Talks talks, final Counter poll, final long now)
+        throws IOException {
+        final Counter mark = this.counters.get(StartsTalks.SINCE);
+        final Counter modified = this.counters.get(StartsTalks.MODIFIED);
+        final long last = mark.incrementAndGet(0L);
+        final long from;
+        if (last == 0L) {
+            from = now - TimeUnit.MINUTES.toMillis((long) Tv.THREE);
+        } else {
+            from = last;
+        }
+        final String since = new Time(from).iso();
         final Request req = this.github.entry()
             .uri().path("/notifications").back();
-        final Iterable<JsonObject> events = new RtPagination<>(
-            req.uri().queryParam("participating", "true")
-                .queryParam("since", since)
-                .queryParam("all", Boolean.toString(true))
-                .back(),
-            RtPagination.COPYING
-        );
-        final Collection<String> names = new LinkedList<>();
-        for (final JsonObject event : events) {
-            final String reason = event.getString("reason");
-            if ("mention".equals(reason)) {
-                names.add(this.activate(talks, event));
+        final Request query = req.uri()
+            .queryParam("participating", "true")
+            .queryParam("since", since)
+            .queryParam("all", Boolean.toString(true))
+            .back();
+        Request probe = query;
+        final long lmod = modified.incrementAndGet(0L);
+        if (lmod > 0L) {
+            probe = probe.header(
+                "If-Modified-Since",
+                DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                    Instant.ofEpochMilli(lmod).atZone(ZoneOffset.UTC)
+                )
+            );
+        }
+        final Response rsp = probe.fetch();
+        final String interval = StartsTalks.header(rsp, "X-Poll-Interval");
+        long delay = TimeUnit.MINUTES.toMillis(1L);
+        if (!interval.isEmpty()) {
+            delay = TimeUnit.SECONDS.toMillis(Long.parseLong(interval));
+        }
+        poll.set(now + delay);
+        if (rsp.status() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+            Logger.info(this, "no new notifications since %s", since);
+        } else {
+            rsp.as(RestResponse.class).assertStatus(HttpURLConnection.HTTP_OK);
+            final String header = StartsTalks.header(rsp, "Last-Modified");
+            if (!header.isEmpty()) {
+                modified.set(
+                    ZonedDateTime.parse(
+                        header, DateTimeFormatter.RFC_1123_DATE_TIME
+                    ).toInstant().toEpochMilli()
+                );
+            }
+            final Collection<String> names = new LinkedList<>();
+            long top = from;
+            for (final JsonObject event : StartsTalks.events(query, rsp)) {
+                final String reason = event.getString("reason");
+                if ("mention".equals(reason)) {
+                    names.add(this.activate(talks, event));
+                }
+                top = Math.max(
+                    top,
+                    Instant.parse(event.getString("updated_at"))
+                        .toEpochMilli() + TimeUnit.SECONDS.toMillis(1L)
+                );
             }
+            if (top > last) {
+                mark.set(top);
+                req.uri()
+                    .queryParam("last_read_at", new Time(top).iso()).back()
+                    .method(Request.PUT)
+                    .body().set("{}").back()
+                    .fetch()
+                    .as(RestResponse.class)
+                    .assertStatus(HttpURLConnection.HTTP_RESET);
+            }
+            Logger.info(
+                this, "%d new notification(s) since %s: %[list]s",
+                names.size(), since, names
+            );
         }
-        req.uri()
-            .queryParam("last_read_at", since).back()
-            .method(Request.PUT)
-            .body().set("{}").back()
-            .fetch()
-            .as(RestResponse.class)
-            .assertStatus(HttpURLConnection.HTTP_RESET);
-        Logger.info(
-            this, "%d new notification(s): %[list]s",
-            names.size(), names
-        );
+    }
+
+    /**
+     * Notifications, starting with the first page already fetched.
+     *
+     * <p>The probe response is the first page, so only the next ones,
+     * if any, are fetched by {@link RtPagination}, which follows
+     * their {@code Link} headers.</p>
+     *
+     * @param query Request of notifications
+     * @param rsp Response with the first page
+     * @return Events
+     * @throws IOException If fails
+     */
+    private static Iterable<JsonObject> events(final Request query,
+        final Response rsp) throws IOException {
+        final Iterable<JsonObject> first = rsp.as(JsonResponse.class)
+            .json().readArray().getValuesAs(JsonObject.class);
+        final Map<String, WebLinkingResponse.Link> links =
+            rsp.as(WebLinkingResponse.class).links();
+        final Iterable<JsonObject> events;
+        if (links.containsKey("next")) {
+            events = new Joined<JsonObject>(
+                first,
+                new RtPagination<>(
+                    query.uri().set(links.get("next").uri()).back(),
+                    RtPagination.COPYING
+                )
+            );
+        } else {
+            events = first;
+        }
+        return events;
     }
 
     /**
@@ -132,29 +273,29 @@ public final class StartsTalks implements SuperAgent {
                 )
             )
         );
-        final String name = String.format("%s#%d", coords, issue.number());
-        if (!talks.exists(name)) {
-            talks.create(coords.toString(), name);
+        return new Mention(
+            coords, issue.number(),
+            new Issue.Smart(issue).htmlUrl().toString()
+        ).activate(talks);
+    }
+
+    /**
+     * First value of HTTP header.
+     * @param rsp Response
+     * @param name Name of the header
+     * @return Value or empty string if it is absent
+     */
+    private static String header(final Response rsp, final String name) {
+        String value = "";
+        for (final Map.Entry<String, List<String>> entry
+            : rsp.headers().entrySet()) {
+            if (name.equalsIgnoreCase(entry.getKey())
+                && !entry.getValue().isEmpty()) {
+                value = entry.getValue().get(0);
+                break;
+            }
         }
-        final Talk talk = talks.get(name);
-        talk.modify(
-            new Directives()
-                .xpath("/talk").attr("later", Boolean.toString(true))
-                .xpath("/talk[not(wire)]")
-                .add("wire").add("href")
-                .set(new Issue.Smart(issue).htmlUrl().toString())
-                .up()
-                .add("github-repo").set(coords.toString())
-                .up()
-                .add("github-issue")
-                .set(Integer.toString(issue.number()))
-        );
-        talk.active(true);
-        Logger.info(
-            this, "talk %s#%d activated as %s",
-            coords, issue.number(), name
-        );
-        return talk.name();
+        return value;
     }
 
     /**
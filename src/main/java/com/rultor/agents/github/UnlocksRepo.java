@@ -53,7 +53,7 @@ import org.apache.commons.lang3.StringUtils;
 @Immutable
 @ToString
 @EqualsAndHashCode(of = { "locks", "github" })
-public final class UnlocksRepo implements SuperAgent {
+public final class UnlocksRepo implements SuperAgent, SuperAgent.Closer {
 
     /**
      * Which talks should be unlocked.
@@ -85,26 +85,22 @@ public final class UnlocksRepo implements SuperAgent {
 
     @Override
     public void execute(final Talks talks) throws IOException {
-        for (final Talk talk : talks.active()) {
-            this.unlock(talk);
-        }
+        new SuperAgent.Fused(this).execute(talks);
     }
 
-    /**
-     * Unlock.
-     * @param talk Talk
-     * @throws IOException If fails
-     */
-    private void unlock(final Talk talk) throws IOException {
-        final XML xml = talk.read();
-        if (!xml.nodes(UnlocksRepo.XPATH).isEmpty()) {
-            final Issue issue = new TalkIssues(this.github, talk.read()).get();
-            if (new RepoLock(this.locks, issue.repo()).unlock(talk)) {
-                Logger.info(
-                    this, "%s unlocked by %s",
-                    issue.repo().coordinates(), talk.name()
-                );
-            }
+    @Override
+    public String xpath() {
+        return UnlocksRepo.XPATH;
+    }
+
+    @Override
+    public void close(final Talk talk, final XML xml) throws IOException {
+        final Issue issue = new TalkIssues(this.github, xml).get();
+        if (new RepoLock(this.locks, issue.repo()).unlock(talk)) {
+            Logger.info(
+                this, "%s unlocked by %s",
+                issue.repo().coordinates(), talk.name()
+            );
         }
     }
 
@@ -29,14 +29,16 @@
  */
 package com.rultor.agents.github.qtn;
 
-import com.jcabi.aspects.Immutable;
 import com.jcabi.github.Comment;
 import com.jcabi.github.Issue;
 import com.jcabi.github.Repo;
 import com.jcabi.log.Logger;
+import com.rultor.agents.daemons.Admission;
 import com.rultor.agents.github.Answer;
 import com.rultor.agents.github.Question;
 import com.rultor.agents.github.Req;
+import com.rultor.profiles.Priorities;
+import com.rultor.spi.Profile;
 import java.io.IOException;
 import java.net.URI;
 import java.util.ResourceBundle;
@@ -53,7 +55,6 @@ import org.cactoos.map.SolidMap;
  * @since 1.3
  * @checkstyle MultipleStringLiteralsCheck (500 lines)
  */
-@Immutable
 @ToString
 @EqualsAndHashCode
 public final class QnDeploy implements Question {
@@ -64,6 +65,28 @@ public final class QnDeploy implements Question {
     private static final ResourceBundle PHRASES =
         ResourceBundle.getBundle("phrases");
 
+    /**
+     * Notice about the queue.
+     */
+    private final transient QueueNotice notice;
+
+    /**
+     * Ctor.
+     */
+    public QnDeploy() {
+        this(new Admission(), new Priorities(new Profile.Fixed()));
+    }
+
+    /**
+     * Ctor.
+     * @param admission Admission of builds, to tell the queue position
+     * @param priorities Priorities of requests
+     * @since 2.0
+     */
+    public QnDeploy(final Admission admission, final Priorities priorities) {
+        this.notice = new QueueNotice(admission, priorities, "deploy");
+    }
+
     @Override
     public Req understand(final Comment.Smart comment,
         final URI home) throws IOException {
@@ -72,7 +95,7 @@ public final class QnDeploy implements Question {
             String.format(
                 QnDeploy.PHRASES.getString("QnDeploy.start"),
                 home.toASCIIString()
-            )
+            ) + this.notice.text()
         );
         final Issue issue = comment.issue();
         final Repo repo = issue.repo();
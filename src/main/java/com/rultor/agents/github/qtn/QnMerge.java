@@ -29,15 +29,17 @@
  */
 package com.rultor.agents.github.qtn;
 
-import com.jcabi.aspects.Immutable;
 import com.jcabi.github.Comment;
 import com.jcabi.github.Issue;
 import com.jcabi.github.Pull;
 import com.jcabi.github.PullRef;
 import com.jcabi.log.Logger;
+import com.rultor.agents.daemons.Admission;
 import com.rultor.agents.github.Answer;
 import com.rultor.agents.github.Question;
 import com.rultor.agents.github.Req;
+import com.rultor.profiles.Priorities;
+import com.rultor.spi.Profile;
 import java.io.IOException;
 import java.net.URI;
 import java.util.ResourceBundle;
@@ -54,7 +56,6 @@ import org.cactoos.map.SolidMap;
  * @since 1.3
  * @checkstyle MultipleStringLiteralsCheck (500 lines)
  */
-@Immutable
 @ToString
 @EqualsAndHashCode
 public final class QnMerge implements Question {
@@ -65,6 +66,28 @@ public final class QnMerge implements Question {
     private static final ResourceBundle PHRASES =
         ResourceBundle.getBundle("phrases");
 
+    /**
+     * Notice about the queue.
+     */
+    private final transient QueueNotice notice;
+
+    /**
+     * Ctor.
+     */
+    public QnMerge() {
+        this(new Admission(), new Priorities(new Profile.Fixed()));
+    }
+
+    /**
+     * Ctor.
+     * @param admission Admission of builds, to tell the queue position
+     * @param priorities Priorities of requests
+     * @since 2.0
+     */
+    public QnMerge(final Admission admission, final Priorities priorities) {
+        this.notice = new QueueNotice(admission, priorities, "merge");
+    }
+
     @Override
     public Req understand(final Comment.Smart comment,
         final URI home) throws IOException {
@@ -76,7 +99,7 @@ public final class QnMerge implements Question {
                 String.format(
                     QnMerge.PHRASES.getString("QnMerge.start"),
                     home.toASCIIString()
-                )
+                ) + this.notice.text()
             );
             Logger.info(
                 this, "merge request found in %s#%d, comment #%d",
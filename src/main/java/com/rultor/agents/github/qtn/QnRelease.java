@@ -29,13 +29,15 @@
  */
 package com.rultor.agents.github.qtn;
 
-import com.jcabi.aspects.Immutable;
 import com.jcabi.github.Comment;
 import com.jcabi.github.Issue;
 import com.jcabi.log.Logger;
+import com.rultor.agents.daemons.Admission;
 import com.rultor.agents.github.Answer;
 import com.rultor.agents.github.Question;
 import com.rultor.agents.github.Req;
+import com.rultor.profiles.Priorities;
+import com.rultor.spi.Profile;
 import java.io.IOException;
 import java.net.URI;
 import java.util.ResourceBundle;
@@ -53,7 +55,6 @@ import org.cactoos.map.SolidMap;
  * @version $Id$
  * @since 1.3.6
  */
-@Immutable
 @ToString
 @EqualsAndHashCode
 public final class QnRelease implements Question {
@@ -69,6 +70,28 @@ public final class QnRelease implements Question {
     private static final ResourceBundle PHRASES =
         ResourceBundle.getBundle("phrases");
 
+    /**
+     * Notice about the queue.
+     */
+    private final transient QueueNotice notice;
+
+    /**
+     * Ctor.
+     */
+    public QnRelease() {
+        this(new Admission(), new Priorities(new Profile.Fixed()));
+    }
+
+    /**
+     * Ctor.
+     * @param admission Admission of builds, to tell the queue position
+     * @param priorities Priorities of requests
+     * @since 2.0
+     */
+    public QnRelease(final Admission admission, final Priorities priorities) {
+        this.notice = new QueueNotice(admission, priorities, "release");
+    }
+
     @Override
     public Req understand(final Comment.Smart comment,
         final URI home) throws IOException {
@@ -84,7 +107,7 @@ public final class QnRelease implements Question {
             final String name = matcher.group(1);
             final ReleaseTag release = new ReleaseTag(issue.repo(), name);
             if (release.allowed()) {
-                req = QnRelease.affirmative(comment, home);
+                req = this.affirmative(comment, home);
             } else {
                 new Answer(comment).post(
                     false,
@@ -97,7 +120,7 @@ public final class QnRelease implements Question {
                 req = Req.EMPTY;
             }
         } else {
-            req = QnRelease.affirmative(comment, home);
+            req = this.affirmative(comment, home);
         }
         return req;
     }
@@ -109,14 +132,14 @@ public final class QnRelease implements Question {
      * @return Req.Simple containing the release parameters
      * @throws IOException on error
      */
-    private static Req affirmative(final Comment.Smart comment,
+    private Req affirmative(final Comment.Smart comment,
         final URI home) throws IOException {
         new Answer(comment).post(
             true,
             String.format(
                 QnRelease.PHRASES.getString("QnRelease.start"),
                 home.toASCIIString()
-            )
+            ) + this.notice.text()
         );
         return new Req.Simple(
             "release",
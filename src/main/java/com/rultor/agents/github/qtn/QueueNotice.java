@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) 2009-2019, Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.agents.github.qtn;
+
+import com.rultor.agents.daemons.Admission;
+import com.rultor.profiles.Priorities;
+import java.io.IOException;
+import java.util.ResourceBundle;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Notice about the backlog of {@link Admission}, to be appended
+ * to the acknowledgement.
+ *
+ * <p>The build is not yet placed on a host when the request is
+ * acknowledged, so its position in the queue of that host is not
+ * known. The notice tells how many builds with the same or higher
+ * priority are waiting on all hosts instead.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString
+@EqualsAndHashCode(of = { "admission", "priorities", "type" })
+final class QueueNotice {
+
+    /**
+     * Message bundle.
+     */
+    private static final ResourceBundle PHRASES =
+        ResourceBundle.getBundle("phrases");
+
+    /**
+     * Admission.
+     */
+    private final transient Admission admission;
+
+    /**
+     * Priorities of requests.
+     */
+    private final transient Priorities priorities;
+
+    /**
+     * Type of the request.
+     */
+    private final transient String type;
+
+    /**
+     * Ctor.
+     * @param adm Admission
+     * @param prts Priorities of requests
+     * @param tpe Type of the request
+     */
+    QueueNotice(final Admission adm, final Priorities prts,
+        final String tpe) {
+        this.admission = adm;
+        this.priorities = prts;
+        this.type = tpe;
+    }
+
+    /**
+     * Text of the notice, empty if nobody is waiting.
+     * @return Text
+     * @throws IOException If fails
+     */
+    public String text() throws IOException {
+        final int ahead = this.admission.ahead(
+            this.priorities.of(this.type)
+        );
+        String text = "";
+        if (ahead > 0) {
+            text = String.format(
+                QueueNotice.PHRASES.getString("QueueNotice.waiting"),
+                ahead
+            );
+        }
+        return text;
+    }
+
+}
@@ -43,7 +43,9 @@ import java.util.Map;
 import java.util.Map.Entry;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.cactoos.iterable.IterableOf;
 import org.cactoos.iterable.Joined;
 import org.cactoos.list.SolidList;
 
@@ -88,28 +90,78 @@ final class DockerRun {
      * @throws IOException If fails
      */
     public Iterable<String> script() throws IOException {
-        final Iterable<String> trap;
-        if (this.profile.read().nodes("/p/entry[@key='uninstall']").isEmpty()) {
-            trap = Collections.emptyList();
-        } else {
-            trap = new Joined<String>(
-                new SolidList<String>("function", "clean_up()", "{"),
-                DockerRun.scripts(
-                    this.profile.read(), "/p/entry[@key='uninstall']"
-                ),
-                new SolidList<String>("}", ";"),
-                new SolidList<String>("trap", "clean_up", "EXIT", ";")
-            );
-        }
         return new Joined<String>(
-            trap,
-            DockerRun.scripts(
-                this.profile.read(), "/p/entry[@key='install']"
-            ),
+            this.trap(),
+            this.install(),
+            DockerRun.scripts(this.node(), "entry[@key='script']")
+        );
+    }
+
+    /**
+     * Make a script of the install phase only.
+     * @return Script
+     * @throws IOException If fails
+     * @since 2.0
+     */
+    public Iterable<String> install() throws IOException {
+        return DockerRun.scripts(
+            this.profile.read(), "/p/entry[@key='install']"
+        );
+    }
+
+    /**
+     * Make a script to run in a container, which has the install
+     * phase done already (see {@link #snapshot(String, String, String)}).
+     * @return Script
+     * @throws IOException If fails
+     * @since 2.0
+     */
+    public Iterable<String> build() throws IOException {
+        return new Joined<String>(
+            this.trap(),
             DockerRun.scripts(this.node(), "entry[@key='script']")
         );
     }
 
+    /**
+     * Key of the snapshot of a container after the install phase,
+     * which depends on the repository, the type of the request, the
+     * image, the install script and the environment. The repository is
+     * a part of the key, since the install script installs its
+     * dependencies, which must not leak into builds of other
+     * repositories. The type is a part of it too, since a merge installs
+     * them from the tree of a pull request, which must not leak into
+     * releases and deploys. Only what the install phase leaves outside
+     * of the repository gets into the snapshot, while files it writes
+     * into the repository, like {@code node_modules}, don't, and the
+     * build script has to make them again.
+     * @param repo Name of the repository
+     * @param type Type of the request, like "merge"
+     * @param image Docker image
+     * @return Key or empty string if there is nothing to install
+     * @throws IOException If fails
+     * @since 2.0
+     */
+    public String snapshot(final String repo, final String type,
+        final String image) throws IOException {
+        String key = "";
+        if (this.install().iterator().hasNext()) {
+            key = DigestUtils.sha1Hex(
+                String.join(
+                    "\n",
+                    new Joined<String>(
+                        new IterableOf<>(repo, type, image),
+                        this.install(),
+                        DockerRun.envs(
+                            this.profile.read(), "/p/entry[@key='env']"
+                        )
+                    )
+                )
+            );
+        }
+        return key;
+    }
+
     /**
      * Make a list of env vars for docker.
      * @param extra Extra vars
@@ -133,6 +185,28 @@ final class DockerRun {
         );
     }
 
+    /**
+     * Make a trap of the uninstall script.
+     * @return Script
+     * @throws IOException If fails
+     */
+    private Iterable<String> trap() throws IOException {
+        final Iterable<String> trap;
+        if (this.profile.read().nodes("/p/entry[@key='uninstall']").isEmpty()) {
+            trap = Collections.emptyList();
+        } else {
+            trap = new Joined<String>(
+                new SolidList<String>("function", "clean_up()", "{"),
+                DockerRun.scripts(
+                    this.profile.read(), "/p/entry[@key='uninstall']"
+                ),
+                new SolidList<String>("}", ";"),
+                new SolidList<String>("trap", "clean_up", "EXIT", ";")
+            );
+        }
+        return trap;
+    }
+
     /**
      * Get xpath.
      * @return XML
@@ -108,7 +108,8 @@ public final class StartsRequest extends AbstractAgent {
         String script;
         try {
             script = this.script(
-                req, type, xml.xpath("/talk/@name").get(0)
+                req, type, xml.xpath("/talk/@name").get(0),
+                StartsRequest.repo(xml)
             );
             Logger.info(
                 this, "request %s/%s started for %s",
@@ -131,12 +132,14 @@ public final class StartsRequest extends AbstractAgent {
      * @param req Request
      * @param type Its type
      * @param name Name of talk
+     * @param repo Name of the repository
      * @return Script
      * @throws IOException If fails
+     * @checkstyle ParameterNumberCheck (5 lines)
      */
     @SuppressWarnings("unchecked")
-    private String script(final XML req, final String type, final String name)
-        throws IOException {
+    private String script(final XML req, final String type, final String name,
+        final String repo) throws IOException {
         return new JoinedText(
             "\n",
             new Joined<String>(
@@ -146,17 +149,23 @@ public final class StartsRequest extends AbstractAgent {
                         StartsRequest.escape(input.getValue())
                     ),
                     new Joined<Map.Entry<String, String>>(
-                        this.vars(req, type).entrySet(),
+                        this.vars(req, type, repo).entrySet(),
                         new SolidMap<String, String>(
                             new MapEntry<String, String>(
-                                "container",
-                                name.replaceAll("[^a-zA-Z0-9_.-]", "_")
-                                    .toLowerCase(Locale.ENGLISH)
+                                "container", StartsRequest.clean(name)
+                            ),
+                            new MapEntry<String, String>(
+                                "cache_key",
+                                StartsRequest.clean(
+                                    String.format("%s-%s", repo, type)
+                                )
                             )
                         ).entrySet()
                     )
                 ),
                 Collections.singleton(this.asRoot()),
+                Collections.singleton(this.cloning()),
+                Collections.singleton(this.caches()),
                 Collections.singleton(
                     IOUtils.toString(
                         this.getClass().getResourceAsStream("_head.sh"),
@@ -177,6 +186,32 @@ public final class StartsRequest extends AbstractAgent {
         ).asString();
     }
 
+    /**
+     * Name of the repository of the talk, which keys its caches.
+     * @param xml XML of the talk
+     * @return Name
+     */
+    private static String repo(final XML xml) {
+        final List<String> repos = xml.xpath("/talk/wire/github-repo/text()");
+        final String repo;
+        if (repos.isEmpty()) {
+            repo = xml.xpath("/talk/@name").get(0).replaceAll("#.*$", "");
+        } else {
+            repo = repos.get(0);
+        }
+        return repo;
+    }
+
+    /**
+     * Make a name usable for Docker containers and volumes.
+     * @param name The name
+     * @return Clean name
+     */
+    private static String clean(final String name) {
+        return name.replaceAll("[^a-zA-Z0-9_.-]", "_")
+            .toLowerCase(Locale.ENGLISH);
+    }
+
     /**
      * Obtain proxy settings and create a Decrypt instance.
      * @return Decrypt instance.
@@ -229,16 +264,57 @@ public final class StartsRequest extends AbstractAgent {
         );
     }
 
+    /**
+     * Get start script for caches config: dependency caches of the
+     * repository are mounted into its containers, unless they are
+     * turned off with {@code docker/caches} set to {@code false}. Each
+     * type of request has its own caches, in order to not let a merge
+     * of a pull request plant artifacts, which a release would use.
+     * @return Script
+     * @throws IOException If fails
+     * @since 2.0
+     */
+    private String caches() throws IOException {
+        return String.format(
+            "caches=%b",
+            this.profile.read().nodes(
+                "/p/entry[@key='docker']/entry[@key='caches' and .='false']"
+            ).isEmpty()
+        );
+    }
+
+    /**
+     * Get start script for clone config, which makes the clone shallow
+     * and/or partial, instead of cloning with the help of the mirror
+     * of the repository on the host.
+     * @return Script
+     * @throws IOException If fails
+     * @since 2.0
+     */
+    private String cloning() throws IOException {
+        final Profile.Defaults defaults = new Profile.Defaults(this.profile);
+        return String.format(
+            "clone_depth=%s\nclone_filter=%s",
+            SSH.escape(
+                defaults.text("/p/entry[@key='clone']/entry[@key='depth']")
+            ),
+            SSH.escape(
+                defaults.text("/p/entry[@key='clone']/entry[@key='filter']")
+            )
+        );
+    }
+
     /**
      * Get variables from script.
      * @param req Request
      * @param type Its type
+     * @param repo Name of the repository
      * @return Vars
      * @throws IOException If fails
      */
     @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
-    private Map<String, String> vars(final XML req, final String type)
-        throws IOException {
+    private Map<String, String> vars(final XML req, final String type,
+        final String repo) throws IOException {
         final List<Entry<String, String>> entries = new LinkedList<>();
         for (final XML arg : req.nodes("args/arg")) {
             entries.add(
@@ -256,6 +332,22 @@ public final class StartsRequest extends AbstractAgent {
                 "author", req.xpath("author/text()").get(0)
             )
         );
+        final String install = new Brackets(
+            new Joined<String>(
+                StartsRequest.export(
+                    docker.envs(new SolidMap<String, String>(entries))
+                ),
+                docker.install()
+            )
+        ).toString();
+        final String build = new Brackets(
+            new Joined<String>(
+                StartsRequest.export(
+                    docker.envs(new SolidMap<String, String>(entries))
+                ),
+                docker.build()
+            )
+        ).toString();
         entries.add(
             new MapEntry<String, String>(
                 "scripts",
@@ -292,15 +384,18 @@ public final class StartsRequest extends AbstractAgent {
             )
         );
         final Profile.Defaults def = new Profile.Defaults(this.profile);
+        final String image = def.text(
+            "/p/entry[@key='docker']/entry[@key='image']",
+            "yegor256/rultor-image"
+        );
+        entries.add(new MapEntry<String, String>("image", image));
         entries.add(
             new MapEntry<String, String>(
-                "image",
-                def.text(
-                    "/p/entry[@key='docker']/entry[@key='image']",
-                    "yegor256/rultor-image"
-                )
+                "snapshot", docker.snapshot(repo, type, image)
             )
         );
+        entries.add(new MapEntry<String, String>("install_scripts", install));
+        entries.add(new MapEntry<String, String>("build_scripts", build));
         entries.add(
             new MapEntry<String, String>(
                 "directory",
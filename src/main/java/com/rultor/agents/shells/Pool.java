@@ -0,0 +1,347 @@
+/**
+ * Copyright (c) 2009-2019, Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.agents.shells;
+
+import com.jcabi.log.Logger;
+import com.jcabi.ssh.SSH;
+import com.jcabi.ssh.Shell;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.cactoos.list.SolidList;
+
+/**
+ * Pool of build hosts, which picks a host for a new daemon.
+ *
+ * <p>Every host is probed over SSH, not more often than once a minute,
+ * for its load average, number of CPUs, free disk space and number of
+ * running containers. Hosts with less than 5Gb of free disk and hosts
+ * which don't respond are skipped. The host with the smallest load
+ * per CPU wins, where every running container counts as one more unit
+ * of load. The host, which got the same repository last time, gets
+ * a bonus, since its Docker images and caches are still warm. If there
+ * is only one host, it is never probed.</p>
+ *
+ * <p>The class is thread-safe.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString(of = "hosts")
+@EqualsAndHashCode(of = "hosts")
+public final class Pool {
+
+    /**
+     * Minimum free disk space, in Kb.
+     */
+    private static final long DISK = 5L << 20;
+
+    /**
+     * Bonus of the host, which got the same repository last time.
+     */
+    private static final double AFFINITY = 0.5d;
+
+    /**
+     * How long the stats of a host are valid, in msec.
+     */
+    private static final long TTL = TimeUnit.MINUTES.toMillis(1L);
+
+    /**
+     * Hosts.
+     */
+    private final transient SolidList<String> hosts;
+
+    /**
+     * Probe.
+     */
+    private final transient Pool.Probe probe;
+
+    /**
+     * Latest stats of hosts.
+     */
+    private final transient Map<String, Pool.Stats> stats;
+
+    /**
+     * Hosts, which got repositories last time.
+     */
+    private final transient Map<String, String> affinity;
+
+    /**
+     * Ctor.
+     * @param list Hosts, at least one
+     * @param prb Probe
+     */
+    public Pool(final Iterable<String> list, final Pool.Probe prb) {
+        this.hosts = new SolidList<>(list);
+        this.probe = prb;
+        this.stats = new HashMap<>(0);
+        this.affinity = new HashMap<>(0);
+    }
+
+    /**
+     * All hosts.
+     * @return Hosts
+     * @since 2.0
+     */
+    public Collection<String> hosts() {
+        return Collections.unmodifiableList(this.hosts);
+    }
+
+    /**
+     * Pick a host for the repository.
+     * @param repo Name of the repository
+     * @return Host
+     */
+    public String pick(final String repo) {
+        return this.pick(repo, this.hosts);
+    }
+
+    /**
+     * Pick a host for the repository among the given ones, for example
+     * the ones with free slots, see
+     * {@link com.rultor.agents.daemons.Admission}.
+     * @param repo Name of the repository
+     * @param candidates Hosts of the pool to pick from, at least one
+     * @return Host
+     * @since 2.0
+     */
+    public String pick(final String repo,
+        final Collection<String> candidates) {
+        synchronized (this.stats) {
+            String best = candidates.iterator().next();
+            if (candidates.size() > 1) {
+                double min = Double.MAX_VALUE;
+                for (final String host : candidates) {
+                    final Pool.Stats stat = this.stat(host);
+                    double score = stat.score();
+                    if (host.equals(this.affinity.get(repo))) {
+                        score -= Pool.AFFINITY;
+                    }
+                    if (stat.disk() >= Pool.DISK && score < min) {
+                        min = score;
+                        best = host;
+                    }
+                }
+                this.stats.put(best, this.stat(best).busier());
+            }
+            this.affinity.put(repo, best);
+            return best;
+        }
+    }
+
+    /**
+     * Stats of the host, probed not more often than once a minute.
+     * @param host The host
+     * @return Stats
+     */
+    private Pool.Stats stat(final String host) {
+        Pool.Stats stat = this.stats.get(host);
+        if (stat == null
+            || System.currentTimeMillis() - stat.time() > Pool.TTL) {
+            try {
+                stat = this.probe.stats(host);
+            } catch (final IOException ex) {
+                Logger.warn(
+                    this, "host %s is not available: %[exception]s",
+                    host, ex
+                );
+                stat = new Pool.Stats("1 0 0 0");
+            }
+            this.stats.put(host, stat);
+        }
+        return stat;
+    }
+
+    /**
+     * Probe of a host.
+     */
+    public interface Probe {
+        /**
+         * Get stats of the host.
+         * @param host The host
+         * @return Stats
+         * @throws IOException If fails
+         */
+        Pool.Stats stats(String host) throws IOException;
+    }
+
+    /**
+     * Probe over SSH.
+     */
+    @ToString
+    @EqualsAndHashCode(of = { "port", "login" })
+    public static final class Ssh implements Pool.Probe {
+        /**
+         * Command, which prints the stats.
+         */
+        private static final String COMMAND = String.join(
+            "; ",
+            "nproc",
+            "cut -d' ' -f1 /proc/loadavg",
+            "df -k --output=avail / | tail -1",
+            "docker ps -q | wc -l"
+        );
+        /**
+         * Port.
+         */
+        private final transient int port;
+        /**
+         * Login.
+         */
+        private final transient String login;
+        /**
+         * Private SSH key.
+         */
+        private final transient String key;
+        /**
+         * Ctor.
+         * @param prt Port
+         * @param user Login
+         * @param pvt Private SSH key
+         */
+        public Ssh(final int prt, final String user, final String pvt) {
+            this.port = prt;
+            this.login = user;
+            this.key = pvt;
+        }
+        @Override
+        public Pool.Stats stats(final String host) throws IOException {
+            return new Pool.Stats(
+                new Shell.Plain(
+                    new Shell.Safe(
+                        new SSH(host, this.port, this.login, this.key)
+                    )
+                ).exec(Pool.Ssh.COMMAND)
+            );
+        }
+    }
+
+    /**
+     * Stats of a host.
+     */
+    @ToString
+    @EqualsAndHashCode
+    public static final class Stats {
+        /**
+         * Number of CPUs.
+         */
+        private final transient int cpus;
+        /**
+         * Load average, in the last minute.
+         */
+        private final transient double load;
+        /**
+         * Free disk space, in Kb.
+         */
+        private final transient long free;
+        /**
+         * Running containers.
+         */
+        private final transient int containers;
+        /**
+         * When probed, in msec.
+         */
+        private final transient long when;
+        /**
+         * Ctor.
+         * @param text Number of CPUs, load average, free disk space
+         *  in Kb, and number of running containers, separated by spaces
+         */
+        public Stats(final String text) {
+            this(text.trim().split("\\s+"), System.currentTimeMillis());
+        }
+        /**
+         * Ctor.
+         * @param parts Parts of the text
+         * @param msec When probed
+         */
+        private Stats(final String[] parts, final long msec) {
+            this(
+                Integer.parseInt(parts[0]), Double.parseDouble(parts[1]),
+                Long.parseLong(parts[2]), Integer.parseInt(parts[3]), msec
+            );
+        }
+        /**
+         * Ctor.
+         * @param num Number of CPUs
+         * @param avg Load average
+         * @param disk Free disk space, in Kb
+         * @param running Running containers
+         * @param msec When probed
+         * @checkstyle ParameterNumberCheck (4 lines)
+         */
+        private Stats(final int num, final double avg, final long disk,
+            final int running, final long msec) {
+            this.cpus = Math.max(num, 1);
+            this.load = avg;
+            this.free = disk;
+            this.containers = running;
+            this.when = msec;
+        }
+        /**
+         * Load per CPU, where every container is one more unit.
+         * @return Score, the smaller the better
+         */
+        public double score() {
+            return (this.load + (double) this.containers) / this.cpus;
+        }
+        /**
+         * Free disk space.
+         * @return Kb
+         */
+        public long disk() {
+            return this.free;
+        }
+        /**
+         * When probed.
+         * @return Msec
+         */
+        public long time() {
+            return this.when;
+        }
+        /**
+         * The same stats, with one more container.
+         * @return Stats
+         */
+        public Pool.Stats busier() {
+            return new Pool.Stats(
+                this.cpus, this.load, this.free,
+                this.containers + 1, this.when
+            );
+        }
+    }
+
+}
@@ -29,12 +29,16 @@
  */
 package com.rultor.agents.shells;
 
-import com.jcabi.aspects.Immutable;
 import com.jcabi.log.Logger;
 import com.jcabi.xml.XML;
 import com.rultor.agents.AbstractAgent;
+import com.rultor.agents.daemons.Admission;
+import com.rultor.profiles.Priorities;
 import com.rultor.spi.Profile;
 import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 import org.xembly.Directive;
@@ -43,51 +47,139 @@ import org.xembly.Directives;
 /**
  * Registers shell.
  *
+ * <p>The host is picked from the {@link Pool}, unless the profile
+ * has its own SSH host, among the hosts with free slots in
+ * {@link Admission}, at the moment the daemon is admitted; until then
+ * the talk has no shell and its daemon waits in the queue.</p>
+ *
  * @author Yegor Bugayenko (yegor256@gmail.com)
  * @version $Id$
  * @since 1.0
  */
-@Immutable
 @ToString
-@EqualsAndHashCode(callSuper = false, of = "shell")
+@EqualsAndHashCode(callSuper = false, of = { "profile", "pool", "admission" })
 public final class RegistersShell extends AbstractAgent {
 
     /**
-     * Shell in profile.
+     * Profile.
+     */
+    private final transient Profile profile;
+
+    /**
+     * Pool of hosts.
      */
-    private final transient PfShell shell;
+    private final transient Pool pool;
+
+    /**
+     * Admission to hosts of the pool.
+     */
+    private final transient Admission admission;
+
+    /**
+     * Default port.
+     */
+    private final transient int port;
+
+    /**
+     * Default login.
+     */
+    private final transient String login;
+
+    /**
+     * Default private SSH key.
+     */
+    private final transient String key;
 
     /**
      * Constructor.
-     * @param profile Profile
+     * @param prof Profile
      * @param host Default IP address
-     * @param port Default Port of server
+     * @param prt Default Port of server
+     * @param user Default Login
+     * @param pvt Default Private SSH key
+     * @checkstyle ParameterNumberCheck (6 lines)
+     */
+    public RegistersShell(final Profile prof, final String host,
+        final int prt, final String user, final String pvt) {
+        this(
+            prof,
+            new Pool(
+                Collections.singleton(host), new Pool.Ssh(prt, user, pvt)
+            ),
+            prt, user, pvt
+        );
+    }
+
+    /**
+     * Constructor.
+     * @param prof Profile
+     * @param hosts Pool of hosts
+     * @param prt Default Port of server
      * @param user Default Login
-     * @param key Default Private SSH key
+     * @param pvt Default Private SSH key
      * @checkstyle ParameterNumberCheck (6 lines)
+     * @since 2.0
      */
-    public RegistersShell(final Profile profile, final String host,
-        final int port, final String user, final String key) {
+    public RegistersShell(final Profile prof, final Pool hosts,
+        final int prt, final String user, final String pvt) {
+        this(prof, hosts, new Admission(Integer.MAX_VALUE), prt, user, pvt);
+    }
+
+    /**
+     * Constructor.
+     * @param prof Profile
+     * @param hosts Pool of hosts
+     * @param adm Admission to hosts of the pool
+     * @param prt Default Port of server
+     * @param user Default Login
+     * @param pvt Default Private SSH key
+     * @checkstyle ParameterNumberCheck (6 lines)
+     * @since 2.0
+     */
+    public RegistersShell(final Profile prof, final Pool hosts,
+        final Admission adm, final int prt, final String user,
+        final String pvt) {
         super("/talk[daemon and not(shell)]");
-        this.shell = new PfShell(profile, host, port, user, key);
+        this.profile = prof;
+        this.pool = hosts;
+        this.admission = adm;
+        this.port = prt;
+        this.login = user;
+        this.key = pvt;
     }
 
     @Override
     public Iterable<Directive> process(final XML xml) throws IOException {
         final String hash = xml.xpath("/talk/daemon/@id").get(0);
+        final String name = xml.xpath("/talk/@name").get(0);
         final Directives dirs = new Directives();
         try {
-            Logger.info(
-                this, "shell %s registered as %s:%d in %s",
-                hash, this.shell.host(), this.shell.port(),
-                xml.xpath("/talk/@name").get(0)
-            );
-            dirs.xpath("/talk").add("shell")
-                .attr("id", hash)
-                .add("host").set(this.shell.host()).up()
-                .add("port").set(Integer.toString(this.shell.port())).up()
-                .add("login").set(this.shell.login()).up()
-                .add("key").set(this.shell.key());
+            String host = new PfShell(
+                this.profile, "", this.port, this.login, this.key
+            ).host();
+            if (host.isEmpty()) {
+                host = this.admit(xml);
+            }
+            if (host.isEmpty()) {
+                Logger.info(
+                    this, "daemon of %s waits for a free slot at %d host(s)",
+                    name, this.pool.hosts().size()
+                );
+            } else {
+                final PfShell shell = new PfShell(
+                    this.profile, host, this.port, this.login, this.key
+                );
+                Logger.info(
+                    this, "shell %s registered as %s:%d in %s",
+                    hash, shell.host(), shell.port(), name
+                );
+                dirs.xpath("/talk").add("shell")
+                    .attr("id", hash)
+                    .add("host").set(shell.host()).up()
+                    .add("port").set(Integer.toString(shell.port())).up()
+                    .add("login").set(shell.login()).up()
+                    .add("key").set(shell.key());
+            }
         } catch (final Profile.ConfigException ex) {
             dirs.xpath("/talk/daemon/script").set(
                 String.format(
@@ -97,4 +189,44 @@ public final class RegistersShell extends AbstractAgent {
         }
         return dirs;
     }
+
+    /**
+     * Admit the daemon of the talk to a host of the pool with a free slot.
+     * @param xml XML of the talk
+     * @return Host, or empty if the daemon has to wait
+     * @throws IOException If fails
+     */
+    private String admit(final XML xml) throws IOException {
+        final String name = xml.xpath("/talk/@name").get(0);
+        final List<String> index = xml.xpath("/talk/request/@index");
+        long idx = 0L;
+        if (!index.isEmpty()) {
+            idx = Long.parseLong(index.get(0));
+        }
+        final Collection<String> free = this.admission.free(
+            this.pool.hosts(), name, new Priorities(this.profile).of(xml), idx
+        );
+        String host = "";
+        if (!free.isEmpty()) {
+            host = this.pool.pick(RegistersShell.repo(xml), free);
+            this.admission.hold(host, name);
+        }
+        return host;
+    }
+
+    /**
+     * Name of the repository of the talk.
+     * @param xml XML of the talk
+     * @return Name
+     */
+    private static String repo(final XML xml) {
+        final List<String> repos = xml.xpath("/talk/wire/github-repo/text()");
+        final String repo;
+        if (repos.isEmpty()) {
+            repo = xml.xpath("/talk/@name").get(0);
+        } else {
+            repo = repos.get(0);
+        }
+        return repo;
+    }
 }
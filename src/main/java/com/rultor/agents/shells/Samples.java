@@ -0,0 +1,307 @@
+/**
+ * Copyright (c) 2009-2019, Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.agents.shells;
+
+import com.jcabi.aspects.Tv;
+import com.rultor.spi.Metrics;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Rolling history of samples of build hosts, taken by
+ * {@link SamplesHost} every tick.
+ *
+ * <p>The last {@link #DEPTH} samples of every host are kept in memory.
+ * They are exposed as {@link Metrics}, for the status page, and as
+ * {@link Pool.Probe}, for the placement of daemons: the load average
+ * reported to the pool is the mean of the last few samples, in order
+ * to not send all new daemons to a host, which was idle just
+ * for a minute. When there is no fresh sample of a host, the original
+ * probe is asked.</p>
+ *
+ * <p>The class is thread-safe.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString(of = "origin")
+@EqualsAndHashCode(of = "origin")
+public final class Samples implements Pool.Probe, Metrics {
+
+    /**
+     * How many samples of a host to keep.
+     */
+    private static final int DEPTH = Tv.SIXTY;
+
+    /**
+     * How many latest samples to average for the pool.
+     */
+    private static final int SMOOTH = Tv.FIVE;
+
+    /**
+     * How long a sample is fresh, in msec.
+     */
+    private static final long FRESH = TimeUnit.MINUTES.toMillis(2L);
+
+    /**
+     * Number in the output of the command.
+     */
+    private static final Pattern NUMBER = Pattern.compile(
+        "\\d{1,18}(\\.\\d{1,9})?"
+    );
+
+    /**
+     * Original probe.
+     */
+    private final transient Pool.Probe origin;
+
+    /**
+     * Samples, by hosts, the latest last.
+     */
+    private final transient Map<String, LinkedList<Samples.Sample>> history;
+
+    /**
+     * Ctor.
+     * @param prb Probe to use when there are no fresh samples
+     */
+    public Samples(final Pool.Probe prb) {
+        this.origin = prb;
+        this.history = new HashMap<>(0);
+    }
+
+    /**
+     * Add a sample of the host.
+     * @param host The host
+     * @param text Output of the command of {@link SamplesHost}
+     * @throws IOException If the output is broken
+     */
+    public void add(final String host, final String text) throws IOException {
+        final Samples.Sample sample = new Samples.Sample(
+            text, System.currentTimeMillis()
+        );
+        synchronized (this.history) {
+            final LinkedList<Samples.Sample> list =
+                this.history.computeIfAbsent(host, key -> new LinkedList<>());
+            list.add(sample);
+            while (list.size() > Samples.DEPTH) {
+                list.removeFirst();
+            }
+        }
+    }
+
+    @Override
+    public Pool.Stats stats(final String host) throws IOException {
+        final List<Samples.Sample> list = this.recent(host);
+        final Pool.Stats stats;
+        if (list.isEmpty() || System.currentTimeMillis()
+            - list.get(list.size() - 1).time() > Samples.FRESH) {
+            stats = this.origin.stats(host);
+        } else {
+            final Samples.Sample last = list.get(list.size() - 1);
+            final List<Samples.Sample> tail = list.subList(
+                Math.max(list.size() - Samples.SMOOTH, 0), list.size()
+            );
+            stats = new Pool.Stats(
+                String.format(
+                    Locale.ENGLISH, "%d %.2f %d %d",
+                    last.cpus(), Samples.load(tail),
+                    last.disk(), last.containers()
+                )
+            );
+        }
+        return stats;
+    }
+
+    @Override
+    public Map<String, Number> values() {
+        final Collection<String> hosts;
+        synchronized (this.history) {
+            hosts = new ArrayList<>(this.history.keySet());
+        }
+        final Map<String, Number> values = new HashMap<>(0);
+        for (final String host : hosts) {
+            final List<Samples.Sample> list = this.recent(host);
+            final Samples.Sample last = list.get(list.size() - 1);
+            final String prefix = String.format("hosts.%s.", host);
+            values.put(prefix.concat("cpus"), last.cpus());
+            values.put(prefix.concat("load"), last.load());
+            values.put(prefix.concat("load-hour"), Samples.load(list));
+            values.put(prefix.concat("mem-free-pct"), last.memory());
+            values.put(prefix.concat("disk-free-mb"), last.disk() >> Tv.TEN);
+            values.put(prefix.concat("containers"), last.containers());
+            values.put(prefix.concat("samples"), list.size());
+            if (list.size() > 1) {
+                values.put(
+                    prefix.concat("cpu-busy-pct"),
+                    last.busy(list.get(list.size() - 2))
+                );
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Copy of the history of the host.
+     * @param host The host
+     * @return Samples, the latest last
+     */
+    private List<Samples.Sample> recent(final String host) {
+        synchronized (this.history) {
+            return new LinkedList<>(
+                this.history.getOrDefault(host, new LinkedList<>())
+            );
+        }
+    }
+
+    /**
+     * Mean load average of samples.
+     * @param list Samples, at least one
+     * @return Load average
+     */
+    private static double load(final List<Samples.Sample> list) {
+        double sum = 0.0d;
+        for (final Samples.Sample sample : list) {
+            sum += sample.load();
+        }
+        return sum / (double) list.size();
+    }
+
+    /**
+     * One sample of a host.
+     */
+    @ToString
+    @EqualsAndHashCode
+    private static final class Sample {
+        /**
+         * Numbers, in the order they are printed by the command.
+         */
+        private final transient double[] numbers;
+        /**
+         * When taken, in msec.
+         */
+        private final transient long when;
+        /**
+         * Ctor.
+         * @param text Number of CPUs, load average, total and available
+         *  memory in Kb, free disk space in Kb, running containers,
+         *  total and idle CPU time in jiffies
+         * @param msec When taken
+         * @throws IOException If the text is broken
+         */
+        Sample(final String text, final long msec) throws IOException {
+            this.numbers = new double[Tv.EIGHT];
+            final Matcher matcher = Samples.NUMBER.matcher(text);
+            int pos = 0;
+            while (pos < this.numbers.length && matcher.find()) {
+                this.numbers[pos] = Double.parseDouble(matcher.group());
+                ++pos;
+            }
+            if (pos < this.numbers.length) {
+                throw new IOException(
+                    String.format("Broken sample of a host: \"%s\"", text)
+                );
+            }
+            this.when = msec;
+        }
+        /**
+         * Number of CPUs.
+         * @return CPUs
+         */
+        public int cpus() {
+            return Math.max((int) this.numbers[0], 1);
+        }
+        /**
+         * Load average, in the last minute.
+         * @return Load
+         */
+        public double load() {
+            return this.numbers[1];
+        }
+        /**
+         * Available memory.
+         * @return Percent of total
+         */
+        public long memory() {
+            return Math.round(
+                this.numbers[Tv.THREE] * (double) Tv.HUNDRED
+                    / Math.max(this.numbers[2], 1.0d)
+            );
+        }
+        /**
+         * Free disk space.
+         * @return Kb
+         */
+        public long disk() {
+            return (long) this.numbers[Tv.FOUR];
+        }
+        /**
+         * Running containers.
+         * @return Containers
+         */
+        public int containers() {
+            return (int) this.numbers[Tv.FIVE];
+        }
+        /**
+         * When taken.
+         * @return Msec
+         */
+        public long time() {
+            return this.when;
+        }
+        /**
+         * Usage of CPUs since the previous sample.
+         * @param prev Previous sample
+         * @return Percent of time CPUs were busy
+         */
+        public long busy(final Samples.Sample prev) {
+            final double total = Math.max(
+                this.numbers[Tv.SIX] - prev.numbers[Tv.SIX], 1.0d
+            );
+            final double idle = this.numbers[Tv.SEVEN]
+                - prev.numbers[Tv.SEVEN];
+            return Math.max(
+                0L, Math.round((total - idle) * (double) Tv.HUNDRED / total)
+            );
+        }
+    }
+
+}
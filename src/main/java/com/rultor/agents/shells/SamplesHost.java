@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2009-2019, Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.agents.shells;
+
+import com.jcabi.log.Logger;
+import com.jcabi.ssh.Shell;
+import com.rultor.spi.SuperAgent;
+import com.rultor.spi.Talks;
+import java.io.IOException;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Takes a sample of a build host, with one command, and adds it
+ * to {@link Samples}.
+ *
+ * <p>A host, which doesn't respond, is reported to the log and
+ * skipped, since other agents of the host must still run.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString(of = "host")
+@EqualsAndHashCode(of = { "host", "samples" })
+public final class SamplesHost implements SuperAgent {
+
+    /**
+     * Command, which prints the sample.
+     */
+    private static final String COMMAND = String.join(
+        "; ",
+        "nproc",
+        "cut -d' ' -f1 /proc/loadavg",
+        "awk '/^(MemTotal|MemAvailable):/ {print $2}' /proc/meminfo",
+        "df -k --output=avail / | tail -1",
+        "docker ps -q | wc -l",
+        String.join(
+            "",
+            "awk '/^cpu / {t=0; for (i=2; i<=NF; i++) t+=$i; ",
+            "print t, $5+$6}' /proc/stat"
+        )
+    );
+
+    /**
+     * Shell to use.
+     */
+    private final transient Shell shell;
+
+    /**
+     * Name of the host.
+     */
+    private final transient String host;
+
+    /**
+     * Samples of hosts.
+     */
+    private final transient Samples samples;
+
+    /**
+     * Ctor.
+     * @param ssh Shell
+     * @param name Name of the host
+     * @param smp Samples of hosts
+     */
+    public SamplesHost(final Shell ssh, final String name,
+        final Samples smp) {
+        this.shell = ssh;
+        this.host = name;
+        this.samples = smp;
+    }
+
+    @Override
+    public void execute(final Talks talks) {
+        try {
+            this.samples.add(
+                this.host,
+                new Shell.Plain(new Shell.Safe(this.shell))
+                    .exec(SamplesHost.COMMAND)
+            );
+        } catch (final IOException | IllegalArgumentException ex) {
+            Logger.warn(
+                this, "failed to sample %s: %[exception]s", this.host, ex
+            );
+        }
+    }
+
+}
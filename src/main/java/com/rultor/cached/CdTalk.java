@@ -30,24 +30,27 @@
 package com.rultor.cached;
 
 import com.jcabi.aspects.Cacheable;
-import com.jcabi.aspects.Immutable;
 import com.jcabi.xml.XML;
 import com.rultor.spi.Talk;
 import java.io.IOException;
+import java.util.Collection;
 import java.util.Date;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
+import org.cactoos.list.SolidList;
 import org.xembly.Directive;
 
 /**
  * Cached talk.
  *
+ * <p>Its XML document is kept in {@link Snapshots}, shared by all
+ * talks of the same {@link CdTalks}.</p>
+ *
  * @author Yegor Bugayenko (yegor256@gmail.com)
  * @version $Id$
  * @since 1.51
  */
-@Immutable
-@ToString
+@ToString(of = "origin")
 @EqualsAndHashCode(of = "origin")
 public final class CdTalk implements Talk {
     /**
@@ -55,12 +58,26 @@ public final class CdTalk implements Talk {
      */
     private final transient Talk origin;
 
+    /**
+     * Cached documents.
+     */
+    private final transient Snapshots snapshots;
+
+    /**
+     * Cached lookups, to invalidate.
+     */
+    private final transient Lookups lookups;
+
     /**
      * Ctor.
      * @param talk Talks
+     * @param cache Cached documents
+     * @param lkps Cached lookups
      */
-    CdTalk(final Talk talk) {
+    CdTalk(final Talk talk, final Snapshots cache, final Lookups lkps) {
         this.origin = talk;
+        this.snapshots = cache;
+        this.lookups = lkps;
     }
 
     @Override
@@ -76,27 +93,38 @@ public final class CdTalk implements Talk {
     }
 
     @Override
-    @Cacheable
     public Date updated() throws IOException {
         return this.origin.updated();
     }
 
     @Override
-    @Cacheable
     public XML read() throws IOException {
-        return this.origin.read();
+        return this.snapshots.read(this.origin);
+    }
+
+    @Override
+    public XML summary() throws IOException {
+        return this.origin.summary();
     }
 
     @Override
-    @Cacheable.FlushBefore
     public void modify(final Iterable<Directive> dirs) throws IOException {
-        this.origin.modify(dirs);
+        final Collection<Directive> list = new SolidList<>(dirs);
+        if (!list.isEmpty()) {
+            this.snapshots.modify(this.origin, list);
+            this.lookups.touched(this.name());
+        }
     }
 
     @Override
-    @Cacheable.FlushBefore
     public void active(final boolean yes) throws IOException {
         this.origin.active(yes);
+        this.snapshots.touch(this.origin);
+        if (yes) {
+            this.lookups.touched(this.name());
+        } else {
+            this.lookups.deactivated(this.name());
+        }
     }
 
 }
@@ -29,17 +29,20 @@
  */
 package com.rultor.cached;
 
-import com.jcabi.aspects.Cacheable;
-import com.jcabi.aspects.Immutable;
 import com.jcabi.aspects.Tv;
+import com.rultor.spi.Metrics;
 import com.rultor.spi.Talk;
 import com.rultor.spi.Talks;
 import java.io.IOException;
 import java.util.Date;
-import java.util.concurrent.TimeUnit;
+import java.util.HashMap;
+import java.util.Map;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
+import org.cactoos.iterable.Limited;
 import org.cactoos.iterable.Mapped;
+import org.cactoos.list.SolidList;
+import org.xembly.Directive;
 
 /**
  * Cached talks.
@@ -49,86 +52,155 @@ import org.cactoos.iterable.Mapped;
  * @since 1.51
  * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
  */
-@Immutable
-@ToString
+@ToString(of = "origin")
 @EqualsAndHashCode(of = "origin")
 @SuppressWarnings("PMD.TooManyMethods")
-public final class CdTalks implements Talks {
+public final class CdTalks implements Talks, Metrics {
+
+    /**
+     * Maximum total size of cached XML documents, in characters.
+     * @checkstyle MagicNumber (3 lines)
+     */
+    private static final long MAX_XML = 32L << 20;
 
     /**
      * Original talks.
      */
     private final transient Talks origin;
 
+    /**
+     * Cached documents of talks.
+     */
+    private final transient Snapshots snapshots;
+
+    /**
+     * Cached lookups.
+     */
+    private final transient Lookups lookups;
+
     /**
      * Public ctor.
      * @param talks Talks
      */
     public CdTalks(final Talks talks) {
         this.origin = talks;
+        this.snapshots = new Snapshots(CdTalks.MAX_XML);
+        this.lookups = new Lookups();
+    }
+
+    @Override
+    public Map<String, Number> values() {
+        final Map<String, Number> values = new HashMap<>(
+            this.snapshots.values()
+        );
+        values.putAll(this.lookups.values());
+        return values;
     }
 
     @Override
-    @Cacheable
     public boolean exists(final long number) {
-        return this.origin.exists(number);
+        return this.lookups.exists(
+            number, () -> this.origin.exists(number)
+        );
     }
 
     @Override
-    @Cacheable
     public Talk get(final long number) {
-        return this.origin.get(number);
+        return this.lookups.get(
+            number, () -> this.cached(this.origin.get(number))
+        );
     }
 
     @Override
-    @Cacheable
     public boolean exists(final String name) {
-        return this.origin.exists(name);
+        return this.lookups.exists(name, () -> this.origin.exists(name));
     }
 
     @Override
-    @Cacheable
     public Talk get(final String name) {
-        return this.origin.get(name);
+        return this.lookups.get(
+            name, () -> this.cached(this.origin.get(name))
+        );
     }
 
     @Override
-    @Cacheable.FlushBefore
     public void delete(final String name) {
         this.origin.delete(name);
+        this.snapshots.forget(name);
+        this.lookups.deleted(name);
     }
 
     @Override
-    @Cacheable.FlushBefore
     public void create(final String repo, final String name)
         throws IOException {
         this.origin.create(repo, name);
+        this.lookups.created(repo, name);
+    }
+
+    @Override
+    public void activate(final String repo, final String name,
+        final Iterable<Directive> dirs) throws IOException {
+        this.origin.activate(repo, name, dirs);
+        this.lookups.created(repo, name);
+        this.lookups.touched(name);
     }
 
     @Override
-    @Cacheable
     public Iterable<Talk> active() {
-        return new Mapped<>(
-            input -> new CdTalk(input),
-            this.origin.active()
-        );
+        return new Mapped<>(this::cached, this.origin.active());
+    }
+
+    @Override
+    public Iterable<Talk> idle() {
+        return new Mapped<>(this::cached, this.origin.idle());
+    }
+
+    @Override
+    public Iterable<Talk> requested() {
+        return new Mapped<>(this::cached, this.origin.requested());
+    }
+
+    @Override
+    public Iterable<Talk> awake() {
+        return new Mapped<>(this::cached, this.origin.awake());
     }
 
     @Override
-    @Cacheable(lifetime = Tv.TWENTY, unit = TimeUnit.MINUTES)
     public Iterable<Talk> recent() {
-        return new Mapped<>(
-            input -> new CdTalk(input),
-            this.origin.recent()
+        return this.lookups.recent(
+            () -> new SolidList<>(
+                new Mapped<>(this::cached, this.origin.recent())
+            )
         );
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Only the first page of siblings is cached, which is
+     * {@link Tv#TWENTY} talks.</p>
+     */
     @Override
-    @Cacheable
     public Iterable<Talk> siblings(final String repo, final Date since) {
-        return new Mapped<>(
-            input -> new CdTalk(input),
-            this.origin.siblings(repo, since)
+        return this.lookups.siblings(
+            repo, since.getTime(),
+            () -> new SolidList<>(
+                new Mapped<>(
+                    this::cached,
+                    new Limited<>(
+                        Tv.TWENTY, this.origin.siblings(repo, since)
+                    )
+                )
+            )
         );
     }
+
+    /**
+     * Wrap the talk.
+     * @param talk Origin talk
+     * @return Cached talk
+     */
+    private Talk cached(final Talk talk) {
+        return new CdTalk(talk, this.snapshots, this.lookups);
+    }
 }
@@ -0,0 +1,344 @@
+/**
+ * Copyright (c) 2009-2019, Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.cached;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.jcabi.aspects.Tv;
+import com.rultor.spi.Metrics;
+import com.rultor.spi.Talk;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Cached lookups of talks, with targeted invalidation.
+ *
+ * <p>Talks are cached by names and numbers, lists of siblings are
+ * cached by repositories. When a talk is created, deleted or updated,
+ * only the entries it may affect are invalidated. All caches are
+ * bounded by the number of entries. Active talks are not cached here,
+ * see {@link com.rultor.dynamo.DyActiveTalks}.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString(of = "names")
+@SuppressWarnings("PMD.TooManyMethods")
+final class Lookups implements Metrics {
+
+    /**
+     * Existence of talks, by names.
+     */
+    private final transient Cache<String, Boolean> exist;
+
+    /**
+     * Talks by names.
+     */
+    private final transient Cache<String, Talk> names;
+
+    /**
+     * Existence of talks, by numbers.
+     */
+    private final transient Cache<Long, Boolean> present;
+
+    /**
+     * Talks by numbers.
+     */
+    private final transient Cache<Long, Talk> numbers;
+
+    /**
+     * Siblings, by repositories and dates.
+     */
+    private final transient Cache<Lookups.Siblings, List<Talk>> siblings;
+
+    /**
+     * Recent talks (one entry at most).
+     */
+    private final transient Cache<Boolean, List<Talk>> recent;
+
+    /**
+     * Ctor.
+     */
+    Lookups() {
+        this.exist = Lookups.cache(Tv.THOUSAND);
+        this.names = Lookups.cache(Tv.THOUSAND);
+        this.present = Lookups.cache(Tv.THOUSAND);
+        this.numbers = Lookups.cache(Tv.THOUSAND);
+        this.siblings = Lookups.cache(Tv.HUNDRED);
+        this.recent = CacheBuilder.newBuilder()
+            .expireAfterWrite((long) Tv.TWENTY, TimeUnit.MINUTES)
+            .recordStats()
+            .build();
+    }
+
+    @Override
+    public Map<String, Number> values() {
+        final Map<String, Number> values = new HashMap<>(0);
+        Lookups.stats(values, "exist", this.exist);
+        Lookups.stats(values, "names", this.names);
+        Lookups.stats(values, "present", this.present);
+        Lookups.stats(values, "numbers", this.numbers);
+        Lookups.stats(values, "siblings", this.siblings);
+        Lookups.stats(values, "recent", this.recent);
+        return values;
+    }
+
+    /**
+     * Does it exist, by name.
+     * @param name Name of the talk
+     * @param origin Origin lookup
+     * @return TRUE if exists
+     */
+    public boolean exists(final String name, final Callable<Boolean> origin) {
+        return Lookups.fetch(this.exist, name, origin);
+    }
+
+    /**
+     * Talk by name.
+     * @param name Name of the talk
+     * @param origin Origin lookup
+     * @return The talk
+     */
+    public Talk get(final String name, final Callable<Talk> origin) {
+        return Lookups.fetch(this.names, name, origin);
+    }
+
+    /**
+     * Does it exist, by number.
+     * @param number Number of the talk
+     * @param origin Origin lookup
+     * @return TRUE if exists
+     */
+    public boolean exists(final long number, final Callable<Boolean> origin) {
+        return Lookups.fetch(this.present, number, origin);
+    }
+
+    /**
+     * Talk by number.
+     * @param number Number of the talk
+     * @param origin Origin lookup
+     * @return The talk
+     */
+    public Talk get(final long number, final Callable<Talk> origin) {
+        return Lookups.fetch(this.numbers, number, origin);
+    }
+
+    /**
+     * Siblings.
+     * @param repo Repository
+     * @param since Date in msec
+     * @param origin Origin lookup
+     * @return Siblings
+     */
+    public List<Talk> siblings(final String repo, final long since,
+        final Callable<List<Talk>> origin) {
+        return Lookups.fetch(
+            this.siblings, new Lookups.Siblings(repo, since), origin
+        );
+    }
+
+    /**
+     * Recent talks.
+     * @param origin Origin lookup
+     * @return Recent talks
+     */
+    public List<Talk> recent(final Callable<List<Talk>> origin) {
+        return Lookups.fetch(this.recent, true, origin);
+    }
+
+    /**
+     * The talk was just created.
+     * @param repo Repository
+     * @param name Name of the talk
+     */
+    public void created(final String repo, final String name) {
+        this.exist.invalidate(name);
+        this.names.invalidate(name);
+        this.present.asMap().values().remove(false);
+        this.siblings.asMap().keySet().removeIf(key -> key.of(repo));
+    }
+
+    /**
+     * The talk was just deleted.
+     *
+     * <p>Its number is not known here, that's why all entries
+     * by numbers are invalidated; this doesn't happen often.</p>
+     *
+     * @param name Name of the talk
+     */
+    public void deleted(final String name) {
+        this.exist.invalidate(name);
+        this.names.invalidate(name);
+        this.present.invalidateAll();
+        this.numbers.invalidateAll();
+        this.touched(name);
+        this.recent.invalidateAll();
+    }
+
+    /**
+     * The talk was just updated, its position among siblings and
+     * recent talks changed.
+     * @param name Name of the talk
+     */
+    public void touched(final String name) {
+        this.siblings.asMap().values().removeIf(
+            list -> Lookups.contains(list, name)
+        );
+        this.recent.asMap().values().removeIf(
+            list -> Lookups.contains(list, name)
+        );
+    }
+
+    /**
+     * The talk was just deactivated, it may be among recent talks now.
+     * @param name Name of the talk
+     */
+    public void deactivated(final String name) {
+        this.touched(name);
+        this.recent.invalidateAll();
+    }
+
+    /**
+     * The list contains the talk.
+     * @param list List of talks
+     * @param name Name of the talk
+     * @return TRUE if it is there
+     */
+    private static boolean contains(final Collection<Talk> list,
+        final String name) {
+        boolean found = false;
+        for (final Talk talk : list) {
+            try {
+                if (talk.name().equals(name)) {
+                    found = true;
+                    break;
+                }
+            } catch (final IOException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Make a bounded cache.
+     * @param max Maximum number of entries
+     * @param <K> Type of key
+     * @param <V> Type of value
+     * @return Cache
+     */
+    private static <K, V> Cache<K, V> cache(final int max) {
+        return CacheBuilder.newBuilder()
+            .maximumSize((long) max)
+            .recordStats()
+            .build();
+    }
+
+    /**
+     * Fetch from the cache or from the origin.
+     * @param cache The cache
+     * @param key The key
+     * @param origin Origin lookup
+     * @param <K> Type of key
+     * @param <V> Type of value
+     * @return Value
+     */
+    private static <K, V> V fetch(final Cache<K, V> cache, final K key,
+        final Callable<V> origin) {
+        try {
+            return cache.get(key, origin);
+        } catch (final UncheckedExecutionException ex) {
+            throw RuntimeException.class.cast(ex.getCause());
+        } catch (final ExecutionException ex) {
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    /**
+     * Add statistics of the cache to the map.
+     * @param values The map
+     * @param label Label of the cache
+     * @param cache The cache
+     */
+    private static void stats(final Map<String, Number> values,
+        final String label, final Cache<?, ?> cache) {
+        final CacheStats stats = cache.stats();
+        final String prefix = String.format("talks.%s.", label);
+        values.put(prefix.concat("hits"), stats.hitCount());
+        values.put(prefix.concat("misses"), stats.missCount());
+        values.put(prefix.concat("evictions"), stats.evictionCount());
+        values.put(prefix.concat("size"), cache.size());
+    }
+
+    /**
+     * Key of siblings.
+     */
+    @ToString
+    @EqualsAndHashCode(of = { "repo", "since" })
+    private static final class Siblings {
+        /**
+         * Repository.
+         */
+        private final transient String repo;
+        /**
+         * Since, in msec.
+         */
+        private final transient long since;
+        /**
+         * Ctor.
+         * @param rpo Repository
+         * @param date Since, in msec
+         */
+        Siblings(final String rpo, final long date) {
+            this.repo = rpo;
+            this.since = date;
+        }
+        /**
+         * Is it a key of this repo?
+         * @param name Name of the repo
+         * @return TRUE if so
+         */
+        public boolean of(final String name) {
+            return this.repo.equals(name);
+        }
+    }
+
+}
@@ -0,0 +1,233 @@
+/**
+ * Copyright (c) 2009-2019, Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.cached;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.jcabi.xml.XML;
+import com.rultor.spi.Metrics;
+import com.rultor.spi.Talk;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.ToString;
+import org.cactoos.map.MapEntry;
+import org.cactoos.map.SolidMap;
+import org.xembly.Directive;
+
+/**
+ * Cache of talk documents.
+ *
+ * <p>Every document is kept together with the time of the update
+ * it was read or written at. On every read the time is compared with
+ * the one in the origin talk; if they don't match, someone else
+ * modified the talk, the snapshot is dropped and the document is read
+ * again. After a modification the snapshot is dropped, since the origin
+ * may apply the directives to a document, which someone else modified
+ * meanwhile, and its new time of update is not known here.</p>
+ *
+ * <p>The cache is bounded by the total size of XML documents
+ * in it, in characters.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString(of = "cache")
+final class Snapshots implements Metrics {
+
+    /**
+     * Snapshots by talk names.
+     */
+    private final transient Cache<String, Snapshots.Snapshot> cache;
+
+    /**
+     * Total hits.
+     */
+    private final transient AtomicLong hits;
+
+    /**
+     * Total misses.
+     */
+    private final transient AtomicLong misses;
+
+    /**
+     * Total conflicts.
+     */
+    private final transient AtomicLong conflicts;
+
+    /**
+     * Ctor.
+     * @param max Maximum total size of documents, in characters
+     */
+    Snapshots(final long max) {
+        this.cache = CacheBuilder.newBuilder()
+            .maximumWeight(max)
+            .<String, Snapshots.Snapshot>weigher(
+                (name, snapshot) -> snapshot.weight()
+            )
+            .recordStats()
+            .build();
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+        this.conflicts = new AtomicLong();
+    }
+
+    @Override
+    public Map<String, Number> values() {
+        return new SolidMap<String, Number>(
+            new MapEntry<>("talks.xml.hits", this.hits.get()),
+            new MapEntry<>("talks.xml.misses", this.misses.get()),
+            new MapEntry<>("talks.xml.conflicts", this.conflicts.get()),
+            new MapEntry<>(
+                "talks.xml.evictions", this.cache.stats().evictionCount()
+            ),
+            new MapEntry<>("talks.xml.size", this.cache.size())
+        );
+    }
+
+    /**
+     * Read the document, from the cache if it's fresh.
+     * @param talk Origin talk
+     * @return The document
+     * @throws IOException If fails
+     */
+    public XML read(final Talk talk) throws IOException {
+        final String name = talk.name();
+        final long updated = talk.updated().getTime();
+        final Snapshots.Snapshot before = this.cache.getIfPresent(name);
+        final XML xml;
+        if (before != null && before.updated() == updated) {
+            this.hits.incrementAndGet();
+            xml = before.xml();
+        } else {
+            if (before == null) {
+                this.misses.incrementAndGet();
+            } else {
+                this.conflicts.incrementAndGet();
+            }
+            xml = talk.read();
+            this.cache.put(name, new Snapshots.Snapshot(xml, updated));
+        }
+        return xml;
+    }
+
+    /**
+     * Modify the talk and drop its document from the cache.
+     * @param talk Origin talk
+     * @param dirs Directives to apply
+     * @throws IOException If fails
+     */
+    public void modify(final Talk talk, final Iterable<Directive> dirs)
+        throws IOException {
+        final String name = talk.name();
+        try {
+            talk.modify(dirs);
+        } finally {
+            this.cache.invalidate(name);
+        }
+    }
+
+    /**
+     * The talk was touched, but its document didn't change.
+     * @param talk Origin talk
+     * @throws IOException If fails
+     */
+    public void touch(final Talk talk) throws IOException {
+        final String name = talk.name();
+        final Snapshots.Snapshot current = this.cache.getIfPresent(name);
+        if (current != null) {
+            this.cache.put(
+                name,
+                new Snapshots.Snapshot(
+                    current.xml(), talk.updated().getTime()
+                )
+            );
+        }
+    }
+
+    /**
+     * Forget the talk.
+     * @param name Name of the talk
+     */
+    public void forget(final String name) {
+        this.cache.invalidate(name);
+    }
+
+    /**
+     * Document and the time it was updated at.
+     */
+    private static final class Snapshot {
+        /**
+         * The document.
+         */
+        private final transient XML doc;
+        /**
+         * Its size, in characters.
+         */
+        private final transient int size;
+        /**
+         * When it was updated.
+         */
+        private final transient long time;
+        /**
+         * Ctor.
+         * @param xml The document
+         * @param updated When it was updated
+         */
+        Snapshot(final XML xml, final long updated) {
+            this.doc = xml;
+            this.size = xml.toString().length();
+            this.time = updated;
+        }
+        /**
+         * The document.
+         * @return XML
+         */
+        public XML xml() {
+            return this.doc;
+        }
+        /**
+         * Its size.
+         * @return Size in characters
+         */
+        public int weight() {
+            return this.size;
+        }
+        /**
+         * When it was updated.
+         * @return Time in msec
+         */
+        public long updated() {
+            return this.time;
+        }
+    }
+
+}
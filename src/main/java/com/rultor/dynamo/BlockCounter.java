@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2009-2019, Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.dynamo;
+
+import co.stateful.Counter;
+import com.jcabi.log.Logger;
+import java.io.IOException;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Counter that reserves blocks of numbers in the origin counter
+ * and hands them out locally (hi/lo allocation).
+ *
+ * <p>Every process reserves its own block with one atomic increment
+ * of the origin, that's why numbers are unique across all of them.
+ * However, they are not sequential: numbers of a block not used
+ * before the process stops are lost forever.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString(of = { "origin", "size" })
+@EqualsAndHashCode(of = "origin")
+public final class BlockCounter implements Counter {
+
+    /**
+     * Origin counter.
+     */
+    private final transient Counter origin;
+
+    /**
+     * Size of the block.
+     */
+    private final transient long size;
+
+    /**
+     * The last number handed out.
+     */
+    private transient long current;
+
+    /**
+     * The last number of the reserved block.
+     */
+    private transient long max;
+
+    /**
+     * Ctor.
+     * @param counter Origin counter
+     * @param block Size of the block to reserve
+     */
+    public BlockCounter(final Counter counter, final long block) {
+        this.origin = counter;
+        this.size = block;
+    }
+
+    @Override
+    public String name() {
+        return this.origin.name();
+    }
+
+    @Override
+    public synchronized void set(final long value) throws IOException {
+        this.origin.set(value);
+        this.current = 0L;
+        this.max = 0L;
+    }
+
+    @Override
+    public synchronized long incrementAndGet(final long delta)
+        throws IOException {
+        if (this.current + delta > this.max) {
+            final long block = Math.max(delta, this.size);
+            this.max = this.origin.incrementAndGet(block);
+            this.current = this.max - block;
+            Logger.info(
+                this, "numbers %d..%d reserved in \"%s\"",
+                this.current + 1L, this.max, this.origin.name()
+            );
+        }
+        this.current += delta;
+        return this.current;
+    }
+
+}
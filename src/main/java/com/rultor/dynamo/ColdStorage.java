@@ -0,0 +1,200 @@
+/**
+ * Copyright (c) 2009-2019, Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.dynamo;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeAction;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.AttributeValueUpdate;
+import com.amazonaws.services.dynamodbv2.model.ExpectedAttributeValue;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.dynamo.AttributeUpdates;
+import com.jcabi.dynamo.Region;
+import com.jcabi.log.Logger;
+import com.jcabi.s3.Bucket;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Cold storage of inactive talks.
+ *
+ * <p>XML of a talk that was not touched for a long time is moved
+ * to the bucket, gzipped, and only a slim stub stays in DynamoDB:
+ * name, number, repo, active flag, updated time and the key of the
+ * object in the bucket (attribute {@link DyTalks#ATTR_COLD}). The talk
+ * is still readable, but its XML is fetched from the bucket. As soon
+ * as it is modified, XML goes back to DynamoDB.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@Immutable
+@ToString
+@EqualsAndHashCode(of = { "region", "bucket" })
+final class ColdStorage {
+
+    /**
+     * Region we're in.
+     */
+    private final transient Region region;
+
+    /**
+     * Bucket to keep XML in.
+     */
+    private final transient Bucket bucket;
+
+    /**
+     * Ctor.
+     * @param reg Region
+     * @param bkt Bucket
+     */
+    ColdStorage(final Region reg, final Bucket bkt) {
+        this.region = reg;
+        this.bucket = bkt;
+    }
+
+    /**
+     * Read gzipped XML of a frozen talk.
+     * @param key Key of the talk in the bucket, see {@link DyTalks#ATTR_COLD}
+     * @return Gzipped XML
+     * @throws IOException If fails
+     */
+    public byte[] read(final String key) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        this.bucket.ocket(key).read(baos);
+        return baos.toByteArray();
+    }
+
+    /**
+     * Move XML of the talk to the bucket, leaving a stub in DynamoDB.
+     *
+     * <p>The attributes of the talk are read by one request, since
+     * the item may have only keys, see {@link DyTiering}.</p>
+     *
+     * @param name Name of the talk
+     * @return TRUE if frozen, FALSE if it was frozen already, deleted
+     *  or modified meanwhile
+     * @throws IOException If fails
+     */
+    public boolean freeze(final String name) throws IOException {
+        final Map<String, AttributeValue> item = new Conditional(
+            this.region.table(DyTalks.TBL)
+        ).read(
+            name, DyTalks.ATTR_UPDATED, DyTalks.ATTR_NUMBER,
+            DyTalks.ATTR_COLD, DyTalks.ATTR_XML_ZIP, DyTalks.ATTR_XML
+        );
+        return !item.isEmpty() && !item.containsKey(DyTalks.ATTR_COLD)
+            && this.freeze(name, item);
+    }
+
+    /**
+     * Move XML of the talk to the bucket, leaving a stub in DynamoDB.
+     * @param name Name of the talk
+     * @param item Attributes of the talk
+     * @return TRUE if frozen, FALSE if it was modified meanwhile
+     * @throws IOException If fails
+     */
+    private boolean freeze(final String name,
+        final Map<String, AttributeValue> item) throws IOException {
+        final byte[] body;
+        if (item.containsKey(DyTalks.ATTR_XML_ZIP)) {
+            body = item.get(DyTalks.ATTR_XML_ZIP).getB().array();
+        } else {
+            body = DyTalk.zip(item.get(DyTalks.ATTR_XML).getS());
+        }
+        final String key = String.format(
+            "cold/%s.xml.gz", item.get(DyTalks.ATTR_NUMBER).getN()
+        );
+        final ObjectMetadata meta = new ObjectMetadata();
+        meta.setContentType("application/xml");
+        meta.setContentEncoding("gzip");
+        meta.setContentLength((long) body.length);
+        this.bucket.ocket(key).write(new ByteArrayInputStream(body), meta);
+        final boolean done = new Conditional(
+            this.region.table(DyTalks.TBL)
+        ).update(
+            name,
+            new AttributeUpdates()
+                .with(
+                    DyTalks.ATTR_COLD,
+                    new AttributeValueUpdate(
+                        new AttributeValue(key), AttributeAction.PUT
+                    )
+                )
+                .with(
+                    DyTalks.ATTR_XML_ZIP,
+                    new AttributeValueUpdate().withAction(
+                        AttributeAction.DELETE
+                    )
+                )
+                .with(
+                    DyTalks.ATTR_XML,
+                    new AttributeValueUpdate().withAction(
+                        AttributeAction.DELETE
+                    )
+                ),
+            Collections.singletonMap(
+                DyTalks.ATTR_UPDATED,
+                new ExpectedAttributeValue(item.get(DyTalks.ATTR_UPDATED))
+            )
+        );
+        if (done) {
+            Logger.info(
+                this, "talk %s frozen into %s (%d bytes)",
+                name, key, body.length
+            );
+        } else {
+            this.forget(key);
+        }
+        return done;
+    }
+
+    /**
+     * Remove the frozen copy of XML from the bucket.
+     *
+     * <p>Called when the talk is modified again and its XML is
+     * back in DynamoDB, see {@link DyTalk#modify(Iterable)}, and when
+     * the talk was modified while it was being frozen.</p>
+     *
+     * @param key Key in the bucket
+     * @throws IOException If fails
+     */
+    public void forget(final String key) throws IOException {
+        this.bucket.remove(key);
+        Logger.info(this, "cold copy %s removed", key);
+    }
+
+}
@@ -0,0 +1,161 @@
+/**
+ * Copyright (c) 2009-2019, Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.dynamo;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.AttributeValueUpdate;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.ExpectedAttributeValue;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.dynamo.Attributes;
+import com.jcabi.dynamo.Item;
+import com.jcabi.dynamo.Table;
+import com.jcabi.log.Logger;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Conditional update of a talk item.
+ *
+ * <p>{@link Item#put(Map)} doesn't support expectations, that's why
+ * we go to the low-level client here. For the same reason some
+ * attributes of a talk are read here by one request, while
+ * {@link Item#get(String)} makes a request for each of them.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@Immutable
+@ToString
+@EqualsAndHashCode(of = "table")
+final class Conditional {
+
+    /**
+     * Table with talks.
+     */
+    private final transient Table table;
+
+    /**
+     * Ctor.
+     * @param tbl Table
+     */
+    Conditional(final Table tbl) {
+        this.table = tbl;
+    }
+
+    /**
+     * Update the item, only if expectations are met.
+     * @param item The item
+     * @param updates Updates to apply
+     * @param expected Expectations
+     * @return TRUE if updated, FALSE if expectations failed
+     * @throws IOException If fails
+     */
+    public boolean update(final Item item,
+        final Map<String, AttributeValueUpdate> updates,
+        final Map<String, ExpectedAttributeValue> expected)
+        throws IOException {
+        return this.update(
+            item.get(DyTalks.HASH).getS(), updates, expected
+        );
+    }
+
+    /**
+     * Update the talk, only if expectations are met.
+     * @param name Name of the talk
+     * @param updates Updates to apply
+     * @param expected Expectations
+     * @return TRUE if updated, FALSE if expectations failed
+     */
+    public boolean update(final String name,
+        final Map<String, AttributeValueUpdate> updates,
+        final Map<String, ExpectedAttributeValue> expected) {
+        final AmazonDynamoDB aws = this.table.region().aws();
+        boolean done = true;
+        try {
+            aws.updateItem(
+                new UpdateItemRequest()
+                    .withTableName(this.table.name())
+                    .withKey(
+                        new Attributes().with(DyTalks.HASH, name)
+                    )
+                    .withAttributeUpdates(updates)
+                    .withExpected(expected)
+            );
+        } catch (final ConditionalCheckFailedException ex) {
+            Logger.info(
+                this, "talk %s was modified meanwhile: %s",
+                name, ex.getLocalizedMessage()
+            );
+            done = false;
+        } finally {
+            aws.shutdown();
+        }
+        return done;
+    }
+
+    /**
+     * Read some attributes of the talk by one consistent request.
+     * @param name Name of the talk
+     * @param attrs Names of attributes
+     * @return Attributes, which the talk has, empty if it is absent
+     * @throws IOException If fails
+     */
+    public Map<String, AttributeValue> read(final String name,
+        final String... attrs) throws IOException {
+        final AmazonDynamoDB aws = this.table.region().aws();
+        try {
+            Map<String, AttributeValue> found = aws.getItem(
+                new GetItemRequest()
+                    .withTableName(this.table.name())
+                    .withKey(new Attributes().with(DyTalks.HASH, name))
+                    .withConsistentRead(true)
+                    .withAttributesToGet(attrs)
+            ).getItem();
+            if (found == null) {
+                found = Collections.emptyMap();
+            }
+            return found;
+        } catch (final AmazonClientException ex) {
+            throw new IOException(ex);
+        } finally {
+            aws.shutdown();
+        }
+    }
+
+}
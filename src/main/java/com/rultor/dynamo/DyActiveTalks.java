@@ -0,0 +1,235 @@
+/**
+ * Copyright (c) 2009-2019, Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.dynamo;
+
+import com.jcabi.dynamo.Item;
+import com.jcabi.log.Logger;
+import com.rultor.spi.Talk;
+import com.rultor.spi.Talks;
+import java.io.IOException;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.cactoos.list.SolidList;
+import org.xembly.Directive;
+
+/**
+ * Talks in Dynamo, with active ones kept in memory.
+ *
+ * <p>Active talks are loaded from the {@link DyTalks#IDX_ACTIVE} index
+ * once. Then, every time the list is requested, only talks updated
+ * after the watermark (the latest time of update seen so far) are
+ * queried, both active and not active ones, and the list is adjusted.
+ * The watermark is moved back a bit for every query, since the index
+ * is updated asynchronously and clocks of writers are not perfectly in
+ * sync.</p>
+ *
+ * <p>Talks in memory are taken from {@link DyTalks#get(String)}, not
+ * from the index, since items of the index would keep the time of
+ * update they were loaded with.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString(of = "origin")
+@EqualsAndHashCode(of = "origin")
+@SuppressWarnings("PMD.TooManyMethods")
+public final class DyActiveTalks implements Talks {
+
+    /**
+     * How far back to look behind the watermark, in msec.
+     */
+    private static final long OVERLAP = TimeUnit.MINUTES.toMillis(1L);
+
+    /**
+     * Original talks.
+     */
+    private final transient DyTalks origin;
+
+    /**
+     * Active talks, by names.
+     */
+    private final transient ConcurrentMap<String, Talk> talks;
+
+    /**
+     * The latest time of update seen, in msec, or zero if nothing
+     * is loaded yet.
+     */
+    private transient long watermark;
+
+    /**
+     * Ctor.
+     * @param tlks Talks
+     */
+    public DyActiveTalks(final DyTalks tlks) {
+        this.origin = tlks;
+        this.talks = new ConcurrentHashMap<>(0);
+    }
+
+    @Override
+    public boolean exists(final long number) {
+        return this.origin.exists(number);
+    }
+
+    @Override
+    public Talk get(final long number) {
+        return this.origin.get(number);
+    }
+
+    @Override
+    public boolean exists(final String name) {
+        return this.origin.exists(name);
+    }
+
+    @Override
+    public Talk get(final String name) {
+        return this.origin.get(name);
+    }
+
+    @Override
+    public void delete(final String name) {
+        this.origin.delete(name);
+        this.talks.remove(name);
+    }
+
+    @Override
+    public void create(final String repo, final String name)
+        throws IOException {
+        this.origin.create(repo, name);
+        this.talks.put(name, this.origin.get(name));
+    }
+
+    @Override
+    public void activate(final String repo, final String name,
+        final Iterable<Directive> dirs) throws IOException {
+        this.origin.activate(repo, name, dirs);
+        if (!this.talks.containsKey(name)) {
+            this.talks.put(name, this.origin.get(name));
+        }
+    }
+
+    @Override
+    public Iterable<Talk> active() {
+        this.sync();
+        return new SolidList<>(this.talks.values());
+    }
+
+    @Override
+    public Iterable<Talk> idle() {
+        return this.origin.idle();
+    }
+
+    @Override
+    public Iterable<Talk> requested() {
+        return this.origin.requested();
+    }
+
+    @Override
+    public Iterable<Talk> awake() {
+        return this.origin.awake();
+    }
+
+    @Override
+    public Iterable<Talk> recent() {
+        return this.origin.recent();
+    }
+
+    @Override
+    public Iterable<Talk> siblings(final String repo, final Date since) {
+        return this.origin.siblings(repo, since);
+    }
+
+    /**
+     * Bring the list of active talks in sync with the index.
+     */
+    private synchronized void sync() {
+        final long start = System.currentTimeMillis();
+        final long since;
+        if (this.watermark == 0L) {
+            since = 0L;
+        } else {
+            since = this.watermark - DyActiveTalks.OVERLAP;
+        }
+        long latest = this.watermark;
+        int changed = 0;
+        for (final Item item : this.origin.updated(true, since)) {
+            latest = Math.max(latest, DyActiveTalks.updated(item));
+            final String name = DyActiveTalks.name(item);
+            if (!this.talks.containsKey(name)) {
+                this.talks.put(name, this.origin.get(name));
+            }
+            ++changed;
+        }
+        if (since > 0L) {
+            for (final Item item : this.origin.updated(false, since)) {
+                latest = Math.max(latest, DyActiveTalks.updated(item));
+                this.talks.remove(DyActiveTalks.name(item));
+                ++changed;
+            }
+        }
+        this.watermark = latest;
+        Logger.info(
+            this, "%d active talks, %d changed since %d, synced in %[ms]s",
+            this.talks.size(), changed, since,
+            System.currentTimeMillis() - start
+        );
+    }
+
+    /**
+     * Name of the talk in the item.
+     * @param item The item
+     * @return Name
+     */
+    private static String name(final Item item) {
+        try {
+            return item.get(DyTalks.HASH).getS();
+        } catch (final IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Time of update of the talk in the item.
+     * @param item The item
+     * @return Time in msec
+     */
+    private static long updated(final Item item) {
+        try {
+            return Long.parseLong(item.get(DyTalks.ATTR_UPDATED).getN());
+        } catch (final IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+}
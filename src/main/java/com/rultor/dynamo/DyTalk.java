@@ -32,7 +32,9 @@ package com.rultor.dynamo;
 import com.amazonaws.services.dynamodbv2.model.AttributeAction;
 import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 import com.amazonaws.services.dynamodbv2.model.AttributeValueUpdate;
+import com.amazonaws.services.dynamodbv2.model.ExpectedAttributeValue;
 import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Tv;
 import com.jcabi.dynamo.AttributeUpdates;
 import com.jcabi.dynamo.Item;
 import com.jcabi.xml.StrictXML;
@@ -46,16 +48,27 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.cactoos.list.SolidList;
+import org.cactoos.map.MapEntry;
+import org.cactoos.map.SolidMap;
 import org.w3c.dom.Node;
 import org.xembly.Directive;
+import org.xembly.Directives;
 import org.xembly.ImpossibleModificationException;
+import org.xembly.SyntaxException;
 import org.xembly.Xembler;
 
 /**
@@ -79,6 +92,25 @@ public final class DyTalk implements Talk {
      */
     private static final int LIMIT = 399 << 10;
 
+    /**
+     * How many times to try to save the XML.
+     */
+    private static final int ATTEMPTS = Tv.FIVE;
+
+    /**
+     * Name of the system property, which forces validation of XML
+     * against the schema on every read, instead of a random sample
+     * of reads (set to "true" in tests).
+     * @since 2.0
+     */
+    public static final String VALIDATE_PROPERTY = "rultor.validate";
+
+    /**
+     * Validate every read?
+     */
+    private static final boolean VALIDATE =
+        Boolean.getBoolean(DyTalk.VALIDATE_PROPERTY);
+
     /**
      * UTF-8.
      */
@@ -89,12 +121,19 @@ public final class DyTalk implements Talk {
      */
     private final transient Item item;
 
+    /**
+     * Cold storage.
+     */
+    private final transient ColdStorage cold;
+
     /**
      * Ctor.
      * @param itm Item
+     * @param storage Cold storage
      */
-    DyTalk(final Item itm) {
+    DyTalk(final Item itm, final ColdStorage storage) {
         this.item = itm;
+        this.cold = storage;
     }
 
     @Override
@@ -114,73 +153,425 @@ public final class DyTalk implements Talk {
         );
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Attributes with the XML, its version and pending directives
+     * are fetched by one request, since items found by indexes have only
+     * keys.</p>
+     */
     @Override
     public XML read() throws IOException {
-        final String xml;
-        if (this.item.has(DyTalks.ATTR_XML_ZIP)) {
-            xml = DyTalk.unzip(
-                this.item.get(DyTalks.ATTR_XML_ZIP).getB().array()
+        return this.read(this.state());
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The summary is saved by {@link #modify(Iterable)}, pending
+     * directives are not applied to it. If it is absent, it is made
+     * from the full XML.</p>
+     */
+    @Override
+    public XML summary() throws IOException {
+        final XML summary;
+        if (this.item.has(DyTalks.ATTR_SUMMARY)) {
+            summary = new XMLDocument(
+                this.item.get(DyTalks.ATTR_SUMMARY).getS()
             );
         } else {
-            xml = this.item.get(DyTalks.ATTR_XML).getS();
+            summary = Talk.SUMMARY.transform(this.read());
         }
-        return new StrictXML(
-            Talk.UPGRADE.transform(new XMLDocument(xml)),
-            Talk.SCHEMA
-        );
+        return summary;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The XML is saved only if the talk was not updated since it
+     * was read, otherwise the item is read again and the directives are
+     * applied to its XML, a few times, in order to not lose a write
+     * made by someone else meanwhile.</p>
+     */
     @Override
     public void modify(final Iterable<Directive> dirs) throws IOException {
-        if (!new SolidList<>(dirs).isEmpty()) {
-            final XML xml = this.read();
-            final Node node = xml.node();
-            try {
-                new Xembler(dirs).apply(node);
-            } catch (final ImpossibleModificationException ex) {
-                throw new IllegalStateException(
-                    String.format(
-                        "failed to apply %s to %s",
-                        dirs.toString(), xml
-                    ),
-                    ex
-                );
+        final Collection<Directive> list = new SolidList<>(dirs);
+        if (!list.isEmpty()) {
+            Map<String, AttributeValue> state = this.state();
+            int attempt = 1;
+            while (!this.save(list, state)) {
+                if (attempt == DyTalk.ATTEMPTS) {
+                    throw new IllegalStateException(
+                        String.format(
+                            "talk %s is modified too often, %d attempts failed",
+                            this.name(), attempt
+                        )
+                    );
+                }
+                state = this.state();
+                ++attempt;
             }
-            final byte[] body = DyTalk.zip(
-                XSLDocument.STRIP.transform(
-                    new StrictXML(new XMLDocument(node), Talk.SCHEMA)
-                ).toString()
-            );
-            if (body.length > DyTalk.LIMIT) {
-                throw new IllegalArgumentException(
-                    String.format(
-                        // @checkstyle LineLength (1 line)
-                        "XML is too big (%d bytes, maximum is %d), even after ZIP, in \"%s\"",
-                        body.length, DyTalk.LIMIT,
-                        this.item.get(DyTalks.HASH).getS()
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The phase of an archived talk is removed, in order to keep
+     * it out of the index of phases; the phase of an activated talk
+     * is set to {@link DyTalks#PHASE_IDLE} until the next modification,
+     * since we don't know it without reading the XML. The same goes
+     * for its wake-up time: an activated talk wakes up at once.</p>
+     */
+    @Override
+    public void active(final boolean yes) throws IOException {
+        final AttributeValueUpdate phase;
+        final AttributeValueUpdate wake;
+        if (yes) {
+            phase = new AttributeValueUpdate(
+                new AttributeValue(DyTalks.PHASE_IDLE), AttributeAction.PUT
+            );
+            wake = new AttributeValueUpdate(
+                new AttributeValue().withN("0"), AttributeAction.PUT
+            );
+        } else {
+            phase = new AttributeValueUpdate().withAction(
+                AttributeAction.DELETE
+            );
+            wake = phase;
+        }
+        this.item.put(
+            new AttributeUpdates()
+                .with(DyTalks.ATTR_ACTIVE, yes)
+                .with(DyTalks.ATTR_UPDATED, System.currentTimeMillis())
+                .with(DyTalks.ATTR_PHASE, phase)
+                .with(DyTalks.ATTR_WAKE, wake)
+        );
+    }
+
+    /**
+     * Apply directives to the XML and save it, only if the talk was not
+     * updated since its attributes were read.
+     * @param dirs Directives to apply
+     * @param state Attributes of the talk, see {@link #state()}
+     * @return TRUE if saved, FALSE if the talk was updated meanwhile
+     * @throws IOException If fails
+     */
+    private boolean save(final Iterable<Directive> dirs,
+        final Map<String, AttributeValue> state) throws IOException {
+        final List<String> pending = DyTalk.pending(state);
+        final XML xml = this.read(state);
+        final Node node = xml.node();
+        try {
+            new Xembler(dirs).apply(node);
+        } catch (final ImpossibleModificationException ex) {
+            throw new IllegalStateException(
+                String.format(
+                    "failed to apply %s to %s",
+                    dirs.toString(), xml
+                ),
+                ex
+            );
+        }
+        final XML fresh = XSLDocument.STRIP.transform(
+            new StrictXML(new XMLDocument(node), Talk.SCHEMA)
+        );
+        final byte[] body = DyTalk.zip(fresh.toString());
+        if (body.length > DyTalk.LIMIT) {
+            throw new IllegalArgumentException(
+                String.format(
+                    // @checkstyle LineLength (1 line)
+                    "XML is too big (%d bytes, maximum is %d), even after ZIP, in \"%s\"",
+                    body.length, DyTalk.LIMIT,
+                    this.item.get(DyTalks.HASH).getS()
+                )
+            );
+        }
+        final AttributeValue value = new AttributeValue();
+        value.setB(ByteBuffer.wrap(body));
+        AttributeUpdates updates = new AttributeUpdates()
+            .with(DyTalks.ATTR_UPDATED, System.currentTimeMillis())
+            .with(DyTalks.ATTR_VERSION, Talk.VERSION)
+            .with(DyTalks.ATTR_PHASE, DyTalk.phase(fresh))
+            .with(DyTalk.attributes(fresh))
+            .with(
+                DyTalks.ATTR_XML_ZIP,
+                new AttributeValueUpdate(value, AttributeAction.PUT)
+            );
+        if (!pending.isEmpty()) {
+            updates = updates.with(
+                DyTalks.ATTR_PENDING,
+                new AttributeValueUpdate(
+                    new AttributeValue().withSS(pending),
+                    AttributeAction.DELETE
+                )
+            );
+        }
+        String cold = "";
+        if (state.containsKey(DyTalks.ATTR_COLD)) {
+            cold = state.get(DyTalks.ATTR_COLD).getS();
+            updates = updates.with(
+                DyTalks.ATTR_COLD,
+                new AttributeValueUpdate().withAction(AttributeAction.DELETE)
+            );
+        }
+        final boolean saved = new Conditional(this.item.frame().table())
+            .update(
+                this.item, updates,
+                new SolidMap<String, ExpectedAttributeValue>(
+                    new MapEntry<>(
+                        DyTalks.ATTR_UPDATED,
+                        new ExpectedAttributeValue(
+                            state.get(DyTalks.ATTR_UPDATED)
+                        )
                     )
+                )
+            );
+        if (saved && !cold.isEmpty()) {
+            this.cold.forget(cold);
+        }
+        return saved;
+    }
+
+    /**
+     * Attributes of the talk, which its XML is made of, and the time
+     * of its update, fetched by one consistent request.
+     * @return Attributes
+     * @throws IOException If fails
+     */
+    private Map<String, AttributeValue> state() throws IOException {
+        final Map<String, AttributeValue> state = new Conditional(
+            this.item.frame().table()
+        ).read(
+            this.name(),
+            DyTalks.ATTR_UPDATED, DyTalks.ATTR_VERSION,
+            DyTalks.ATTR_PENDING, DyTalks.ATTR_XML_ZIP,
+            DyTalks.ATTR_XML, DyTalks.ATTR_COLD
+        );
+        if (state.isEmpty()) {
+            throw new IllegalStateException(
+                String.format("talk %s is absent", this.name())
+            );
+        }
+        return state;
+    }
+
+    /**
+     * Read XML and apply pending directives to it.
+     * @param state Attributes of the talk, see {@link #state()}
+     * @return XML
+     * @throws IOException If fails
+     */
+    private XML read(final Map<String, AttributeValue> state)
+        throws IOException {
+        final String text;
+        if (state.containsKey(DyTalks.ATTR_XML_ZIP)) {
+            text = DyTalk.unzip(
+                state.get(DyTalks.ATTR_XML_ZIP).getB().array()
+            );
+        } else if (state.containsKey(DyTalks.ATTR_COLD)) {
+            text = DyTalk.unzip(
+                this.cold.read(state.get(DyTalks.ATTR_COLD).getS())
+            );
+        } else {
+            text = state.get(DyTalks.ATTR_XML).getS();
+        }
+        final XML xml = new XMLDocument(text);
+        final int version = DyTalk.version(state);
+        final XML talk;
+        if (version < Talk.VERSION) {
+            talk = this.upgrade(xml, version);
+        } else if (DyTalk.VALIDATE
+            || ThreadLocalRandom.current().nextInt(Tv.HUNDRED) == 0) {
+            talk = new StrictXML(xml, Talk.SCHEMA);
+        } else {
+            talk = xml;
+        }
+        return DyTalk.apply(talk, DyTalk.pending(state));
+    }
+
+    /**
+     * Pending directives, in the order they were added.
+     * @param state Attributes of the talk, see {@link #state()}
+     * @return Xembly scripts, each prefixed with the time of adding
+     */
+    private static List<String> pending(
+        final Map<String, AttributeValue> state) {
+        final List<String> pending = new ArrayList<>(0);
+        if (state.containsKey(DyTalks.ATTR_PENDING)) {
+            pending.addAll(state.get(DyTalks.ATTR_PENDING).getSS());
+            Collections.sort(pending);
+        }
+        return pending;
+    }
+
+    /**
+     * Version of XML stored in the item.
+     * @param state Attributes of the talk, see {@link #state()}
+     * @return Version, zero if not stamped yet
+     */
+    private static int version(final Map<String, AttributeValue> state) {
+        int version = 0;
+        if (state.containsKey(DyTalks.ATTR_VERSION)) {
+            version = Integer.parseInt(
+                state.get(DyTalks.ATTR_VERSION).getN()
+            );
+        }
+        return version;
+    }
+
+    /**
+     * Upgrade XML of an old version, validate it and save it back,
+     * in order to not do it again on the next read.
+     *
+     * <p>The time of update is not changed, since the content of the
+     * talk is the same. The attributes of {@link #attributes(XML)} are saved
+     * too, while the phase is not, since the talk may be archived. If
+     * the talk was modified or frozen meanwhile, nothing is saved.</p>
+     *
+     * @param xml The XML to upgrade
+     * @param version Its current version
+     * @return Upgraded XML
+     * @throws IOException If fails
+     */
+    private XML upgrade(final XML xml, final int version) throws IOException {
+        final XML fresh = XSLDocument.STRIP.transform(
+            new StrictXML(Talk.UPGRADE.transform(xml), Talk.SCHEMA)
+        );
+        final byte[] body = DyTalk.zip(fresh.toString());
+        if (body.length <= DyTalk.LIMIT) {
+            final ExpectedAttributeValue expected;
+            if (version == 0) {
+                expected = new ExpectedAttributeValue(false);
+            } else {
+                expected = new ExpectedAttributeValue(
+                    new AttributeValue().withN(Integer.toString(version))
                 );
             }
             final AttributeValue value = new AttributeValue();
             value.setB(ByteBuffer.wrap(body));
-            this.item.put(
+            new Conditional(this.item.frame().table()).update(
+                this.item,
                 new AttributeUpdates()
-                    .with(DyTalks.ATTR_UPDATED, System.currentTimeMillis())
+                    .with(DyTalk.attributes(fresh))
                     .with(
                         DyTalks.ATTR_XML_ZIP,
                         new AttributeValueUpdate(value, AttributeAction.PUT)
                     )
+                    .with(
+                        DyTalks.ATTR_VERSION,
+                        new AttributeValueUpdate(
+                            new AttributeValue().withN(
+                                Integer.toString(Talk.VERSION)
+                            ),
+                            AttributeAction.PUT
+                        )
+                    )
+                    .with(
+                        DyTalks.ATTR_XML,
+                        new AttributeValueUpdate().withAction(
+                            AttributeAction.DELETE
+                        )
+                    ),
+                new SolidMap<String, ExpectedAttributeValue>(
+                    new MapEntry<>(DyTalks.ATTR_VERSION, expected),
+                    new MapEntry<>(
+                        DyTalks.ATTR_COLD, new ExpectedAttributeValue(false)
+                    )
+                )
             );
         }
+        return fresh;
     }
 
-    @Override
-    public void active(final boolean yes) throws IOException {
-        this.item.put(
-            new AttributeUpdates()
-                .with(DyTalks.ATTR_ACTIVE, yes)
-                .with(DyTalks.ATTR_UPDATED, System.currentTimeMillis())
-        );
+    /**
+     * Phase of the talk, see {@link DyTalks#ATTR_PHASE}.
+     * @param xml The XML
+     * @return Phase
+     */
+    private static String phase(final XML xml) {
+        final String phase;
+        if (!xml.nodes("/talk/daemon").isEmpty()) {
+            phase = "daemon";
+        } else if (!xml.nodes("/talk/request").isEmpty()) {
+            phase = "request";
+        } else if (!xml.nodes("/talk/shell").isEmpty()) {
+            phase = "shell";
+        } else {
+            phase = DyTalks.PHASE_IDLE;
+        }
+        return phase;
+    }
+
+    /**
+     * Attributes, which duplicate the XML, in order to let indexes
+     * and listings find talks without reading it.
+     * @param xml The XML
+     * @return Updates
+     */
+    private static AttributeUpdates attributes(final XML xml) {
+        final AttributeValueUpdate host;
+        final List<String> hosts = xml.xpath("/talk/shell/host/text()");
+        final List<String> wakes = xml.xpath("/talk/@wake");
+        long wake = 0L;
+        if (!wakes.isEmpty()) {
+            wake = Long.parseLong(wakes.get(0));
+        }
+        if (hosts.isEmpty()) {
+            host = new AttributeValueUpdate().withAction(
+                AttributeAction.DELETE
+            );
+        } else {
+            host = new AttributeValueUpdate(
+                new AttributeValue(hosts.get(0)), AttributeAction.PUT
+            );
+        }
+        return new AttributeUpdates()
+            .with(
+                DyTalks.ATTR_PUBLIC,
+                Boolean.toString(
+                    !xml.nodes("/talk[@public='true']").isEmpty()
+                )
+            )
+            .with(
+                DyTalks.ATTR_HAS_DAEMON,
+                Boolean.toString(!xml.nodes("/talk/daemon").isEmpty())
+            )
+            .with(DyTalks.ATTR_SHELL_HOST, host)
+            .with(DyTalks.ATTR_WAKE, wake)
+            .with(
+                DyTalks.ATTR_SUMMARY, Talk.SUMMARY.transform(xml).toString()
+            );
+    }
+
+    /**
+     * Apply pending directives.
+     * @param xml The XML
+     * @param pending Pending directives
+     * @return New XML
+     */
+    private static XML apply(final XML xml, final List<String> pending) {
+        XML result = xml;
+        if (!pending.isEmpty()) {
+            final Node node = xml.node();
+            for (final String script : pending) {
+                try {
+                    new Xembler(
+                        new Directives(StringUtils.substringAfter(script, " "))
+                    ).apply(node);
+                } catch (final ImpossibleModificationException
+                    | SyntaxException ex) {
+                    throw new IllegalStateException(
+                        String.format(
+                            "failed to apply pending %s to %s", script, xml
+                        ),
+                        ex
+                    );
+                }
+            }
+            result = new XMLDocument(node);
+        }
+        return result;
     }
 
     /**
@@ -189,7 +580,7 @@ public final class DyTalk implements Talk {
      * @return Zipped content
      * @throws IOException If fails
      */
-    private static byte[] zip(final String xml) throws IOException {
+    static byte[] zip(final String xml) throws IOException {
         final ByteArrayOutputStream baos = new ByteArrayOutputStream();
         final OutputStream output = new GZIPOutputStream(baos);
         IOUtils.copy(
@@ -30,26 +30,48 @@
 package com.rultor.dynamo;
 
 import co.stateful.Counter;
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 import com.amazonaws.services.dynamodbv2.model.ComparisonOperator;
 import com.amazonaws.services.dynamodbv2.model.Condition;
+import com.amazonaws.services.dynamodbv2.model.ExpectedAttributeValue;
 import com.amazonaws.services.dynamodbv2.model.Select;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
 import com.google.common.collect.Iterables;
 import com.jcabi.aspects.Immutable;
 import com.jcabi.aspects.Tv;
+import com.jcabi.dynamo.AttributeUpdates;
 import com.jcabi.dynamo.Attributes;
 import com.jcabi.dynamo.Conditions;
+import com.jcabi.dynamo.Item;
 import com.jcabi.dynamo.QueryValve;
 import com.jcabi.dynamo.Region;
+import com.jcabi.dynamo.Table;
+import com.jcabi.immutable.Array;
+import com.jcabi.s3.Bucket;
+import com.jcabi.xml.StrictXML;
+import com.jcabi.xml.XMLDocument;
+import com.jcabi.xml.XSLDocument;
 import com.rultor.spi.Talk;
 import com.rultor.spi.Talks;
 import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 import org.cactoos.iterable.Filtered;
+import org.cactoos.iterable.IterableOf;
+import org.cactoos.iterable.Joined;
 import org.cactoos.iterable.Limited;
 import org.cactoos.iterable.Mapped;
+import org.xembly.Directive;
+import org.xembly.Directives;
 
 /**
  * Talks in Dynamo.
@@ -88,6 +110,18 @@ public final class DyTalks implements Talks {
      */
     public static final String IDX_SIBLINGS = "siblings";
 
+    /**
+     * Index name.
+     * @since 2.0
+     */
+    public static final String IDX_RECENT = "recent";
+
+    /**
+     * Index name.
+     * @since 2.0
+     */
+    public static final String IDX_PHASES = "phases";
+
     /**
      * Talk unique name.
      */
@@ -125,6 +159,70 @@ public final class DyTalks implements Talks {
      */
     public static final String ATTR_UPDATED = "updated";
 
+    /**
+     * Key of XML in the cold storage bucket, if it is frozen.
+     * @since 2.0
+     */
+    public static final String ATTR_COLD = "cold";
+
+    /**
+     * Version of XML, see {@link Talk#VERSION}.
+     * @since 2.0
+     */
+    public static final String ATTR_VERSION = "version";
+
+    /**
+     * Xembly directives to be applied to XML, a string set
+     * (see {@link #activate(String, String, Iterable)}).
+     * @since 2.0
+     */
+    public static final String ATTR_PENDING = "pending";
+
+    /**
+     * Is it public ("true" or "false"), see {@code /talk/@public}.
+     * @since 2.0
+     */
+    public static final String ATTR_PUBLIC = "public";
+
+    /**
+     * What the talk is busy with, if it is active: {@code daemon},
+     * {@code request}, {@code shell} or {@link #PHASE_IDLE}; it is a hint
+     * only, the XML is the source of truth.
+     * @since 2.0
+     */
+    public static final String ATTR_PHASE = "phase";
+
+    /**
+     * Does it have a daemon ("true" or "false").
+     * @since 2.0
+     */
+    public static final String ATTR_HAS_DAEMON = "has_daemon";
+
+    /**
+     * Host of its shell, if it has one.
+     * @since 2.0
+     */
+    public static final String ATTR_SHELL_HOST = "shell_host";
+
+    /**
+     * Summary of the talk, see {@link Talk#SUMMARY}.
+     * @since 2.0
+     */
+    public static final String ATTR_SUMMARY = "summary";
+
+    /**
+     * When the talk has to be processed again, in msec, see
+     * {@code /talk/@wake}; zero means "as soon as possible".
+     * @since 2.0
+     */
+    public static final String ATTR_WAKE = "wake";
+
+    /**
+     * Phase of a talk, which has nothing to do.
+     * @since 2.0
+     */
+    public static final String PHASE_IDLE = "idle";
+
     /**
      * Region we're in.
      */
@@ -135,14 +233,22 @@ public final class DyTalks implements Talks {
      */
     private final transient Counter counter;
 
+    /**
+     * Cold storage of inactive talks.
+     */
+    private final transient ColdStorage cold;
+
     /**
      * Public ctor.
      * @param reg Region
      * @param cnt Counter of talks
+     * @param bucket Bucket for cold storage
+     * @since 2.0
      */
-    public DyTalks(final Region reg, final Counter cnt) {
+    public DyTalks(final Region reg, final Counter cnt, final Bucket bucket) {
         this.region = reg;
         this.counter = cnt;
+        this.cold = new ColdStorage(reg, bucket);
     }
 
     @Override
@@ -173,7 +279,8 @@ public final class DyTalks implements Talks {
                         .withAttributesToGet(DyTalks.HASH, DyTalks.ATTR_NUMBER)
                 )
                 .where(DyTalks.ATTR_NUMBER, Conditions.equalTo(number))
-                .iterator().next()
+                .iterator().next(),
+            this.cold
         );
     }
 
@@ -197,7 +304,8 @@ public final class DyTalks implements Talks {
                         .withAttributesToGet(DyTalks.ATTR_NUMBER)
                 )
                 .where(DyTalks.HASH, name)
-                .iterator().next()
+                .iterator().next(),
+            this.cold
         );
     }
 
@@ -223,17 +331,98 @@ public final class DyTalks implements Talks {
                 .with(DyTalks.ATTR_REPO, repo)
                 .with(DyTalks.ATTR_NUMBER, number)
                 .with(DyTalks.ATTR_UPDATED, System.currentTimeMillis())
-                .with(
-                    DyTalks.ATTR_XML,
-                    String.format("<talk name='%s' number='%d'/>", name, number)
-                )
+                .with(DyTalks.ATTR_VERSION, Talk.VERSION)
+                .with(DyTalks.ATTR_PHASE, DyTalks.PHASE_IDLE)
+                .with(DyTalks.ATTR_PUBLIC, Boolean.toString(true))
+                .with(DyTalks.ATTR_HAS_DAEMON, Boolean.toString(false))
+                .with(DyTalks.ATTR_WAKE, 0L)
+                .with(DyTalks.ATTR_XML, DyTalks.seed(name, number))
         );
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The talk is activated, woken up and its directives are appended
+     * to {@link #ATTR_PENDING} by one update, no matter whether it exists;
+     * the directives are applied on read and saved into XML by the next
+     * {@link DyTalk#modify(Iterable)}. The number, the initial XML and
+     * the idle phase are set only if the talk has none of them yet, so
+     * that a new talk is never seen without XML and is visible
+     * in {@link #idle()} until the next modification sets its real phase.
+     * The number is taken from the counter before the update and is lost,
+     * if the talk exists. The version is not set, since an existing talk
+     * without it has to be upgraded; the initial XML is upgraded already,
+     * so it is only stamped on the first read.</p>
+     */
+    @Override
+    public void activate(final String repo, final String name,
+        final Iterable<Directive> dirs) throws IOException {
+        final long number = this.counter.incrementAndGet(1L);
+        final Map<String, AttributeValue> sets = new Attributes()
+            .with(DyTalks.ATTR_ACTIVE, Boolean.toString(true))
+            .with(DyTalks.ATTR_REPO, repo)
+            .with(DyTalks.ATTR_UPDATED, System.currentTimeMillis())
+            .with(DyTalks.ATTR_WAKE, 0L);
+        final Map<String, AttributeValue> seeds = new Attributes()
+            .with(DyTalks.ATTR_NUMBER, number)
+            .with(DyTalks.ATTR_XML, DyTalks.seed(name, number))
+            .with(DyTalks.ATTR_PUBLIC, Boolean.toString(true))
+            .with(DyTalks.ATTR_HAS_DAEMON, Boolean.toString(false))
+            .with(DyTalks.ATTR_PHASE, DyTalks.PHASE_IDLE);
+        final Map<String, String> names = new HashMap<>(0);
+        final Map<String, AttributeValue> values = new HashMap<>(0);
+        final Collection<String> clauses = new LinkedList<>();
+        for (final Map.Entry<String, AttributeValue> ent : sets.entrySet()) {
+            final int idx = names.size();
+            names.put(String.format("#a%d", idx), ent.getKey());
+            values.put(String.format(":v%d", idx), ent.getValue());
+            clauses.add(String.format("#a%d = :v%d", idx, idx));
+        }
+        for (final Map.Entry<String, AttributeValue> ent : seeds.entrySet()) {
+            final int idx = names.size();
+            names.put(String.format("#a%d", idx), ent.getKey());
+            values.put(String.format(":v%d", idx), ent.getValue());
+            clauses.add(
+                String.format(
+                    "#a%d = if_not_exists(#a%d, :v%d)", idx, idx, idx
+                )
+            );
+        }
+        String expression = String.format("SET %s", String.join(", ", clauses));
+        final String script = new Directives(dirs).toString();
+        if (!script.isEmpty()) {
+            names.put("#pending", DyTalks.ATTR_PENDING);
+            values.put(
+                ":pending",
+                new AttributeValue().withSS(DyTalks.pending(script))
+            );
+            expression = String.format("%s ADD #pending :pending", expression);
+        }
+        final Table table = this.region.table(DyTalks.TBL);
+        final AmazonDynamoDB aws = table.region().aws();
+        try {
+            aws.updateItem(
+                new UpdateItemRequest()
+                    .withTableName(table.name())
+                    .withKey(new Attributes().with(DyTalks.HASH, name))
+                    .withUpdateExpression(expression)
+                    .withExpressionAttributeNames(names)
+                    .withExpressionAttributeValues(values)
+            );
+        } catch (final AmazonClientException ex) {
+            throw new IOException(
+                String.format("Failed to activate talk %s", name), ex
+            );
+        } finally {
+            aws.shutdown();
+        }
+    }
+
     @Override
     public Iterable<Talk> active() {
         return new Mapped<>(
-            input -> new DyTalk(input),
+            input -> new DyTalk(input, this.cold),
             this.region.table(DyTalks.TBL)
                 .frame()
                 .through(
@@ -247,35 +436,76 @@ public final class DyTalks implements Talks {
         );
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Only talks which are active and marked as idle are fetched from
+     * the index, their XML is not read.</p>
+     */
+    @Override
+    public Iterable<Talk> idle() {
+        return this.phased(DyTalks.PHASE_IDLE);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Only talks which are active and have a request or a daemon
+     * in their phase are fetched from the index, their XML is not read.
+     * A talk gets its daemon in the same pass of agents it gets its
+     * request in, and the daemon ranks first in its phase, so the talk
+     * may never be seen with just a request.</p>
+     */
+    @Override
+    public Iterable<Talk> requested() {
+        return new Joined<Talk>(
+            this.phased("request"),
+            this.phased("daemon")
+        );
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Only talks which are active and due are fetched from the index
+     * of phases, one query per phase, their XML is not read. Talks
+     * without {@link #ATTR_WAKE} are not there, until they are modified
+     * or activated.</p>
+     */
+    @Override
+    public Iterable<Talk> awake() {
+        final long now = System.currentTimeMillis();
+        return new Joined<Talk>(
+            new Mapped<String, Iterable<Talk>>(
+                phase -> this.due(phase, now),
+                new IterableOf<>(
+                    "daemon", "request", "shell", DyTalks.PHASE_IDLE
+                )
+            )
+        );
+    }
+
     @Override
     public Iterable<Talk> recent() {
         return new Limited<>(
             Tv.FIVE,
-            new Filtered<>(
-                input -> {
-                    try {
-                        return !input.read().nodes(
-                            "/talk[@public='true']"
-                        ).isEmpty();
-                    } catch (final IOException ex) {
-                        throw new IllegalStateException(ex);
-                    }
-                },
-                new Mapped<>(
-                    input -> new DyTalk(input),
+            new Mapped<>(
+                input -> new DyTalk(input, this.cold),
+                new Filtered<>(
+                    input -> Boolean.toString(false).equals(
+                        input.get(DyTalks.ATTR_ACTIVE).getS()
+                    ),
                     this.region.table(DyTalks.TBL)
                         .frame()
                         .through(
                             new QueryValve()
-                                .withIndexName(DyTalks.IDX_ACTIVE)
+                                .withIndexName(DyTalks.IDX_RECENT)
                                 .withScanIndexForward(false)
                                 .withConsistentRead(false)
-                                .withLimit(Tv.FIVE)
+                                .withLimit(Tv.TWENTY)
                                 .withSelect(Select.ALL_PROJECTED_ATTRIBUTES)
                         )
-                        .where(
-                            DyTalks.ATTR_ACTIVE, Boolean.toString(false)
-                        )
+                        .where(DyTalks.ATTR_PUBLIC, Boolean.toString(true))
                 )
             )
         );
@@ -284,7 +514,7 @@ public final class DyTalks implements Talks {
     @Override
     public Iterable<Talk> siblings(final String repo, final Date since) {
         return new Mapped<>(
-            input -> new DyTalk(input),
+            input -> new DyTalk(input, this.cold),
             this.region.table(DyTalks.TBL)
                 .frame()
                 .through(
@@ -308,4 +538,189 @@ public final class DyTalks implements Talks {
                 )
         );
     }
+
+    /**
+     * Set phase and visibility of talks, which were stored before they
+     * were kept in attributes, in order to let {@link #idle()},
+     * {@link #awake()} and {@link #recent()} find them.
+     *
+     * <p>An active talk without a phase is marked as idle and awake,
+     * its real phase is set by its next modification. A talk archived
+     * in the last thirty days without visibility gets it from its XML;
+     * older talks are too old for {@link #recent()} anyway. Nothing is
+     * written if the talk got the attribute meanwhile.</p>
+     *
+     * @return How many talks were fixed
+     * @throws IOException If fails
+     * @since 2.0
+     */
+    public int backfill() throws IOException {
+        final Conditional cond = new Conditional(
+            this.region.table(DyTalks.TBL)
+        );
+        int total = 0;
+        for (final Item item
+            : this.updated(true, 0L, DyTalks.ATTR_PHASE)) {
+            if (!item.has(DyTalks.ATTR_PHASE) && cond.update(
+                item,
+                new AttributeUpdates()
+                    .with(DyTalks.ATTR_PHASE, DyTalks.PHASE_IDLE)
+                    .with(DyTalks.ATTR_WAKE, 0L),
+                Collections.singletonMap(
+                    DyTalks.ATTR_PHASE, new ExpectedAttributeValue(false)
+                )
+            )) {
+                ++total;
+            }
+        }
+        final long since = System.currentTimeMillis()
+            - TimeUnit.DAYS.toMillis((long) Tv.THIRTY);
+        for (final Item item
+            : this.updated(false, since, DyTalks.ATTR_PUBLIC)) {
+            if (!item.has(DyTalks.ATTR_PUBLIC) && cond.update(
+                item,
+                new AttributeUpdates().with(
+                    DyTalks.ATTR_PUBLIC,
+                    Boolean.toString(
+                        !new DyTalk(item, this.cold).read()
+                            .nodes("/talk[@public='true']").isEmpty()
+                    )
+                ),
+                Collections.singletonMap(
+                    DyTalks.ATTR_PUBLIC, new ExpectedAttributeValue(false)
+                )
+            )) {
+                ++total;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Items of talks in the given state, updated after the given time.
+     *
+     * <p>Only keys of the index are fetched, other attributes
+     * are loaded by the items on demand.</p>
+     *
+     * @param yes Active or not
+     * @param since Time in msec, exclusive
+     * @param attrs Other attributes to fetch, if they exist
+     * @return Items with names and times of update
+     * @since 2.0
+     */
+    Iterable<Item> updated(final boolean yes, final long since,
+        final String... attrs) {
+        return this.region.table(DyTalks.TBL)
+            .frame()
+            .through(
+                new QueryValve()
+                    .withIndexName(DyTalks.IDX_ACTIVE)
+                    .withConsistentRead(false)
+                    .withSelect(Select.SPECIFIC_ATTRIBUTES)
+                    .withAttributesToGet(
+                        new Array<>(attrs)
+                            .with(DyTalks.HASH)
+                            .with(DyTalks.ATTR_UPDATED)
+                            .toArray(new String[0])
+                    )
+            )
+            .where(DyTalks.ATTR_ACTIVE, Boolean.toString(yes))
+            .where(
+                DyTalks.ATTR_UPDATED,
+                new Condition()
+                    .withComparisonOperator(ComparisonOperator.GT)
+                    .withAttributeValueList(
+                        new AttributeValue().withN(Long.toString(since))
+                    )
+            );
+    }
+
+    /**
+     * Pending directives, prefixed with the time of adding.
+     * @param script Xembly directives
+     * @return Value of {@link #ATTR_PENDING}
+     */
+    private static String pending(final String script) {
+        return String.format("%013d %s", System.currentTimeMillis(), script);
+    }
+
+    /**
+     * Active talks in the given phase.
+     * @param phase The phase
+     * @return Talks
+     */
+    private Iterable<Talk> phased(final String phase) {
+        return new Mapped<>(
+            input -> new DyTalk(input, this.cold),
+            new Filtered<>(
+                input -> Boolean.toString(true).equals(
+                    input.get(DyTalks.ATTR_ACTIVE).getS()
+                ),
+                this.region.table(DyTalks.TBL)
+                    .frame()
+                    .through(
+                        new QueryValve()
+                            .withIndexName(DyTalks.IDX_PHASES)
+                            .withConsistentRead(false)
+                            .withSelect(Select.ALL_PROJECTED_ATTRIBUTES)
+                    )
+                    .where(DyTalks.ATTR_PHASE, phase)
+            )
+        );
+    }
+
+    /**
+     * Active talks in the given phase, which have to wake up.
+     * @param phase The phase
+     * @param now Current time, in msec
+     * @return Talks
+     */
+    private Iterable<Talk> due(final String phase, final long now) {
+        return new Mapped<>(
+            input -> new DyTalk(input, this.cold),
+            new Filtered<>(
+                input -> Boolean.toString(true).equals(
+                    input.get(DyTalks.ATTR_ACTIVE).getS()
+                ),
+                this.region.table(DyTalks.TBL)
+                    .frame()
+                    .through(
+                        new QueryValve()
+                            .withIndexName(DyTalks.IDX_PHASES)
+                            .withConsistentRead(false)
+                            .withSelect(Select.ALL_PROJECTED_ATTRIBUTES)
+                    )
+                    .where(DyTalks.ATTR_PHASE, phase)
+                    .where(
+                        DyTalks.ATTR_WAKE,
+                        new Condition()
+                            .withComparisonOperator(ComparisonOperator.LE)
+                            .withAttributeValueList(
+                                new AttributeValue().withN(Long.toString(now))
+                            )
+                    )
+            )
+        );
+    }
+
+    /**
+     * Initial XML of a new talk.
+     * @param name Name of the talk
+     * @param number Its number
+     * @return XML
+     */
+    private static String seed(final String name, final long number) {
+        return XSLDocument.STRIP.transform(
+            new StrictXML(
+                Talk.UPGRADE.transform(
+                    new XMLDocument(
+                        String.format(
+                            "<talk name='%s' number='%d'/>", name, number
+                        )
+                    )
+                ),
+                Talk.SCHEMA
+            )
+        ).toString();
+    }
 }
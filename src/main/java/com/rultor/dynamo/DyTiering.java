@@ -0,0 +1,164 @@
+/**
+ * Copyright (c) 2009-2019, Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.dynamo;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ComparisonOperator;
+import com.amazonaws.services.dynamodbv2.model.Condition;
+import com.amazonaws.services.dynamodbv2.model.Select;
+import com.jcabi.aspects.ScheduleWithFixedDelay;
+import com.jcabi.aspects.Tv;
+import com.jcabi.dynamo.Item;
+import com.jcabi.dynamo.QueryValve;
+import com.jcabi.dynamo.Region;
+import com.jcabi.log.Logger;
+import com.jcabi.s3.Bucket;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.ToString;
+
+/**
+ * Background mover of long-inactive talks to cold storage.
+ *
+ * <p>Every hour it finds talks that are not active and were not
+ * updated for the given number of days, and moves their XML from
+ * DynamoDB to the bucket, see {@link ColdStorage}. No more than a hundred
+ * talks are frozen per run, in order to not eat all the capacity
+ * of the table. Talks are walked from the oldest ones and the time
+ * of update of the last one seen is remembered, so that the next run
+ * starts from there and talks frozen before are not walked again.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString
+@ScheduleWithFixedDelay(delay = 1, unit = TimeUnit.HOURS, threads = 1)
+@SuppressWarnings("PMD.DoNotUseThreads")
+public final class DyTiering implements Runnable, Closeable {
+
+    /**
+     * Region we're in.
+     */
+    private final transient Region region;
+
+    /**
+     * Cold storage.
+     */
+    private final transient ColdStorage cold;
+
+    /**
+     * How old a talk must be to get frozen, in msec.
+     */
+    private final transient long age;
+
+    /**
+     * Time of update of the last talk seen, in msec.
+     */
+    private final transient AtomicLong seen;
+
+    /**
+     * Ctor.
+     * @param reg Region
+     * @param bucket Bucket for cold storage
+     * @param days How many days of inactivity make a talk cold
+     */
+    public DyTiering(final Region reg, final Bucket bucket, final long days) {
+        this.region = reg;
+        this.cold = new ColdStorage(reg, bucket);
+        this.age = TimeUnit.DAYS.toMillis(days);
+        this.seen = new AtomicLong();
+    }
+
+    @Override
+    public void run() {
+        try {
+            final int total = this.freeze();
+            Logger.info(this, "%d talk(s) moved to cold storage", total);
+        } catch (final IOException ex) {
+            Logger.error(this, "#run(): %[exception]s", ex);
+        }
+    }
+
+    @Override
+    public void close() {
+        Logger.info(this, "cold storage tiering stopped");
+    }
+
+    /**
+     * Freeze the next portion of old talks.
+     * @return How many talks were frozen
+     * @throws IOException If fails
+     */
+    public int freeze() throws IOException {
+        final Iterable<Item> items = this.region.table(DyTalks.TBL)
+            .frame()
+            .through(
+                new QueryValve()
+                    .withIndexName(DyTalks.IDX_ACTIVE)
+                    .withScanIndexForward(true)
+                    .withConsistentRead(false)
+                    .withSelect(Select.SPECIFIC_ATTRIBUTES)
+                    .withAttributesToGet(DyTalks.HASH, DyTalks.ATTR_UPDATED)
+            )
+            .where(DyTalks.ATTR_ACTIVE, Boolean.toString(false))
+            .where(
+                DyTalks.ATTR_UPDATED,
+                new Condition()
+                    .withComparisonOperator(ComparisonOperator.BETWEEN)
+                    .withAttributeValueList(
+                        new AttributeValue().withN(
+                            Long.toString(this.seen.get())
+                        ),
+                        new AttributeValue().withN(
+                            Long.toString(
+                                System.currentTimeMillis() - this.age
+                            )
+                        )
+                    )
+            );
+        int total = 0;
+        for (final Item item : items) {
+            if (total >= Tv.HUNDRED) {
+                break;
+            }
+            if (this.cold.freeze(item.get(DyTalks.HASH).getS())) {
+                ++total;
+            }
+            this.seen.set(
+                Long.parseLong(item.get(DyTalks.ATTR_UPDATED).getN())
+            );
+        }
+        return total;
+    }
+
+}
@@ -0,0 +1,150 @@
+/**
+ * Copyright (c) 2009-2019, Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.profiles;
+
+import com.jcabi.aspects.Tv;
+import com.jcabi.xml.XML;
+import com.rultor.spi.Profile;
+import java.io.IOException;
+import java.util.List;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Priorities of requests, by their types.
+ *
+ * <p>By default, a release goes before a merge, a merge before
+ * a deploy and a deploy before everything else, like status-style
+ * commands and housekeeping. A repository may change that
+ * in its {@code .rultor.yml}:</p>
+ *
+ * <pre> priorities:
+ *   release: 1
+ *   merge: 2
+ *   deploy: 3</pre>
+ *
+ * <p>Configured priorities are kept between zero and {@link #MAX},
+ * which is the priority of a release by default, since the queue
+ * of daemons is shared by all repositories: a repository may reorder
+ * its own requests, but none of them may go before releases
+ * of other repositories. If the profile is
+ * broken, the defaults are used, since the profile errors are reported
+ * to the user by other agents. A talk without a request has
+ * the lowest priority and its profile is not even read.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString
+@EqualsAndHashCode(of = "profile")
+public final class Priorities {
+
+    /**
+     * Maximum priority, which may be configured, the highest one
+     * among the defaults.
+     */
+    public static final int MAX = Tv.THREE;
+
+    /**
+     * The profile.
+     */
+    private final transient Profile profile;
+
+    /**
+     * Ctor.
+     * @param prof The profile
+     */
+    public Priorities(final Profile prof) {
+        this.profile = prof;
+    }
+
+    /**
+     * Priority of the request in the talk, the higher the sooner.
+     * @param talk XML of the talk
+     * @return Priority
+     * @throws IOException If fails
+     */
+    public int of(final XML talk) throws IOException {
+        final List<String> types = talk.xpath("/talk/request/type/text()");
+        int priority = 0;
+        if (!types.isEmpty()) {
+            priority = this.of(types.get(0));
+        }
+        return priority;
+    }
+
+    /**
+     * Priority of the request type, the higher the sooner.
+     * @param type Type of the request, like "merge"
+     * @return Priority
+     * @throws IOException If fails
+     */
+    public int of(final String type) throws IOException {
+        final String text = this.configured(type);
+        final int priority;
+        if (text.matches("-?\\d{1,9}")) {
+            priority = Math.max(
+                0, Math.min(Integer.parseInt(text), Priorities.MAX)
+            );
+        } else if ("release".equals(type)) {
+            priority = Priorities.MAX;
+        } else if ("merge".equals(type)) {
+            priority = 2;
+        } else if ("deploy".equals(type)) {
+            priority = 1;
+        } else {
+            priority = 0;
+        }
+        return priority;
+    }
+
+    /**
+     * Priority of the request type, configured in the profile.
+     * @param type Type of the request
+     * @return Priority or empty string if it's absent or the profile
+     *  is broken
+     * @throws IOException If fails
+     */
+    private String configured(final String type) throws IOException {
+        String text;
+        try {
+            text = new Profile.Defaults(this.profile).text(
+                String.format(
+                    "/p/entry[@key='priorities']/entry[@key='%s']", type
+                )
+            ).trim();
+        } catch (final Profile.ConfigException ex) {
+            text = "";
+        }
+        return text;
+    }
+
+}
@@ -31,7 +31,9 @@ package com.rultor.spi;
 
 import com.jcabi.aspects.Immutable;
 import com.jcabi.immutable.Array;
+import com.jcabi.xml.XML;
 import java.io.IOException;
+import java.util.Arrays;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 
@@ -78,4 +80,69 @@ public interface SuperAgent {
         }
     }
 
+    /**
+     * Closer of talks, to be run by {@link SuperAgent.Fused}.
+     * @since 2.0
+     */
+    @Immutable
+    interface Closer {
+        /**
+         * XPath, which the XML of the talk must match.
+         * @return XPath
+         */
+        String xpath();
+        /**
+         * Close the talk.
+         * @param talk The talk
+         * @param xml Its XML, already read
+         * @throws IOException If fails
+         */
+        void close(Talk talk, XML xml) throws IOException;
+    }
+
+    /**
+     * Many closers in one pass over idle talks, reading the XML
+     * of each talk only once and running the closers in their order.
+     *
+     * <p>Talks stored before their phase was kept in an attribute are
+     * backfilled on start, so they are found by {@link Talks#idle()}
+     * too.</p>
+     *
+     * @since 2.0
+     */
+    @Immutable
+    @ToString
+    @EqualsAndHashCode(of = "closers")
+    final class Fused implements SuperAgent {
+        /**
+         * Closers to run.
+         */
+        private final transient Array<SuperAgent.Closer> closers;
+        /**
+         * Ctor.
+         * @param list List of them
+         */
+        public Fused(final SuperAgent.Closer... list) {
+            this(Arrays.asList(list));
+        }
+        /**
+         * Ctor.
+         * @param list List of them
+         */
+        public Fused(final Iterable<SuperAgent.Closer> list) {
+            this.closers = new Array<>(list);
+        }
+        @Override
+        public void execute(final Talks talks) throws IOException {
+            for (final Talk talk : talks.idle()) {
+                final XML xml = talk.read();
+                for (final SuperAgent.Closer closer : this.closers) {
+                    if (!xml.nodes(closer.xpath()).isEmpty()) {
+                        closer.close(talk, xml);
+                    }
+                }
+            }
+        }
+    }
+
 }
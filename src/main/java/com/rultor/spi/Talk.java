@@ -73,6 +73,13 @@ public interface Talk {
         Talk.class.getResourceAsStream("talk.xsd")
     );
 
+    /**
+     * Version of XML, which is produced by {@link #UPGRADE}; it must
+     * be incremented together with every new stylesheet in the chain.
+     * @since 2.0
+     */
+    int VERSION = 2;
+
     /**
      * Upgrade XSL.
      */
@@ -91,6 +98,15 @@ public interface Talk {
         )
     );
 
+    /**
+     * Summary XSL, which keeps only what listings of talks need: name,
+     * number, href of the wire and the last ten logs of the archive.
+     * @since 2.0
+     */
+    XSL SUMMARY = XSLDocument.make(
+        Talk.class.getResourceAsStream("summary.xsl")
+    );
+
     /**
      * Its unique number.
      * @return Its number
@@ -120,6 +136,14 @@ public interface Talk {
      */
     XML read() throws IOException;
 
+    /**
+     * Read its summary, see {@link #SUMMARY}.
+     * @return Summary
+     * @throws IOException If fails
+     * @since 2.0
+     */
+    XML summary() throws IOException;
+
     /**
      * Modify its content.
      * @param dirs Directives
@@ -205,6 +229,10 @@ public interface Talk {
             );
         }
         @Override
+        public XML summary() throws IOException {
+            return Talk.SUMMARY.transform(this.read());
+        }
+        @Override
         public void modify(final Iterable<Directive> dirs) throws IOException {
             if (dirs.iterator().hasNext()) {
                 final Node node = this.read().node();
@@ -45,6 +45,7 @@ import org.cactoos.iterable.Mapped;
 import org.cactoos.iterable.Sorted;
 import org.cactoos.list.SolidList;
 import org.cactoos.text.JoinedText;
+import org.xembly.Directive;
 
 /**
  * Talks in a repo.
@@ -102,12 +103,51 @@ public interface Talks {
      */
     void create(String repo, String name) throws IOException;
 
+    /**
+     * Create the talk if it is absent, modify it and make it active,
+     * all at once.
+     * @param repo The repo
+     * @param name The name
+     * @param dirs Directives to apply to its XML
+     * @throws IOException If fails
+     * @since 2.0
+     */
+    void activate(String repo, String name, Iterable<Directive> dirs)
+        throws IOException;
+
     /**
      * Get only active talks.
      * @return Talks
      */
     Iterable<Talk> active();
 
+    /**
+     * Get active talks, which may have nothing to do: no request,
+     * no daemon and no shell. It may return more talks than that, their
+     * XML has to be checked anyway, but never less.
+     * @return Talks
+     * @since 2.0
+     */
+    Iterable<Talk> idle();
+
+    /**
+     * Get active talks, which may have a request. It may return more
+     * talks than that, their XML has to be checked anyway, but never less.
+     * @return Talks
+     * @since 2.0
+     */
+    Iterable<Talk> requested();
+
+    /**
+     * Get active talks, which have to be processed now, since their
+     * wake-up time (see {@code /talk/@wake}) has come or they were
+     * activated after it was set. It may return more talks than that,
+     * but never less.
+     * @return Talks
+     * @since 2.0
+     */
+    Iterable<Talk> awake();
+
     /**
      * Get recent talks.
      * @return Talks
@@ -209,6 +249,16 @@ public interface Talks {
             Logger.info(this, "talk '%s' created in %s", name, file);
         }
         @Override
+        public void activate(final String repo, final String name,
+            final Iterable<Directive> dirs) throws IOException {
+            if (!new File(new File(this.path), name).exists()) {
+                this.create(repo, name);
+            }
+            final Talk talk = this.get(name);
+            talk.modify(dirs);
+            talk.active(true);
+        }
+        @Override
         public Iterable<Talk> active() {
             final Collection<File> files = FileUtils.listFiles(
                 new File(this.path), null, false
@@ -225,6 +275,18 @@ public interface Talks {
             );
         }
         @Override
+        public Iterable<Talk> idle() {
+            return this.active();
+        }
+        @Override
+        public Iterable<Talk> requested() {
+            return this.active();
+        }
+        @Override
+        public Iterable<Talk> awake() {
+            return this.active();
+        }
+        @Override
         public Iterable<Talk> recent() {
             return this.active();
         }
@@ -31,9 +31,11 @@ package com.rultor.web;
 
 import com.jcabi.manifests.Manifests;
 import com.rultor.Toggles;
+import com.rultor.spi.Metrics;
 import com.rultor.spi.Pulse;
 import com.rultor.spi.Talks;
 import java.nio.charset.Charset;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import org.takes.Take;
 import org.takes.facets.flash.TkFlash;
 import org.takes.facets.fork.FkRegex;
@@ -71,7 +73,7 @@ public final class TkApp extends TkWrap {
      */
     public TkApp(final Talks talks, final Pulse pulse,
         final Toggles toggles) {
-        super(TkApp.make(talks, pulse, toggles));
+        this(talks, pulse, toggles, Metrics.EMPTY);
     }
 
     /**
@@ -79,10 +81,46 @@ public final class TkApp extends TkWrap {
      * @param talks Talks
      * @param pulse Pulse
      * @param toggles Toggles
+     * @param metrics Metrics to show on the status page
+     * @since 2.0
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    public TkApp(final Talks talks, final Pulse pulse,
+        final Toggles toggles, final Metrics metrics) {
+        this(
+            talks, pulse, toggles, metrics,
+            new TkWebhook(talks, "", "", new ConcurrentLinkedQueue<>())
+        );
+    }
+
+    /**
+     * Ctor.
+     * @param talks Talks
+     * @param pulse Pulse
+     * @param toggles Toggles
+     * @param metrics Metrics to show on the status page
+     * @param hook Receiver of Github webhooks
+     * @since 2.0
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    public TkApp(final Talks talks, final Pulse pulse,
+        final Toggles toggles, final Metrics metrics, final Take hook) {
+        super(TkApp.make(talks, pulse, toggles, metrics, hook));
+    }
+
+    /**
+     * Ctor.
+     * @param talks Talks
+     * @param pulse Pulse
+     * @param toggles Toggles
+     * @param metrics Metrics
+     * @param hook Receiver of webhooks
      * @return Takes
+     * @checkstyle ParameterNumberCheck (4 lines)
      */
     private static Take make(final Talks talks,
-        final Pulse pulse, final Toggles toggles) {
+        final Pulse pulse, final Toggles toggles, final Metrics metrics,
+        final Take hook) {
         if (!"UTF-8".equals(Charset.defaultCharset().name())) {
             throw new IllegalStateException(
                 String.format(
@@ -98,7 +136,10 @@ public final class TkApp extends TkWrap {
                             new TkAppFallback(
                                 new TkAppAuth(
                                     new TkForward(
-                                        TkApp.regex(talks, pulse, toggles)
+                                        TkApp.regex(
+                                            talks, pulse, toggles, metrics,
+                                            hook
+                                        )
                                     )
                                 )
                             )
@@ -116,14 +157,20 @@ public final class TkApp extends TkWrap {
      * @param talks Talks
      * @param pulse Pulse
      * @param toggles Toggles
+     * @param metrics Metrics
+     * @param hook Receiver of webhooks
      * @return Takes
+     * @checkstyle ParameterNumberCheck (4 lines)
      */
     private static Take regex(final Talks talks,
-        final Pulse pulse, final Toggles toggles) {
+        final Pulse pulse, final Toggles toggles, final Metrics metrics,
+        final Take hook) {
         return new TkFork(
             new FkRegex("/robots.txt", ""),
             new FkRegex("/ticks", new TkTicks(pulse)),
-            new FkRegex("/status", new TkStatus(pulse)),
+            new FkRegex("/status", new TkStatus(pulse, metrics)),
+            new FkRegex("/metrics", new TkMetrics(metrics)),
+            new FkRegex("/hook", hook),
             new FkRegex("/s/.*", new TkRedirect()),
             new FkRegex("/sitemap", new TkSitemap(talks)),
             new FkRegex(
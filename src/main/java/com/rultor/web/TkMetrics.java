@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) 2009-2019, Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.web;
+
+import com.rultor.spi.Metrics;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.takes.Request;
+import org.takes.Response;
+import org.takes.Take;
+import org.takes.rs.RsText;
+import org.takes.rs.RsWithType;
+
+/**
+ * Metrics, in the text format of Prometheus.
+ *
+ * <p>Metrics of build hosts, named {@code hosts.<host>.<name>}, are
+ * printed as {@code rultor_hosts_<name>{host="<host>"}}, all others
+ * as {@code rultor_<name>}.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+final class TkMetrics implements Take {
+
+    /**
+     * Name of a metric of a build host.
+     */
+    private static final Pattern HOST = Pattern.compile(
+        "hosts\\.(.+)\\.([^.]+)"
+    );
+
+    /**
+     * Metrics.
+     */
+    private final transient Metrics metrics;
+
+    /**
+     * Ctor.
+     * @param mtx Metrics
+     */
+    TkMetrics(final Metrics mtx) {
+        this.metrics = mtx;
+    }
+
+    @Override
+    public Response act(final Request req) {
+        final Map<String, Number> values = new TreeMap<>();
+        for (final Map.Entry<String, Number> entry
+            : this.metrics.values().entrySet()) {
+            values.put(TkMetrics.name(entry.getKey()), entry.getValue());
+        }
+        final StringBuilder text = new StringBuilder(0);
+        for (final Map.Entry<String, Number> entry : values.entrySet()) {
+            text.append(entry.getKey())
+                .append(' ')
+                .append(entry.getValue())
+                .append('\n');
+        }
+        return new RsWithType(
+            new RsText(text.toString()), "text/plain; version=0.0.4"
+        );
+    }
+
+    /**
+     * Name of the metric, in Prometheus format.
+     * @param key Name of the metric
+     * @return Name, with labels, if any
+     */
+    private static String name(final String key) {
+        final Matcher matcher = TkMetrics.HOST.matcher(key);
+        final String name;
+        if (matcher.matches()) {
+            name = String.format(
+                "rultor_hosts_%s{host=\"%s\"}",
+                TkMetrics.clean(matcher.group(2)),
+                matcher.group(1).replaceAll("[\"\\\\\n]", "_")
+            );
+        } else {
+            name = String.format("rultor_%s", TkMetrics.clean(key));
+        }
+        return name;
+    }
+
+    /**
+     * Replace chars, which are not allowed in names.
+     * @param text Text
+     * @return Clean name
+     */
+    private static String clean(final String text) {
+        return text.replaceAll("[^a-zA-Z0-9_]", "_");
+    }
+
+}
@@ -153,13 +153,13 @@ final class TkSiblings implements TkRegex {
     }
 
     /**
-     * Convert talk to directives.
+     * Convert talk to directives, using its summary only.
      * @param talk The talk to convert
      * @return Directives
      * @throws IOException If fails
      */
     private Iterable<Directive> dirs(final Talk talk) throws IOException {
-        final XML xml = talk.read();
+        final XML xml = talk.summary();
         final Directives dirs = new Directives().add("talk").add("archive");
         for (final XML log : xml.nodes("/talk/archive/log")) {
             dirs.append(TkSiblings.log(xml, log));
@@ -31,9 +31,12 @@ package com.rultor.web;
 
 import com.jcabi.aspects.Tv;
 import com.jcabi.log.Logger;
+import com.rultor.spi.Metrics;
 import com.rultor.spi.Pulse;
 import com.rultor.spi.Tick;
 import java.net.HttpURLConnection;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.TimeUnit;
 import org.cactoos.list.SolidList;
 import org.takes.Request;
@@ -63,12 +66,28 @@ final class TkStatus implements Take {
      */
     private final transient Pulse pulse;
 
+    /**
+     * Metrics.
+     */
+    private final transient Metrics metrics;
+
     /**
      * Ctor.
      * @param pls Pulse
      */
     TkStatus(final Pulse pls) {
+        this(pls, Metrics.EMPTY);
+    }
+
+    /**
+     * Ctor.
+     * @param pls Pulse
+     * @param mtx Metrics
+     * @since 2.0
+     */
+    TkStatus(final Pulse pls, final Metrics mtx) {
         this.pulse = pls;
+        this.metrics = mtx;
         this.start = System.currentTimeMillis();
     }
 
@@ -112,6 +131,17 @@ final class TkStatus implements Take {
                 );
             }
         }
+        final Map<String, Number> values = new TreeMap<>(
+            this.metrics.values()
+        );
+        if (!values.isEmpty()) {
+            msg.append('\n');
+        }
+        for (final Map.Entry<String, Number> entry : values.entrySet()) {
+            msg.append(
+                String.format("\n%s: %s", entry.getKey(), entry.getValue())
+            );
+        }
         for (final Throwable error : this.pulse.error()) {
             msg.append(Logger.format("\n\n%[exception]s", error));
         }
@@ -74,7 +74,7 @@ final class TkTalkKill implements TkRegex {
             );
         }
         final Talk talk = this.talks.get(number);
-        new KillsDaemon().process(talk.read());
+        new KillsDaemon().kill(talk.read());
         return new RsForward(
             new RsFlash(
                 String.format(
@@ -0,0 +1,225 @@
+/**
+ * Copyright (c) 2009-2019, Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.web;
+
+import com.jcabi.github.Coordinates;
+import com.jcabi.log.Logger;
+import com.rultor.agents.github.Mention;
+import com.rultor.spi.Talks;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+import java.util.Queue;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.json.Json;
+import javax.json.JsonObject;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.takes.Request;
+import org.takes.Response;
+import org.takes.Take;
+import org.takes.rq.RqHeaders;
+import org.takes.rq.RqLengthAware;
+import org.takes.rs.RsText;
+import org.takes.rs.RsWithStatus;
+
+/**
+ * Receiver of Github webhooks, which activates the talk mentioned
+ * in {@code issue_comment}, {@code issues} or {@code pull_request}
+ * event and puts its name into the queue of urgent talks, to be
+ * processed by the routine without waiting for the next tick.
+ *
+ * <p>Deliveries must be signed with the secret of the webhook, in
+ * {@code X-Hub-Signature} header. The talk is activated only if
+ * rultor is mentioned, or if the talk already exists. Notifications,
+ * polled by {@link com.rultor.agents.github.StartsTalks}, remain
+ * the fallback.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+public final class TkWebhook implements Take {
+
+    /**
+     * HMAC algorithm.
+     */
+    private static final String HMAC = "HmacSHA1";
+
+    /**
+     * Talks.
+     */
+    private final transient Talks talks;
+
+    /**
+     * Secret of the webhook.
+     */
+    private final transient String secret;
+
+    /**
+     * Github login of rultor.
+     */
+    private final transient String login;
+
+    /**
+     * Names of urgent talks.
+     */
+    private final transient Queue<String> urgent;
+
+    /**
+     * Ctor.
+     * @param tks Talks
+     * @param scrt Secret of the webhook, empty if it is not configured
+     * @param self Github login of rultor
+     * @param queue Names of urgent talks
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    public TkWebhook(final Talks tks, final String scrt, final String self,
+        final Queue<String> queue) {
+        this.talks = tks;
+        this.secret = scrt;
+        this.login = self;
+        this.urgent = queue;
+    }
+
+    @Override
+    public Response act(final Request req) throws IOException {
+        final byte[] body = IOUtils.toByteArray(
+            new RqLengthAware(req).body()
+        );
+        final RqHeaders.Smart headers = new RqHeaders.Smart(
+            new RqHeaders.Base(req)
+        );
+        final Response response;
+        if (this.signed(headers.single("X-Hub-Signature", ""), body)) {
+            final String name = this.wake(
+                headers.single("X-GitHub-Event", ""),
+                Json.createReader(new ByteArrayInputStream(body)).readObject()
+            );
+            if (name.isEmpty()) {
+                response = new RsText("ignored");
+            } else {
+                response = new RsText(name);
+            }
+        } else {
+            response = new RsWithStatus(
+                new RsText("invalid signature"),
+                HttpURLConnection.HTTP_FORBIDDEN
+            );
+        }
+        return response;
+    }
+
+    /**
+     * Is it signed by the secret?
+     * @param signature Signature from the header
+     * @param body Body of the delivery
+     * @return TRUE if signed
+     * @throws IOException If fails
+     */
+    private boolean signed(final String signature, final byte[] body)
+        throws IOException {
+        boolean signed = false;
+        if (!this.secret.isEmpty() && signature.startsWith("sha1=")) {
+            try {
+                final Mac mac = Mac.getInstance(TkWebhook.HMAC);
+                mac.init(
+                    new SecretKeySpec(
+                        this.secret.getBytes("UTF-8"), TkWebhook.HMAC
+                    )
+                );
+                signed = MessageDigest.isEqual(
+                    Hex.encodeHexString(mac.doFinal(body)).getBytes("UTF-8"),
+                    signature.substring("sha1=".length())
+                        .toLowerCase(Locale.ENGLISH).getBytes("UTF-8")
+                );
+            } catch (final NoSuchAlgorithmException | InvalidKeyException ex) {
+                throw new IOException(ex);
+            }
+        }
+        return signed;
+    }
+
+    /**
+     * Activate the talk of the event, if necessary.
+     * @param event Type of the event
+     * @param json Payload
+     * @return Name of the talk woken up or empty string
+     * @throws IOException If fails
+     */
+    private String wake(final String event, final JsonObject json)
+        throws IOException {
+        final String action = json.getString("action", "");
+        JsonObject target = Json.createObjectBuilder().build();
+        String author = "";
+        String text = "";
+        if ("issue_comment".equals(event) && "created".equals(action)) {
+            final JsonObject comment = json.getJsonObject("comment");
+            target = json.getJsonObject("issue");
+            author = comment.getJsonObject("user").getString("login", "");
+            text = comment.getString("body", "");
+        } else if ("issues".equals(event) && "opened".equals(action)) {
+            target = json.getJsonObject("issue");
+            author = target.getJsonObject("user").getString("login", "");
+            text = target.getString("body", "");
+        } else if ("pull_request".equals(event)
+            && ("opened".equals(action) || "synchronize".equals(action))) {
+            target = json.getJsonObject("pull_request");
+            author = json.getJsonObject("sender").getString("login", "");
+            text = target.getString("body", "");
+        }
+        String name = "";
+        if (target.containsKey("number")
+            && !this.login.equalsIgnoreCase(author)) {
+            final Mention mention = new Mention(
+                new Coordinates.Simple(
+                    json.getJsonObject("repository").getString("full_name")
+                ),
+                target.getInt("number"),
+                target.getString("html_url")
+            );
+            if (StringUtils.containsIgnoreCase(text, "@" + this.login)
+                || this.talks.exists(mention.name())) {
+                name = mention.activate(this.talks);
+                this.urgent.add(name);
+                Logger.info(this, "%s woken up by %s", name, event);
+            }
+        }
+        return name;
+    }
+
+}
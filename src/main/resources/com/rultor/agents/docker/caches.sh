@@ -0,0 +1,57 @@
+#!/bin/bash
+set -e
+
+# Dependency caches of repositories are Docker volumes, mounted into
+# build containers by _head.sh, while ~/caches keeps a marker of each
+# repository and type of request, touched on every build. A cache
+# bigger than its cap is removed, then the caches used least recently
+# are removed until the total fits, while the ones not used for a month
+# go anyway. The script runs only when DockerHealthCheck decides so,
+# see HostStats.
+mkdir -p ~/caches
+
+kinds="m2 gem npm"
+cap=$((5 * 1024 * 1024))
+total_cap=$((50 * 1024 * 1024))
+
+function drop {
+  if docker volume inspect "$1" >/dev/null 2>&1; then
+    docker volume rm "$1" >/dev/null || { echo "Failed to remove cache $1, it must be in use"; return 1; }
+    echo "Cache $1 removed"
+  fi
+}
+
+total=0
+for repo in $(ls -t ~/caches); do
+  size=0
+  for kind in ${kinds}; do
+    volume="rultor-cache-${repo}-${kind}"
+    if docker volume inspect "${volume}" >/dev/null 2>&1; then
+      dir=$(docker volume inspect -f '{{.Mountpoint}}' "${volume}")
+      kb=$(sudo -n du -sk "${dir}" | cut -f1 || echo 0)
+      if [ "${kb}" -gt "${cap}" ]; then
+        drop "${volume}" || size=$((size + kb))
+      else
+        size=$((size + kb))
+      fi
+    fi
+  done
+  total=$((total + size))
+  if [ "${total}" -gt "${total_cap}" ] || [ -n "$(find ~/caches/"${repo}" -mtime +30)" ]; then
+    dropped=true
+    for kind in ${kinds}; do
+      drop "rultor-cache-${repo}-${kind}" || dropped=false
+    done
+    if [ "${dropped}" = "true" ]; then
+      rm -f ~/caches/"${repo}"
+      total=$((total - size))
+    fi
+  fi
+done
+
+for volume in $(docker volume ls -q --filter name=rultor-cache-); do
+  repo=$(echo "${volume}" | sed -E 's/^rultor-cache-(.*)-(m2|gem|npm)$/\1/')
+  if [ ! -e ~/caches/"${repo}" ]; then
+    drop "${volume}" || true
+  fi
+done
@@ -9,3 +9,13 @@ if ! sudo -n true 2>/dev/null
 fi
 
 docker info >/dev/null 2>&1 || sudo -n service docker restart >/dev/null 2>&1  || { echo >&2 "Rultor requires the Docker cli client to be connected to a working Docker daemon. The Docker cli client on this host appears to not be connected to a working daemon! Aborting ..."; exit 1; }
+
+# Statistics of the host, one "name value" per line, see HostStats
+root=$(docker info --format '{{.DockerRootDir}}' 2>/dev/null || echo /var/lib/docker)
+if [ ! -d "${root}" ]; then
+  root=/
+fi
+echo "disk $(df -P "${root}" | awk 'NR==2 {print $5}' | tr -d '%')"
+echo "inodes $(df -Pi "${root}" | awk 'NR==2 {print $5}' | tr -d '%')"
+echo "images $(docker images -q | wc -l)"
+echo "dirs $(find "${TMPDIR:-/tmp}" -maxdepth 1 -type d -name 'rultor-*' | wc -l)"
@@ -0,0 +1,15 @@
+#!/bin/bash
+set -e
+
+# Directories of daemons (see StartsDaemon) with nothing modified in
+# them for two days are left by talks, which are gone already
+for dir in $(find "${TMPDIR:-/tmp}" -maxdepth 1 -type d -name 'rultor-*' -mmin +2880); do
+  if [ -z "$(find "${dir}" -mmin -2880 -print -quit)" ]; then
+    sudo -n rm -rf "${dir}" || rm -rf "${dir}" || echo "Failed to remove ${dir}"
+  fi
+done
+
+# Dangling volumes, except dependency caches, see caches.sh
+for volume in $(docker volume ls -q --filter dangling=true | grep -v '^rultor-cache-'); do
+  docker volume rm "${volume}" || echo "Failed to remove volume ${volume}"
+done
@@ -0,0 +1,19 @@
+#!/bin/bash
+
+# Images in demand are given as arguments, see PullsImages. Each of them
+# gets a marker in ~/images, which keeps it away from rmi.sh for a week,
+# and is pulled in the background; the marker keeps the name of the image
+# and the digest it had after the last pull.
+mkdir -p ~/images
+for image in "$@"; do
+  marker=~/images/$(echo "${image}" | md5sum | cut -d' ' -f1)
+  if [ -e "${marker}" ]; then
+    touch "${marker}"
+  else
+    echo "${image}" > "${marker}"
+  fi
+  ( nohup sh -c 'docker pull "$1" >/dev/null 2>&1 \
+    && printf "%s\n%s\n" "$1" \
+      "$(docker inspect --format "{{index .RepoDigests 0}}" "$1")" > "$2"' \
+    _ "${image}" "${marker}" </dev/null >/dev/null 2>&1 & )
+done
@@ -1,10 +1,41 @@
 #!/bin/bash
 set -e
 
-images=$(docker images --no-trunc | grep -E '([0-9]{2,} weeks|[0-9]+ months) ago' | tr -s ' ' | cut -d ' ' -f 3 | uniq)
-for i in ${images}; do
-  containers=$(docker ps --filter="ancestor=${i}" | wc -l)
-  if [ "${containers}" -eq "1" ]; then
-    docker rmi -f "${i}" || echo "Failed to remove Docker image ${i}"
+# Images in demand (see pull.sh) are kept, no matter how old they are;
+# the rest are removed, unless containers use them; nothing is removed
+# until Rultor tells which images are in demand
+mkdir -p ~/images
+find ~/images -type f -mtime +7 -delete
+hot=$(find ~/images -type f -exec head -1 {} \;)
+if [ -n "${hot}" ]; then
+  for image in $(docker images --format '{{.Repository}}:{{.Tag}}' | grep -v -e '^rultor-install:' -e '<none>'); do
+    if ! echo "${hot}" | grep --quiet --line-regexp --fixed-strings "${image}" \
+      && [ -z "$(docker ps -aq --filter "ancestor=${image}")" ]; then
+      docker rmi "${image}" || echo "Failed to remove Docker image ${image}"
+    fi
+  done
+fi
+for i in $(docker images -q --filter dangling=true); do
+  docker rmi "${i}" || echo "Failed to remove dangling Docker image ${i}"
+done
+
+# Snapshots of install phases, see _head.sh; the ones used least recently
+# go first, and the ones not used for a week go anyway
+mkdir -p ~/snapshots
+snapshots=$(ls -t ~/snapshots)
+kept=0
+for s in ${snapshots}; do
+  if [ "${kept}" -lt 16 ] && [ -z "$(find ~/snapshots/"${s}" -mtime +7)" ]; then
+    kept=$((kept+1))
+  elif ! docker image inspect "rultor-install:${s}" >/dev/null 2>&1 \
+    || docker rmi "rultor-install:${s}"; then
+    rm -f ~/snapshots/"${s}"
+  else
+    echo "Failed to remove snapshot ${s}, it must be in use"
+  fi
+done
+for s in $(docker images rultor-install --format '{{.Tag}}'); do
+  if [ ! -e ~/snapshots/"${s}" ]; then
+    docker rmi "rultor-install:${s}" || echo "Failed to remove snapshot ${s}"
   fi
 done
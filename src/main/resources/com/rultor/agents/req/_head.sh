@@ -3,7 +3,44 @@
 mkdir -p ~/.ssh
 echo -e "Host github.com\n\tStrictHostKeyChecking no\n" > ~/.ssh/config
 chmod 600 ~/.ssh/config
-git clone "${head}" repo
+function mirror_update {
+  flock -w 600 9 || return 1
+  if [ -d "${mirror}" ]; then
+    git --git-dir="${mirror}" fetch --prune --quiet origin || return 1
+  else
+    rm -rf "${mirror}.tmp"
+    git clone --mirror --quiet "${head}" "${mirror}.tmp" || return 1
+    git --git-dir="${mirror}.tmp" config gc.auto 0
+    mv "${mirror}.tmp" "${mirror}"
+  fi
+  git --git-dir="${mirror}" -c gc.auto=6700 gc --auto --quiet
+}
+
+function mirror_clone {
+  flock -s -w 600 9 || return 1
+  git clone --reference "${mirror}" --dissociate "${head}" repo
+}
+
+if [ -n "${clone_depth}" ] || [ -n "${clone_filter}" ]; then
+  clone_args=()
+  if [ -n "${clone_depth}" ]; then
+    clone_args+=( "--depth=${clone_depth}" --no-single-branch )
+  fi
+  if [ -n "${clone_filter}" ]; then
+    clone_args+=( "--filter=${clone_filter}" )
+  fi
+  git clone "${clone_args[@]}" "${head}" repo
+else
+  mkdir -p "${HOME}/mirrors"
+  mirror="${HOME}/mirrors/$(echo "${head}" | md5sum | cut -d' ' -f1).git"
+  if mirror_update 9>"${mirror}.lock" && mirror_clone 9>"${mirror}.lock"; then
+    echo "Cloned ${head} with the help of its mirror at ${mirror}"
+  else
+    echo "The mirror of ${head} is not available, cloning without it"
+    rm -rf repo
+    git clone "${head}" repo
+  fi
+fi
 cd repo
 git config user.email "me@rultor.com"
 git config user.name "rultor"
@@ -36,7 +73,7 @@ set -o pipefail
 EOT
 if [ "${as_root}" = "true" ]; then
   cat <<EOT >> entry.sh
-  mkdir /home/r
+  mkdir -p /home/r
   cp -R ./* /home/r
   rm -rf repo
   chmod a+x /home/r/script.sh
@@ -46,9 +83,11 @@ EOT
 else
   cat <<EOT >> entry.sh
   shopt -s dotglob
-  useradd -m -G sudo r
-  usermod -s /bin/bash r
-  echo '%sudo ALL=(ALL) NOPASSWD:ALL' >> /etc/sudoers
+  if ! id r >/dev/null 2>&1; then
+    useradd -m -G sudo r
+    usermod -s /bin/bash r
+    echo '%sudo ALL=(ALL) NOPASSWD:ALL' >> /etc/sudoers
+  fi
   cp -R /root/* /home/r
   cp -R ./* /home/r
   rm -rf repo
@@ -60,7 +99,8 @@ else
 EOT
 fi
 chmod a+x entry.sh
-cat <<EOT > script.sh
+function script_sh {
+  cat <<EOT > script.sh
 #!/bin/bash
 set -x
 set -e
@@ -70,20 +110,58 @@ alias 'sudo=sudo -i'
 export HOME=/home/r
 cd \$HOME/repo
 EOT
-echo "${scripts[@]}" >> script.sh
+  echo "$@" >> script.sh
+}
+script_sh "${scripts[@]}"
 
-function docker_when_possible {
-  while true; do
-    load=$(uptime | sed 's/ /\n/g' | tail -n 1)
-    if [ `echo $load \> 30 | bc` -eq 1 ]; then
-      echo "load average is ${load}, too high to run a new Docker container"
-      echo "I will try again in 15 seconds"
-      sleep 15
-    else
-      echo "load average is ${load}, low enough to run a new Docker container"
-      break
+function cache_volumes {
+  cache_args=()
+  if [ "${caches}" != "false" ]; then
+    mkdir -p ~/caches
+    touch ~/caches/"${cache_key}"
+    for kind in m2 gem npm; do
+      cache_args+=( "--volume=rultor-cache-${cache_key}-${kind}:/home/r/.${kind}" )
+    done
+  fi
+}
+
+# The install phase runs without --env, since its script exports the
+# variables itself, and everything entry.sh copied from here into
+# /home/r, like decrypted files and script.sh, is removed before the
+# commit, in order to keep secrets out of the snapshot. Files the install
+# phase writes into the repository are moved back here by entry.sh, so
+# they are not in the snapshot, and the build script has to make them.
+function install_snapshot {
+  script_sh "${install_scripts[@]}"
+  cat <<EOT > install.sh
+#!/bin/bash
+set -e
+/main/entry.sh
+shopt -s dotglob
+for f in /main/*; do
+  rm -rf "/home/r/\$(basename "\${f}")"
+done
+EOT
+  chmod a+x install.sh
+  if docker run -t \
+    -v "$(pwd):/main" "${cache_args[@]}" \
+    --hostname=docker --privileged \
+    --memory=6g --memory-swap=16g --oom-kill-disable \
+    "--cidfile=$(pwd)/cid" -w=/main \
+    --name="${container}_install" "${image}" /main/install.sh; then
+    touch ~/snapshots/"${snapshot}"
+    docker commit "${container}_install" "rultor-install:${snapshot}"
+  else
+    echo "The install phase failed, no snapshot of it is made"
+    if [ ! -e repo ]; then
+      docker cp "${container}_install:/home/r/repo" repo || true
     fi
-  done
+  fi
+  docker rm -f "${container}_install" || true
+  rm -f cid install.sh
+}
+
+function docker_when_possible {
   cd ..
   if [ -n "${directory}" ]; then
     use_image="yegor256/rultor-$(dd if=/dev/urandom bs=10k count=1 2>/dev/null | tr -cd 'a-z0-9' | head -c 8)"
@@ -92,17 +170,33 @@ function docker_when_possible {
     use_image="${image}"
     docker pull "${use_image}"
   fi
+  cache_volumes
+  run_image="${image}"
+  if [ -n "${snapshot}" ] && [ -z "${directory}" ]; then
+    mkdir -p ~/snapshots
+    if ! docker image inspect "rultor-install:${snapshot}" >/dev/null 2>&1; then
+      install_snapshot
+    fi
+    if docker image inspect "rultor-install:${snapshot}" >/dev/null 2>&1; then
+      echo "The install phase is cached in rultor-install:${snapshot}, files it wrote into the repository are not there"
+      touch ~/snapshots/"${snapshot}"
+      run_image="rultor-install:${snapshot}"
+      script_sh "${build_scripts[@]}"
+    else
+      script_sh "${scripts[@]}"
+    fi
+  fi
   if docker ps --filter=status=exited | grep --quiet "\s${container}\s*\$"; then
     docker rm -f "${container}"
   fi
   ls -al .
   docker run -t --rm \
-    -v "$(pwd):/main" "${vars[@]}" \
+    -v "$(pwd):/main" "${vars[@]}" "${cache_args[@]}" \
     --hostname=docker --privileged \
     --memory=6g --memory-swap=16g --oom-kill-disable \
     "--cidfile=$(pwd)/cid" -w=/main \
     -v /var/run/docker.sock:/var/run/docker.sock \
-    --name="${container}" "${image}" /main/entry.sh
+    --name="${container}" "${run_image}" /main/entry.sh
   if [ -n "${directory}" ]; then
     docker rmi "${use_image}"
   fi
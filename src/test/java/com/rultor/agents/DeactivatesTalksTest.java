@@ -59,7 +59,7 @@ public final class DeactivatesTalksTest {
             )
         );
         final Talks talks = Mockito.mock(Talks.class);
-        Mockito.doReturn(Collections.singleton(talk)).when(talks).active();
+        Mockito.doReturn(Collections.singleton(talk)).when(talks).idle();
         agent.execute(talks);
     }
 
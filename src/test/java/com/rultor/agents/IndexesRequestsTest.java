@@ -30,10 +30,13 @@
 package com.rultor.agents;
 
 import com.jcabi.matchers.XhtmlMatchers;
+import com.rultor.spi.Talk;
 import com.rultor.spi.Talks;
+import java.util.Collections;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.junit.Test;
+import org.mockito.Mockito;
 import org.xembly.Directives;
 
 /**
@@ -63,7 +66,7 @@ public final class IndexesRequestsTest {
                 .add("args").up()
                 .add("type").set("deploy").up()
         );
-        new IndexesRequests().execute(talks);
+        new IndexesRequests(new FakeCounter()).execute(talks);
         MatcherAssert.assertThat(
             talks.get(name).read(),
             XhtmlMatchers.hasXPaths("/talk/request[@index='1']")
@@ -93,7 +96,7 @@ public final class IndexesRequestsTest {
                 .add("args").up()
                 .add("type").set("deploy").up()
         );
-        new IndexesRequests().execute(talks);
+        new IndexesRequests(new FakeCounter()).execute(talks);
         MatcherAssert.assertThat(
             talks.get(name).read(),
             XhtmlMatchers.hasXPaths("/talk/request[@index='3']")
@@ -101,8 +104,7 @@ public final class IndexesRequestsTest {
     }
 
     /**
-     * IndexesRequests should retrieve index from sibling
-     * (the test is skipped, more information in #733).
+     * IndexesRequests should retrieve index from sibling.
      * @throws Exception In case of error.
      */
     @Test
@@ -140,11 +142,81 @@ public final class IndexesRequestsTest {
                 .add("args").up()
                 .add("type").set("merge").up()
         );
-        new IndexesRequests().execute(talks);
+        new IndexesRequests(new FakeCounter()).execute(talks);
         MatcherAssert.assertThat(
             talks.get(third).read(),
-            XhtmlMatchers.hasXPaths("/talk/request[@index='5']")
+            XhtmlMatchers.hasXPaths("/talk/request[@index='3']")
+        );
+    }
+
+    /**
+     * IndexesRequests should take indexes from the counter, once it is
+     * seeded, and keep existing indexes.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void takesIndexFromCounter() throws Exception {
+        final Talks talks = new Talks.InDir();
+        final String first = "first";
+        talks.create("", first);
+        talks.get(first).modify(
+            new Directives().xpath("/talk")
+                .push().xpath("wire").remove().pop()
+                .add("wire").add("href").set("#6").up().up()
+                .add("request").attr("id", "a1").attr("index", "7")
+                .add("author").set("yegor256").up()
+                .add("args").up()
+                .add("type").set("merge").up()
+        );
+        final String second = "second";
+        talks.create("", second);
+        talks.get(second).modify(
+            new Directives().xpath("/talk")
+                .push().xpath("wire").remove().pop()
+                .add("wire").add("href").set("#7").up().up()
+                .add("request").attr("id", "a2")
+                .add("author").set("yegor256").up()
+                .add("args").up()
+                .add("type").set("merge").up()
+        );
+        final FakeCounter counter = new FakeCounter();
+        counter.set(41L);
+        new IndexesRequests(counter).execute(talks);
+        MatcherAssert.assertThat(
+            talks.get(first).read(),
+            XhtmlMatchers.hasXPaths("/talk/request[@index='7']")
+        );
+        MatcherAssert.assertThat(
+            talks.get(second).read(),
+            XhtmlMatchers.hasXPaths("/talk/request[@index='42']")
+        );
+    }
+
+    /**
+     * IndexesRequests should read only talks which may have a request.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void readsOnlyRequestedTalks() throws Exception {
+        final Talk talk = new Talk.InFile();
+        talk.modify(
+            new Directives().xpath("/talk")
+                .add("request").attr("id", "a3")
+                .add("author").set("yegor256").up()
+                .add("args").up()
+                .add("type").set("merge").up()
+        );
+        final Talks talks = Mockito.mock(Talks.class);
+        Mockito.doReturn(Collections.singleton(talk))
+            .when(talks).requested();
+        final FakeCounter counter = new FakeCounter();
+        counter.set(1L);
+        new IndexesRequests(counter).execute(talks);
+        MatcherAssert.assertThat(
+            talk.read(),
+            XhtmlMatchers.hasXPaths("/talk/request[@index='2']")
         );
+        Mockito.verify(talks, Mockito.never()).active();
     }
 
     /**
@@ -162,7 +234,7 @@ public final class IndexesRequestsTest {
                 .push().xpath("wire").remove().pop()
                 .add("wire").add("href").set("#1").up()
         );
-        new IndexesRequests().execute(talks);
+        new IndexesRequests(new FakeCounter()).execute(talks);
         MatcherAssert.assertThat(
             talks.get(name).read(),
             Matchers.not(
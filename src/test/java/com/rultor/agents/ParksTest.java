@@ -0,0 +1,147 @@
+/**
+ * Copyright (c) 2009-2019, Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.agents;
+
+import com.rultor.Time;
+import com.rultor.spi.Agent;
+import com.rultor.spi.Talk;
+import java.util.concurrent.TimeUnit;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.xembly.Directives;
+
+/**
+ * Tests for {@link Parks}.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class ParksTest {
+
+    /**
+     * Parks can park an idle talk for an hour.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void parksIdleTalk() throws Exception {
+        final Talk talk = new Talk.InFile();
+        final long now = System.currentTimeMillis();
+        final Agent agent = new Parks();
+        agent.execute(talk);
+        MatcherAssert.assertThat(
+            ParksTest.wake(talk),
+            Matchers.greaterThanOrEqualTo(now + TimeUnit.HOURS.toMillis(1L))
+        );
+    }
+
+    /**
+     * Parks can keep a talk with unread comments awake.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void keepsTalkWithCommentsAwake() throws Exception {
+        final Talk talk = new Talk.InFile();
+        talk.modify(new Directives().xpath("/talk").attr("later", "true"));
+        new Parks().execute(talk);
+        MatcherAssert.assertThat(
+            ParksTest.wake(talk),
+            Matchers.lessThanOrEqualTo(System.currentTimeMillis())
+        );
+    }
+
+    /**
+     * Parks can check a long running daemon less often.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void parksRunningDaemon() throws Exception {
+        final Talk talk = new Talk.InFile();
+        final long now = System.currentTimeMillis();
+        talk.modify(
+            new Directives().xpath("/talk").add("daemon")
+                .attr("id", "abcd")
+                .add("title").set("merge").up()
+                .add("script").set("empty").up()
+                .add("started")
+                .set(new Time(now - TimeUnit.MINUTES.toMillis(8L)).iso())
+        );
+        new Parks().execute(talk);
+        MatcherAssert.assertThat(
+            ParksTest.wake(talk) - now,
+            Matchers.allOf(
+                Matchers.greaterThan(TimeUnit.MINUTES.toMillis(1L)),
+                Matchers.lessThanOrEqualTo(TimeUnit.MINUTES.toMillis(3L))
+            )
+        );
+    }
+
+    /**
+     * Parks can leave the talk alone if it already wakes up in time.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void skipsTalkWakingUpInTime() throws Exception {
+        final Talk talk = new Talk.InFile();
+        talk.modify(
+            new Directives().xpath("/talk")
+                .attr("later", "true")
+                .attr("wake", "1")
+        );
+        MatcherAssert.assertThat(
+            new Parks().process(talk.read()),
+            Matchers.emptyIterable()
+        );
+        talk.modify(
+            new Directives().xpath("/talk")
+                .attr("later", "false")
+                .attr(
+                    "wake",
+                    System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1L)
+                )
+        );
+        MatcherAssert.assertThat(
+            new Parks().process(talk.read()),
+            Matchers.emptyIterable()
+        );
+    }
+
+    /**
+     * Wake-up time of the talk.
+     * @param talk The talk
+     * @return Msec
+     * @throws Exception If fails
+     */
+    private static long wake(final Talk talk) throws Exception {
+        return Long.parseLong(talk.read().xpath("/talk/@wake").get(0));
+    }
+
+}
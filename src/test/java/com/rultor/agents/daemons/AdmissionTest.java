@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2009-2019, Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.agents.daemons;
+
+import com.jcabi.aspects.Tv;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Tests for {@link Admission}.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class AdmissionTest {
+
+    /**
+     * Admission can admit daemons in order, when slots are free.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void admitsInOrder() throws Exception {
+        final Admission admission = new Admission(1);
+        final String host = "b1.rultor.com";
+        MatcherAssert.assertThat(
+            admission.admit(host, "a", 0, 1L), Matchers.is(true)
+        );
+        MatcherAssert.assertThat(
+            admission.admit(host, "c", 0, 3L), Matchers.is(false)
+        );
+        MatcherAssert.assertThat(
+            admission.admit(host, "b", 0, 2L), Matchers.is(false)
+        );
+        MatcherAssert.assertThat(admission.ahead(0), Matchers.is(2));
+        admission.release("a");
+        MatcherAssert.assertThat(
+            admission.admit(host, "c", 0, 3L), Matchers.is(false)
+        );
+        MatcherAssert.assertThat(
+            admission.admit(host, "b", 0, 2L), Matchers.is(true)
+        );
+        MatcherAssert.assertThat(
+            admission.admit("b2.rultor.com", "d", 0, 4L), Matchers.is(true)
+        );
+    }
+
+    /**
+     * Admission can let higher priorities go first.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void respectsPriorities() throws Exception {
+        final Admission admission = new Admission(1);
+        final String host = "b3.rultor.com";
+        admission.hold(host, "running");
+        admission.admit(host, "low", 0, 1L);
+        admission.admit(host, "high", 1, 2L);
+        admission.release("running");
+        MatcherAssert.assertThat(
+            admission.admit(host, "low", 0, 1L), Matchers.is(false)
+        );
+        MatcherAssert.assertThat(
+            admission.admit(host, "high", 1, 2L), Matchers.is(true)
+        );
+    }
+
+    /**
+     * Admission can let long waiting daemons go before the ones with
+     * higher priorities.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void agesWaitingDaemons() throws Exception {
+        final Admission admission = new Admission(1, 1L);
+        final String host = "b4.rultor.com";
+        admission.hold(host, "busy");
+        admission.admit(host, "old", 0, 1L);
+        TimeUnit.MILLISECONDS.sleep((long) Tv.TEN);
+        admission.admit(host, "new", 2, 2L);
+        admission.release("busy");
+        MatcherAssert.assertThat(
+            admission.admit(host, "new", 2, 2L), Matchers.is(false)
+        );
+        MatcherAssert.assertThat(
+            admission.admit(host, "old", 0, 1L), Matchers.is(true)
+        );
+    }
+
+    /**
+     * Admission can admit a daemon to any host with a free slot.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void admitsToAnyFreeHost() throws Exception {
+        final Admission admission = new Admission(1);
+        final Collection<String> hosts = Arrays.asList("b5", "b6");
+        admission.hold("b5", "running");
+        MatcherAssert.assertThat(
+            admission.free(hosts, "first", 0, 1L),
+            Matchers.contains("b6")
+        );
+        admission.hold("b6", "first");
+        MatcherAssert.assertThat(
+            admission.free(hosts, "second", 0, 2L),
+            Matchers.empty()
+        );
+        admission.release("running");
+        MatcherAssert.assertThat(
+            admission.free(hosts, "second", 0, 2L),
+            Matchers.contains("b5")
+        );
+    }
+
+}
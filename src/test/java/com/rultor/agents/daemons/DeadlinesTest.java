@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) 2009-2019, Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.agents.daemons;
+
+import com.jcabi.aspects.Tv;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Tests for {@link Deadlines}.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class DeadlinesTest {
+
+    /**
+     * Deadlines can expire names in time, only once.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void expiresInTime() throws Exception {
+        final Deadlines wheel = new Deadlines(Tv.TEN, Tv.FIVE);
+        wheel.schedule("a", (long) Tv.FIFTEEN);
+        wheel.schedule("b", (long) Tv.HUNDRED);
+        wheel.schedule("c", (long) Tv.THIRTY);
+        wheel.cancel("c");
+        MatcherAssert.assertThat(
+            wheel.expired((long) Tv.TEN), Matchers.emptyIterable()
+        );
+        MatcherAssert.assertThat(
+            wheel.expired((long) Tv.TWENTY), Matchers.contains("a")
+        );
+        MatcherAssert.assertThat(
+            wheel.expired((long) Tv.FIFTY), Matchers.emptyIterable()
+        );
+        MatcherAssert.assertThat(
+            wheel.expired((long) Tv.MILLION), Matchers.contains("b")
+        );
+    }
+
+    /**
+     * Deadlines can move a deadline and expire the ones in the past.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void reschedules() throws Exception {
+        final Deadlines wheel = new Deadlines(Tv.TEN, Tv.FIVE);
+        wheel.expired((long) Tv.HUNDRED);
+        wheel.schedule("x", (long) Tv.THOUSAND);
+        wheel.schedule("x", (long) Tv.FIVE);
+        MatcherAssert.assertThat(
+            wheel.expired((long) Tv.HUNDRED + 1L), Matchers.contains("x")
+        );
+        MatcherAssert.assertThat(
+            wheel.expired((long) Tv.THOUSAND), Matchers.emptyIterable()
+        );
+    }
+
+}
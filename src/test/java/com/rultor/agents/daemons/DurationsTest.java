@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2009-2019, Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.agents.daemons;
+
+import com.jcabi.aspects.Tv;
+import com.jcabi.xml.XML;
+import com.jcabi.xml.XMLDocument;
+import java.util.concurrent.TimeUnit;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.xembly.Directives;
+import org.xembly.Xembler;
+
+/**
+ * Tests for {@link Durations}.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class DurationsTest {
+
+    /**
+     * Durations can find the percentile of builds in a repository.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void findsPercentile() throws Exception {
+        final Directives dirs = DurationsTest.talk();
+        for (int idx = 1; idx <= Tv.TEN; ++idx) {
+            DurationsTest.log(dirs, idx, "merge", 0);
+        }
+        final Durations durations = new Durations();
+        durations.learn(new XMLDocument(new Xembler(dirs).xml()));
+        MatcherAssert.assertThat(
+            durations.percentile(DurationsTest.running("merge")),
+            Matchers.is(TimeUnit.MINUTES.toMillis((long) Tv.TEN))
+        );
+    }
+
+    /**
+     * Durations can keep builds of each type apart and ignore
+     * builds, which failed.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void keepsTypesApart() throws Exception {
+        final Directives dirs = DurationsTest.talk();
+        for (int idx = 1; idx <= Tv.FIVE; ++idx) {
+            DurationsTest.log(dirs, idx, "merge", 0);
+            DurationsTest.log(dirs, idx + Tv.FORTY, "release", 0);
+            DurationsTest.log(dirs, idx + Tv.HUNDRED, "merge", 1);
+        }
+        final Durations durations = new Durations();
+        durations.learn(new XMLDocument(new Xembler(dirs).xml()));
+        MatcherAssert.assertThat(
+            durations.percentile(DurationsTest.running("merge")),
+            Matchers.is(TimeUnit.MINUTES.toMillis((long) Tv.FIVE))
+        );
+        MatcherAssert.assertThat(
+            durations.percentile(DurationsTest.running("release")),
+            Matchers.is(TimeUnit.MINUTES.toMillis((long) Tv.FORTY + Tv.FIVE))
+        );
+        MatcherAssert.assertThat(
+            durations.percentile(DurationsTest.running("deploy")),
+            Matchers.is(0L)
+        );
+    }
+
+    /**
+     * Durations can ignore repositories with too few builds.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void ignoresShortHistory() throws Exception {
+        MatcherAssert.assertThat(
+            new Durations().percentile(
+                new XMLDocument("<talk name='test#3'/>")
+            ),
+            Matchers.is(0L)
+        );
+    }
+
+    /**
+     * Talk with an archive.
+     * @return Directives
+     */
+    private static Directives talk() {
+        return new Directives().add("talk")
+            .attr("name", "test#1")
+            .add("wire").add("github-repo").set("test/test").up().up()
+            .add("archive");
+    }
+
+    /**
+     * Add a log to the archive.
+     * @param dirs Directives of the archive
+     * @param mins Duration of the build, in minutes
+     * @param type Type of the request
+     * @param code Exit code
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    private static void log(final Directives dirs, final int mins,
+        final String type, final int code) {
+        dirs.add("log").attr("id", String.format("l%d", mins))
+            .attr("title", String.format("%s: %d in %dmin", type, code, mins))
+            .attr("type", type)
+            .attr("code", Integer.toString(code))
+            .attr("msec", Long.toString(TimeUnit.MINUTES.toMillis(mins)))
+            .set("s3://test").up();
+    }
+
+    /**
+     * Talk with a running daemon.
+     * @param type Type of the request
+     * @return XML
+     */
+    private static XML running(final String type) {
+        return new XMLDocument(
+            new Xembler(
+                new Directives().add("talk").attr("name", "test#2")
+                    .add("wire").add("github-repo").set("test/test").up().up()
+                    .add("daemon").attr("id", "abc")
+                    .add("title").set(type)
+            ).xmlQuietly()
+        );
+    }
+
+}
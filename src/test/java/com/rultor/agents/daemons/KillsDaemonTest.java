@@ -31,9 +31,13 @@ package com.rultor.agents.daemons;
 
 import com.jcabi.matchers.XhtmlMatchers;
 import com.rultor.Time;
+import com.jcabi.xml.XMLDocument;
 import com.rultor.spi.Agent;
+import com.rultor.spi.Profile;
 import com.rultor.spi.Talk;
+import java.util.concurrent.TimeUnit;
 import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
 import org.junit.Test;
 import org.xembly.Directives;
 
@@ -69,4 +73,39 @@ public final class KillsDaemonTest {
         );
     }
 
+    /**
+     * KillsDaemon can schedule a deadline of a running daemon.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void schedulesDeadline() throws Exception {
+        final Talk talk = new Talk.InFile();
+        final long now = System.currentTimeMillis();
+        talk.modify(
+            new Directives().xpath("/talk").add("daemon")
+                .attr("id", "abcd")
+                .add("title").set("merge").up()
+                .add("script").set("empty").up()
+                .add("started").set(new Time(now).iso()).up()
+                .add("dir").set("/tmp/test")
+        );
+        final Deadlines deadlines = new Deadlines();
+        new KillsDaemon(
+            new Profile.Fixed(
+                new XMLDocument(
+                    "<p><entry key='timeout'>30</entry></p>"
+                )
+            ),
+            deadlines, new Durations(), TimeUnit.HOURS.toMinutes(2L)
+        ).execute(talk);
+        MatcherAssert.assertThat(
+            deadlines.expired(now + TimeUnit.MINUTES.toMillis(2L)),
+            Matchers.emptyIterable()
+        );
+        MatcherAssert.assertThat(
+            deadlines.expired(now + TimeUnit.MINUTES.toMillis(31L)),
+            Matchers.contains(talk.read().xpath("/talk/@name").get(0))
+        );
+    }
+
 }
@@ -30,7 +30,9 @@
 package com.rultor.agents.docker;
 
 import com.jcabi.ssh.Shell;
+import com.rultor.spi.SuperAgent;
 import com.rultor.spi.Talks;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import org.apache.commons.io.IOUtils;
@@ -66,4 +68,52 @@ public final class DockerHealthCheckTest {
         );
     }
 
+    /**
+     * DockerHealthCheck can collect garbage, only when it's time.
+     * @throws Exception In case of error
+     */
+    @Test
+    public void collectsGarbageWhenDue() throws Exception {
+        final Shell shell = Mockito.mock(Shell.class);
+        final SuperAgent agent = new DockerHealthCheck(
+            shell, "b5.rultor.com", new HostStats()
+        );
+        agent.execute(Mockito.mock(Talks.class));
+        agent.execute(Mockito.mock(Talks.class));
+        for (final String script : new String[] {"caches.sh", "gc.sh"}) {
+            Mockito.verify(shell, Mockito.times(1)).exec(
+                Mockito.eq(
+                    IOUtils.toString(
+                        DockerHealthCheck.class.getResourceAsStream(script)
+                    )
+                ),
+                Mockito.any(InputStream.class),
+                Mockito.any(OutputStream.class),
+                Mockito.any(OutputStream.class)
+            );
+        }
+    }
+
+    /**
+     * DockerHealthCheck can skip a host, which doesn't respond.
+     * @throws Exception In case of error
+     */
+    @Test
+    public void skipsHostWhichIsDown() throws Exception {
+        final Shell shell = Mockito.mock(Shell.class);
+        Mockito.doThrow(new IOException("host is down")).when(shell).exec(
+            Mockito.anyString(),
+            Mockito.any(InputStream.class),
+            Mockito.any(OutputStream.class),
+            Mockito.any(OutputStream.class)
+        );
+        new DockerHealthCheck(shell).execute(Mockito.mock(Talks.class));
+        Mockito.verify(shell, Mockito.times(1)).exec(
+            Mockito.anyString(),
+            Mockito.any(InputStream.class),
+            Mockito.any(OutputStream.class),
+            Mockito.any(OutputStream.class)
+        );
+    }
+
 }
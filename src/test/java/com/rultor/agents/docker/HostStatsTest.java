@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) 2009-2019, Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.agents.docker;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Tests for {@link HostStats}.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class HostStatsTest {
+
+    /**
+     * HostStats can collect garbage on a host under pressure only.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void collectsUnderPressure() throws Exception {
+        final HostStats stats = new HostStats();
+        final String host = "b6.rultor.com";
+        MatcherAssert.assertThat(stats.due(host), Matchers.is(true));
+        MatcherAssert.assertThat(stats.due(host), Matchers.is(false));
+        stats.update(host, "disk 42\ninodes 7\nsome noise\nimages 12\n");
+        MatcherAssert.assertThat(stats.collect(host), Matchers.is(true));
+        MatcherAssert.assertThat(stats.collect(host), Matchers.is(false));
+        stats.update(host, "disk 91\ninodes 7\n");
+        MatcherAssert.assertThat(stats.collect(host), Matchers.is(true));
+    }
+
+    /**
+     * HostStats can show statistics of hosts as metrics.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void showsMetrics() throws Exception {
+        final HostStats stats = new HostStats();
+        stats.update("b7", "disk 55\ndirs 3\n");
+        stats.collect("b7");
+        MatcherAssert.assertThat(
+            stats.values(),
+            Matchers.allOf(
+                Matchers.<String, Number>hasEntry("hosts.b7.disk", 55L),
+                Matchers.<String, Number>hasEntry("hosts.b7.dirs", 3L),
+                Matchers.hasKey("hosts.b7.collected-min-ago")
+            )
+        );
+    }
+
+}
@@ -0,0 +1,73 @@
+/**
+ * Copyright (c) 2009-2019, Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.agents.docker;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Tests for {@link Images}.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class ImagesTest {
+
+    /**
+     * Images can tell which images are due on each host, until pulled.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void tellsDueImagesUntilPulled() throws Exception {
+        final Images images = new Images();
+        images.see("yegor256/rultor-image");
+        images.see("maven:3-jdk-8");
+        images.see("bad; rm -rf ~");
+        MatcherAssert.assertThat(
+            images.due("b1.rultor.com"),
+            Matchers.containsInAnyOrder(
+                "yegor256/rultor-image:latest", "maven:3-jdk-8"
+            )
+        );
+        MatcherAssert.assertThat(
+            images.due("b1.rultor.com"), Matchers.hasSize(2)
+        );
+        images.pulled("b1.rultor.com", images.due("b1.rultor.com"));
+        MatcherAssert.assertThat(
+            images.due("b1.rultor.com"), Matchers.empty()
+        );
+        MatcherAssert.assertThat(
+            images.due("b2.rultor.com"), Matchers.hasSize(2)
+        );
+    }
+
+}
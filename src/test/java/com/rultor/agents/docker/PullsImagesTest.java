@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) 2009-2019, Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.agents.docker;
+
+import com.jcabi.ssh.Shell;
+import com.rultor.spi.Talks;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+/**
+ * Tests for {@link PullsImages}.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class PullsImagesTest {
+
+    /**
+     * PullsImages can pull images in demand, only when they are due.
+     * @throws Exception In case of error
+     */
+    @Test
+    public void pullsDueImages() throws Exception {
+        final Shell shell = Mockito.mock(Shell.class);
+        final Images images = new Images();
+        images.see("ubuntu:16.04");
+        final PullsImages agent = new PullsImages(shell, "b9", images);
+        agent.execute(Mockito.mock(Talks.class));
+        agent.execute(Mockito.mock(Talks.class));
+        Mockito.verify(shell, Mockito.times(1)).exec(
+            Mockito.startsWith("set -- 'ubuntu:16.04'\n"),
+            Mockito.any(InputStream.class),
+            Mockito.any(OutputStream.class),
+            Mockito.any(OutputStream.class)
+        );
+    }
+
+    /**
+     * PullsImages can skip a host, which doesn't respond, and pull
+     * there later.
+     * @throws Exception In case of error
+     */
+    @Test
+    public void retriesHostWhichFailed() throws Exception {
+        final Shell shell = Mockito.mock(Shell.class);
+        Mockito.doThrow(new IOException("host is down"))
+            .doReturn(0)
+            .when(shell).exec(
+                Mockito.anyString(),
+                Mockito.any(InputStream.class),
+                Mockito.any(OutputStream.class),
+                Mockito.any(OutputStream.class)
+            );
+        final Images images = new Images();
+        images.see("ubuntu:16.04");
+        final PullsImages agent = new PullsImages(shell, "b8", images);
+        agent.execute(Mockito.mock(Talks.class));
+        agent.execute(Mockito.mock(Talks.class));
+        agent.execute(Mockito.mock(Talks.class));
+        Mockito.verify(shell, Mockito.times(2)).exec(
+            Mockito.startsWith("set -- 'ubuntu:16.04'\n"),
+            Mockito.any(InputStream.class),
+            Mockito.any(OutputStream.class),
+            Mockito.any(OutputStream.class)
+        );
+    }
+
+}
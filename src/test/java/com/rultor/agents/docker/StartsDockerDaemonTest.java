@@ -83,4 +83,34 @@ public final class StartsDockerDaemonTest {
         }
     }
 
+    /**
+     * StartsDockerDaemon can hand out containers started in advance.
+     * @throws Exception In case of failure
+     */
+    @Test
+    public void providesShellsFromPool() throws Exception {
+        Assume.assumeTrue(
+            "true".equalsIgnoreCase(System.getProperty("run-docker-tests"))
+        );
+        try (
+            final StartsDockerDaemon start =
+                new StartsDockerDaemon(Profile.EMPTY, 1)
+        ) {
+            final PfShell first = start.shell();
+            final PfShell second = start.shell();
+            MatcherAssert.assertThat(
+                first.port(), Matchers.not(Matchers.equalTo(second.port()))
+            );
+            MatcherAssert.assertThat(
+                new Shell.Plain(
+                    new SSH(
+                        second.host(), second.port(),
+                        second.login(), second.key()
+                    )
+                ).exec("echo hello"),
+                Matchers.startsWith("hello")
+            );
+        }
+    }
+
 }
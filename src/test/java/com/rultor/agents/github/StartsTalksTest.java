@@ -29,15 +29,34 @@
  */
 package com.rultor.agents.github;
 
+import co.stateful.Counter;
+import co.stateful.Counters;
+import co.stateful.mock.MkSttc;
 import com.jcabi.github.Issue;
 import com.jcabi.github.Repo;
+import com.jcabi.github.RtGithub;
 import com.jcabi.github.mock.MkGithub;
+import com.jcabi.http.Request;
+import com.jcabi.http.Response;
+import com.jcabi.http.Wire;
+import com.jcabi.http.request.FakeRequest;
+import com.rultor.agents.FakeCounter;
 import com.rultor.spi.SuperAgent;
 import com.rultor.spi.Talks;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.junit.Ignore;
 import org.junit.Test;
+import org.mockito.Mockito;
 
 /**
  * Tests for ${@link StartsTalks}.
@@ -58,7 +77,9 @@ public final class StartsTalksTest {
         final Repo repo = new MkGithub().randomRepo();
         final Issue issue = repo.issues().create("", "");
         issue.comments().post("hey, do it");
-        final SuperAgent agent = new StartsTalks(repo.github());
+        final SuperAgent agent = new StartsTalks(
+            repo.github(), new MkSttc().counters()
+        );
         final Talks talks = new Talks.InDir();
         agent.execute(talks);
         MatcherAssert.assertThat(
@@ -67,4 +88,110 @@ public final class StartsTalksTest {
         );
     }
 
+    /**
+     * StartsTalks can wait for the poll interval, when nothing changed.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void waitsWhenNotModified() throws Exception {
+        final Map<String, Counter> map = new ConcurrentHashMap<>(0);
+        final Counters counters = Mockito.mock(Counters.class);
+        Mockito.doAnswer(
+            inv -> map.computeIfAbsent(
+                (String) inv.getArguments()[0], name -> new FakeCounter()
+            )
+        ).when(counters).get(Mockito.anyString());
+        final long start = System.currentTimeMillis();
+        final Talks talks = new Talks.InDir();
+        new StartsTalks(
+            new RtGithub(
+                new FakeRequest()
+                    .withStatus(HttpURLConnection.HTTP_NOT_MODIFIED)
+                    .withHeader("X-Poll-Interval", "120")
+            ),
+            counters
+        ).execute(talks);
+        MatcherAssert.assertThat(
+            counters.get("rt-notifications-poll").incrementAndGet(0L),
+            Matchers.greaterThanOrEqualTo(
+                start + TimeUnit.MINUTES.toMillis(2L)
+            )
+        );
+        MatcherAssert.assertThat(
+            counters.get("rt-notifications-since").incrementAndGet(0L),
+            Matchers.is(0L)
+        );
+        MatcherAssert.assertThat(talks.active(), Matchers.emptyIterable());
+    }
+
+    /**
+     * StartsTalks can take the first page of notifications from the probe.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void readsFirstPageOnce() throws Exception {
+        final Map<String, Counter> map = new ConcurrentHashMap<>(0);
+        final Counters counters = Mockito.mock(Counters.class);
+        Mockito.doAnswer(
+            inv -> map.computeIfAbsent(
+                (String) inv.getArguments()[0], name -> new FakeCounter()
+            )
+        ).when(counters).get(Mockito.anyString());
+        final String time = "2017-05-01T10:00:00Z";
+        counters.get("rt-notifications-since").set(
+            Instant.parse(time).toEpochMilli() + TimeUnit.SECONDS.toMillis(1L)
+        );
+        StartsTalksTest.CountingWire.FETCHES.set(0);
+        new StartsTalks(
+            new RtGithub(
+                new FakeRequest()
+                    .withBody(
+                        String.format(
+                            "[{\"reason\":\"author\",\"updated_at\":\"%s\"}]",
+                            time
+                        )
+                    )
+                    .through(StartsTalksTest.CountingWire.class)
+            ),
+            counters
+        ).execute(new Talks.InDir());
+        MatcherAssert.assertThat(
+            StartsTalksTest.CountingWire.FETCHES.get(),
+            Matchers.is(1)
+        );
+    }
+
+    /**
+     * Wire counting requests sent.
+     */
+    public static final class CountingWire implements Wire {
+        /**
+         * Requests sent.
+         */
+        private static final AtomicInteger FETCHES = new AtomicInteger();
+        /**
+         * Original wire.
+         */
+        private final transient Wire origin;
+        /**
+         * Ctor.
+         * @param wire Original wire
+         */
+        public CountingWire(final Wire wire) {
+            this.origin = wire;
+        }
+        // @checkstyle ParameterNumberCheck (4 lines)
+        @Override
+        public Response send(final Request req, final String home,
+            final String method,
+            final Collection<Map.Entry<String, String>> headers,
+            final InputStream content, final int connect, final int read)
+            throws IOException {
+            StartsTalksTest.CountingWire.FETCHES.incrementAndGet();
+            return this.origin.send(
+                req, home, method, headers, content, connect, read
+            );
+        }
+    }
+
 }
@@ -34,8 +34,12 @@ import com.jcabi.github.Issue;
 import com.jcabi.github.Repo;
 import com.jcabi.github.mock.MkGithub;
 import com.jcabi.matchers.XhtmlMatchers;
+import com.rultor.agents.daemons.Admission;
+import com.rultor.profiles.Priorities;
+import com.rultor.spi.Profile;
 import java.net.URI;
 import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
 import org.junit.Test;
 import org.xembly.Directives;
 import org.xembly.Xembler;
@@ -77,4 +81,28 @@ public final class QnDeployTest {
         );
     }
 
+    /**
+     * QnDeploy can tell how many builds are waiting.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void tellsQueueBacklog() throws Exception {
+        final Repo repo = new MkGithub().randomRepo();
+        final Issue issue = repo.issues().create("", "");
+        issue.comments().post("deploy");
+        final Admission admission = new Admission(1);
+        admission.hold("b1.rultor.com", "first");
+        admission.admit("b1.rultor.com", "second", 1, 1L);
+        admission.admit("b1.rultor.com", "third", 0, 2L);
+        new QnDeploy(
+            admission, new Priorities(new Profile.Fixed())
+        ).understand(
+            new Comment.Smart(issue.comments().get(1)), new URI("#")
+        );
+        MatcherAssert.assertThat(
+            new Comment.Smart(issue.comments().get(2)).body(),
+            Matchers.containsString("1 build(s) with the same")
+        );
+    }
+
 }
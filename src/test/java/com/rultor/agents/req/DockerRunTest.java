@@ -300,4 +300,52 @@ public final class DockerRunTest {
         );
     }
 
+    /**
+     * DockerRun can make a key of the install snapshot.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void makesSnapshotKey() throws Exception {
+        final Profile profile = new Profile.Fixed(
+            new XMLDocument(
+                new JoinedText(
+                    SPACE,
+                    "<p><entry key='install'>apt-get install gcc</entry>",
+                    "<entry key='uninstall'>rm -rf x</entry>",
+                    "<entry key='q'><entry key='script'>make</entry>",
+                    "</entry></p>"
+                ).asString()
+            )
+        );
+        final DockerRun run = new DockerRun(profile, "/p/entry[@key='q']");
+        MatcherAssert.assertThat(
+            run.snapshot("x/y", "q", "a/b"),
+            Matchers.allOf(
+                Matchers.not(Matchers.isEmptyString()),
+                Matchers.not(
+                    Matchers.equalTo(run.snapshot("x/y", "q", "a/c"))
+                ),
+                Matchers.not(
+                    Matchers.equalTo(run.snapshot("x/z", "q", "a/b"))
+                ),
+                Matchers.not(
+                    Matchers.equalTo(run.snapshot("x/y", "merge", "a/b"))
+                )
+            )
+        );
+        MatcherAssert.assertThat(
+            String.join(" ", run.build()),
+            Matchers.allOf(
+                Matchers.containsString("make"),
+                Matchers.containsString("clean_up"),
+                Matchers.not(Matchers.containsString("gcc"))
+            )
+        );
+        MatcherAssert.assertThat(
+            new DockerRun(new Profile.Fixed(), "/p/entry[@key='q']")
+                .snapshot("x/y", "q", "a/b"),
+            Matchers.isEmptyString()
+        );
+    }
+
 }
@@ -69,6 +69,34 @@ public final class StartsRequestTest {
     @Rule
     public final transient TemporaryFolder temp = new TemporaryFolder();
 
+    /**
+     * StartsRequest can key dependency caches by the repository and
+     * the type of the request.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void keysCachesByRepository() throws Exception {
+        final Talk talk = new Talk.InFile();
+        talk.modify(
+            new Directives().xpath("/talk")
+                .add("wire")
+                .add("href").set("http://test").up()
+                .add("github-repo").set("yegor256/Rultor").up()
+                .up()
+                .add("request").attr("id", "abcd")
+                .add("author").set("yegor256").up()
+                .add("type").set("merge").up()
+                .add("args")
+        );
+        new StartsRequest(new Profile.Fixed()).execute(talk);
+        MatcherAssert.assertThat(
+            talk.read(),
+            XhtmlMatchers.hasXPath(
+                "//script[contains(.,\"cache_key='yegor256_rultor-merge'\")]"
+            )
+        );
+    }
+
     /**
      * StartsRequest can start a request.
      * @throws Exception In case of error.
@@ -93,7 +121,8 @@ public final class StartsRequestTest {
                 "/talk/daemon/title",
                 "//script[contains(.,\"hey='hello dude!'\")]",
                 "//script[contains(.,'--env=author=yegor256')]",
-                "//script[contains(.,'--env=hey=hello dude!')]"
+                "//script[contains(.,'--env=hey=hello dude!')]",
+                "//script[contains(.,'caches=true')]"
             )
         );
     }
@@ -157,9 +186,15 @@ public final class StartsRequestTest {
                         )
                     )
                     .with(Matchers.containsString("Cloning into 'repo'...\n"))
+                    .with(
+                        Matchers.containsString("with the help of its mirror")
+                    )
+                    .with(
+                        Matchers.containsString(
+                            "--volume=rultor-cache-test-deploy-m2:/home/r/.m2"
+                        )
+                    )
                     .with(Matchers.containsString("docker_when_possible\n"))
-                    .with(Matchers.containsString("load average is "))
-                    .with(Matchers.containsString("low enough to run a"))
                     .with(Matchers.containsString("DOCKER-2: -t"))
                     .with(
                         Matchers.containsString(
@@ -379,6 +414,100 @@ public final class StartsRequestTest {
         );
     }
 
+    /**
+     * StartsRequest can clone shallowly, if configured.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void clonesShallowly() throws Exception {
+        final File repo = this.repo();
+        final Agent agent = new StartsRequest(
+            new Profile.Fixed(
+                new XMLDocument(
+                    new JoinedText(
+                        "",
+                        "<p><entry key='deploy'>",
+                        "<entry key='script'>echo HEY</entry></entry>",
+                        "<entry key='clone'><entry key='depth'>1</entry>",
+                        "</entry></p>"
+                    ).asString()
+                )
+            )
+        );
+        final Talk talk = new Talk.InFile();
+        talk.modify(
+            new Directives().xpath("/talk")
+                .add("request").attr("id", "a1b2")
+                .add("author").set("yegor256").up()
+                .add("type").set("deploy").up()
+                .add("args")
+                .add("arg").attr("name", "head")
+                .set(String.format("file://%s", repo)).up()
+                .add("arg").attr("name", "head_branch").set("master").up()
+        );
+        agent.execute(talk);
+        MatcherAssert.assertThat(
+            this.exec(talk),
+            Matchers.allOf(
+                Matchers.containsString("git clone --depth=1"),
+                Matchers.not(Matchers.containsString("mirror"))
+            )
+        );
+    }
+
+    /**
+     * StartsRequest can run the build from the snapshot of its install phase.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void runsFromInstallSnapshot() throws Exception {
+        final File repo = this.repo();
+        final Agent agent = new StartsRequest(
+            new Profile.Fixed(
+                new XMLDocument(
+                    new JoinedText(
+                        "",
+                        "<p><entry key='install'>apt-get install gcc</entry>",
+                        "<entry key='deploy'>",
+                        "<entry key='script'>echo HEY</entry></entry></p>"
+                    ).asString()
+                )
+            )
+        );
+        final Talk talk = new Talk.InFile();
+        talk.modify(
+            new Directives().xpath("/talk")
+                .add("request").attr("id", "c3d4")
+                .add("author").set("yegor256").up()
+                .add("type").set("deploy").up()
+                .add("args")
+                .add("arg").attr("name", "head").set(repo.toString()).up()
+                .add("arg").attr("name", "head_branch").set("master").up()
+        );
+        agent.execute(talk);
+        talk.modify(
+            new Directives().xpath("/talk/daemon/script").set(
+                new JoinedText(
+                    "\n",
+                    talk.read().xpath("/talk/daemon/script/text()").get(0),
+                    "cd ..; cat script.sh"
+                ).asString()
+            )
+        );
+        final String stdout = this.exec(talk);
+        MatcherAssert.assertThat(
+            stdout,
+            Matchers.allOf(
+                Matchers.containsString("The install phase is cached in"),
+                Matchers.containsString("echo HEY")
+            )
+        );
+        MatcherAssert.assertThat(
+            stdout.substring(stdout.lastIndexOf("#!/bin/bash")),
+            Matchers.not(Matchers.containsString("gcc"))
+        );
+    }
+
     /**
      * Execute script from daemon.
      * @param talk Talk to use
@@ -403,11 +532,12 @@ public final class StartsRequestTest {
             "} ",
             talk.read().xpath("//script/text()").get(0)
         ).asString();
+        final ProcessBuilder builder = new ProcessBuilder().command(
+            "/bin/bash", "-c", script
+        ).directory(this.temp.newFolder()).redirectErrorStream(true);
+        builder.environment().put("HOME", this.temp.newFolder().getPath());
         return new VerboseProcess(
-            new ProcessBuilder().command(
-                "/bin/bash", "-c", script
-            ).directory(this.temp.newFolder()).redirectErrorStream(true),
-            Level.WARNING, Level.WARNING
+            builder, Level.WARNING, Level.WARNING
         ).stdout();
     }
 
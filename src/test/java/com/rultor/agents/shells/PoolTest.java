@@ -0,0 +1,90 @@
+/**
+ * Copyright (c) 2009-2019, Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.agents.shells;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Tests for {@link Pool}.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class PoolTest {
+
+    /**
+     * Pool can pick the least loaded host with enough disk space.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void picksLeastLoadedHost() throws Exception {
+        final Map<String, String> hosts = new HashMap<>(0);
+        hosts.put("a", "4 3.5 90000000 4");
+        hosts.put("b", "8 1.0 90000000 1");
+        hosts.put("c", "8 0.0 100 0");
+        final Pool pool = new Pool(
+            Arrays.asList("a", "b", "c", "d"),
+            host -> {
+                if (!hosts.containsKey(host)) {
+                    throw new IOException("not reachable");
+                }
+                return new Pool.Stats(hosts.get(host));
+            }
+        );
+        MatcherAssert.assertThat(pool.pick("x/y"), Matchers.equalTo("b"));
+    }
+
+    /**
+     * Pool can prefer the host, which built the repository last time.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void prefersSameHostForRepository() throws Exception {
+        final Pool pool = new Pool(
+            Arrays.asList("one", "two"),
+            host -> new Pool.Stats("4 0.0 90000000 0")
+        );
+        final String first = pool.pick("test/first");
+        MatcherAssert.assertThat(
+            pool.pick("test/second"), Matchers.not(Matchers.equalTo(first))
+        );
+        MatcherAssert.assertThat(
+            pool.pick("test/first"), Matchers.equalTo(first)
+        );
+    }
+
+}
@@ -31,11 +31,14 @@ package com.rultor.agents.shells;
 
 import com.jcabi.matchers.XhtmlMatchers;
 import com.jcabi.xml.XMLDocument;
+import com.rultor.agents.daemons.Admission;
 import com.rultor.spi.Agent;
 import com.rultor.spi.Profile;
 import com.rultor.spi.Talk;
+import java.util.Arrays;
 import org.cactoos.text.JoinedText;
 import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
 import org.junit.Test;
 import org.mockito.Mockito;
 import org.xembly.Directives;
@@ -109,4 +112,80 @@ public final class RegistersShellTest {
         agent.execute(talk);
     }
 
+    /**
+     * RegistersShell can pick a host with a free slot, even if another
+     * one is less loaded.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void picksHostWithFreeSlot() throws Exception {
+        final Admission admission = new Admission(1);
+        admission.hold("b1", "other");
+        final Talk talk = RegistersShellTest.talk();
+        new RegistersShell(
+            new Profile.Fixed(), RegistersShellTest.pool(), admission,
+            22, "rultor", "def-key"
+        ).execute(talk);
+        MatcherAssert.assertThat(
+            talk.read(),
+            XhtmlMatchers.hasXPath("/talk/shell[@id='abcd']/host[.='b2']")
+        );
+    }
+
+    /**
+     * RegistersShell can let a daemon wait, when all slots are busy.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void waitsForFreeSlot() throws Exception {
+        final Admission admission = new Admission(1);
+        admission.hold("b1", "first");
+        admission.hold("b2", "second");
+        final Talk talk = RegistersShellTest.talk();
+        new RegistersShell(
+            new Profile.Fixed(), RegistersShellTest.pool(), admission,
+            22, "rultor", "def-key"
+        ).execute(talk);
+        MatcherAssert.assertThat(
+            talk.read(),
+            XhtmlMatchers.hasXPath("/talk[not(shell)]")
+        );
+        MatcherAssert.assertThat(admission.ahead(0), Matchers.is(1));
+    }
+
+    /**
+     * Pool of two hosts, the first one is less loaded.
+     * @return Pool
+     */
+    private static Pool pool() {
+        return new Pool(
+            Arrays.asList("b1", "b2"),
+            host -> {
+                final Pool.Stats stats;
+                if ("b1".equals(host)) {
+                    stats = new Pool.Stats("8 0.0 90000000 0");
+                } else {
+                    stats = new Pool.Stats("8 4.0 90000000 4");
+                }
+                return stats;
+            }
+        );
+    }
+
+    /**
+     * Talk with a daemon to start.
+     * @return Talk
+     * @throws Exception In case of error.
+     */
+    private static Talk talk() throws Exception {
+        final Talk talk = new Talk.InFile();
+        talk.modify(
+            new Directives().xpath("/talk")
+                .add("daemon").attr("id", "abcd")
+                .add("title").set("merge").up()
+                .add("script").set("test")
+        );
+        return talk;
+    }
+
 }
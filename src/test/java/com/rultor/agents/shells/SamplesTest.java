@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2009-2019, Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.agents.shells;
+
+import java.io.IOException;
+import java.util.Map;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link Samples}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class SamplesTest {
+
+    /**
+     * Samples can expose the history of hosts as metrics.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void exposesMetrics() throws Exception {
+        final Samples samples = new Samples(
+            host -> {
+                throw new IOException("no probe");
+            }
+        );
+        samples.add("b1", "4\n1.0\n8000\n2000\n10240\n3\n1000 800\n");
+        samples.add("b1", "4\n3.0\n8000\n4000\n20480\n5\n1100 875\n");
+        final Map<String, Number> values = samples.values();
+        MatcherAssert.assertThat(
+            values, Matchers.<String, Number>hasEntry("hosts.b1.load", 3.0d)
+        );
+        MatcherAssert.assertThat(
+            values.get("hosts.b1.load-hour"), Matchers.<Number>is(2.0d)
+        );
+        MatcherAssert.assertThat(
+            values.get("hosts.b1.mem-free-pct"), Matchers.<Number>is(50L)
+        );
+        MatcherAssert.assertThat(
+            values.get("hosts.b1.disk-free-mb"), Matchers.<Number>is(20L)
+        );
+        MatcherAssert.assertThat(
+            values.get("hosts.b1.containers"), Matchers.<Number>is(5)
+        );
+        MatcherAssert.assertThat(
+            values.get("hosts.b1.cpu-busy-pct"), Matchers.<Number>is(25L)
+        );
+        MatcherAssert.assertThat(
+            values.get("hosts.b1.samples"), Matchers.<Number>is(2)
+        );
+    }
+
+    /**
+     * Samples can feed the pool with averaged load.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void feedsPoolWithAveragedLoad() throws Exception {
+        final Samples samples = new Samples(
+            host -> new Pool.Stats("1 9.0 0 0")
+        );
+        samples.add("b2", "2 1.0 100 50 99999999 0 10 5");
+        samples.add("b2", "2 3.0 100 50 99999999 0 20 10");
+        MatcherAssert.assertThat(
+            samples.stats("b2").score(),
+            Matchers.closeTo(1.0d, 0.001d)
+        );
+        MatcherAssert.assertThat(
+            samples.stats("b3").score(),
+            Matchers.closeTo(9.0d, 0.001d)
+        );
+    }
+
+    /**
+     * Samples can reject broken output.
+     * @throws Exception If some problem inside
+     */
+    @Test(expected = IOException.class)
+    public void rejectsBrokenSample() throws Exception {
+        new Samples(host -> new Pool.Stats("1 0 0 0")).add("b4", "4 1.0");
+    }
+
+}
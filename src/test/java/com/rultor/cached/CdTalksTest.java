@@ -0,0 +1,176 @@
+/**
+ * Copyright (c) 2009-2019, Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.cached;
+
+import com.jcabi.matchers.XhtmlMatchers;
+import com.rultor.spi.Talk;
+import com.rultor.spi.Talks;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.xembly.Directives;
+
+/**
+ * Tests for {@link CdTalks}.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class CdTalksTest {
+
+    /**
+     * CdTalks can read the document again after modification.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void rereadsDocumentAfterModify() throws Exception {
+        final Talks origin = new Talks.InDir();
+        final String name = "hello";
+        origin.create("a/b", name);
+        final CdTalks talks = new CdTalks(origin);
+        final Talk talk = talks.get(name);
+        talk.read();
+        talk.modify(new Directives().xpath("/talk").attr("later", "true"));
+        MatcherAssert.assertThat(
+            talk.read(),
+            XhtmlMatchers.hasXPath("/talk[@later='true']")
+        );
+        MatcherAssert.assertThat(
+            talks.values().get("talks.xml.hits").longValue(),
+            Matchers.equalTo(0L)
+        );
+        MatcherAssert.assertThat(
+            talks.values().get("talks.xml.misses").longValue(),
+            Matchers.equalTo(2L)
+        );
+    }
+
+    /**
+     * CdTalks can detect a modification made by someone else.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void rereadsOnConflict() throws Exception {
+        final Talks origin = new Talks.InDir();
+        final String name = "bye";
+        origin.create("c/d", name);
+        final CdTalks talks = new CdTalks(origin);
+        final Talk talk = talks.get(name);
+        talk.read();
+        TimeUnit.SECONDS.sleep(1L);
+        origin.get(name).modify(
+            new Directives().xpath("/talk").attr("public", "false")
+        );
+        MatcherAssert.assertThat(
+            talk.read(),
+            XhtmlMatchers.hasXPath("/talk[@public='false']")
+        );
+        MatcherAssert.assertThat(
+            talks.values().get("talks.xml.conflicts").longValue(),
+            Matchers.equalTo(1L)
+        );
+    }
+
+    /**
+     * CdTalks can cache talks by names until they are deleted.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void cachesTalksUntilDeleted() throws Exception {
+        final Talks talks = new CdTalks(new Talks.InDir());
+        final String repo = "e/f";
+        final String name = "first";
+        talks.create(repo, name);
+        final Talk talk = talks.get(name);
+        MatcherAssert.assertThat(
+            talks.get(name), Matchers.sameInstance(talk)
+        );
+        talks.delete(name);
+        talks.create(repo, name);
+        MatcherAssert.assertThat(
+            talks.get(name), Matchers.not(Matchers.sameInstance(talk))
+        );
+    }
+
+    /**
+     * CdTalks can invalidate siblings when one of them is modified.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void invalidatesSiblingsOfModifiedTalk() throws Exception {
+        final Talks origin = new Talks.InDir();
+        final Talks talks = new CdTalks(origin);
+        final String repo = "g/h";
+        final String name = "alpha";
+        talks.create(repo, name);
+        final Date since = new Date();
+        MatcherAssert.assertThat(
+            talks.siblings(repo, since), Matchers.<Talk>iterableWithSize(1)
+        );
+        origin.create(repo, "beta");
+        MatcherAssert.assertThat(
+            talks.siblings(repo, since), Matchers.<Talk>iterableWithSize(1)
+        );
+        talks.get(name).modify(
+            new Directives().xpath("/talk").attr("later", "true")
+        );
+        MatcherAssert.assertThat(
+            talks.siblings(repo, since), Matchers.<Talk>iterableWithSize(2)
+        );
+    }
+
+    /**
+     * CdTalks can invalidate recent talks when one is deactivated.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void invalidatesRecentOnDeactivation() throws Exception {
+        final Talks origin = new Talks.InDir();
+        final Talks talks = new CdTalks(origin);
+        final String repo = "i/j";
+        final String name = "gamma";
+        talks.create(repo, name);
+        MatcherAssert.assertThat(
+            talks.recent(), Matchers.<Talk>iterableWithSize(1)
+        );
+        origin.create(repo, "delta");
+        MatcherAssert.assertThat(
+            talks.recent(), Matchers.<Talk>iterableWithSize(1)
+        );
+        talks.get(name).active(false);
+        MatcherAssert.assertThat(
+            talks.recent(), Matchers.<Talk>iterableWithSize(2)
+        );
+    }
+
+}
@@ -0,0 +1,104 @@
+/**
+ * Copyright (c) 2009-2019, Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.dynamo;
+
+import co.stateful.Counter;
+import com.jcabi.aspects.Tv;
+import java.util.concurrent.atomic.AtomicLong;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link BlockCounter}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class BlockCounterTest {
+
+    /**
+     * BlockCounter can hand out numbers from reserved blocks.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void handsOutNumbersFromBlocks() throws Exception {
+        final Counter origin = new BlockCounterTest.Fake();
+        final Counter first = new BlockCounter(origin, (long) Tv.TEN);
+        final Counter second = new BlockCounter(origin, (long) Tv.TEN);
+        MatcherAssert.assertThat(first.incrementAndGet(1L), Matchers.is(1L));
+        MatcherAssert.assertThat(first.incrementAndGet(1L), Matchers.is(2L));
+        MatcherAssert.assertThat(
+            second.incrementAndGet(1L), Matchers.is(11L)
+        );
+        MatcherAssert.assertThat(
+            origin.incrementAndGet(0L), Matchers.is((long) Tv.TWENTY)
+        );
+    }
+
+    /**
+     * BlockCounter can reserve a new block when the current one is over.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void reservesNextBlock() throws Exception {
+        final Counter origin = new BlockCounterTest.Fake();
+        final Counter counter = new BlockCounter(origin, 2L);
+        counter.incrementAndGet(1L);
+        counter.incrementAndGet(1L);
+        origin.incrementAndGet(Tv.FIVE);
+        MatcherAssert.assertThat(
+            counter.incrementAndGet(1L), Matchers.is((long) Tv.EIGHT)
+        );
+    }
+
+    /**
+     * In-memory counter, since the one in MkSttc returns current time.
+     */
+    private static final class Fake implements Counter {
+        /**
+         * Value.
+         */
+        private final transient AtomicLong value = new AtomicLong();
+        @Override
+        public String name() {
+            return "fake";
+        }
+        @Override
+        public void set(final long number) {
+            this.value.set(number);
+        }
+        @Override
+        public long incrementAndGet(final long delta) {
+            return this.value.addAndGet(delta);
+        }
+    }
+
+}
@@ -0,0 +1,135 @@
+/**
+ * Copyright (c) 2009-2019, Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.dynamo;
+
+import co.stateful.mock.MkSttc;
+import com.jcabi.dynamo.Credentials;
+import com.jcabi.dynamo.Region;
+import com.jcabi.dynamo.retry.ReRegion;
+import com.jcabi.manifests.Manifests;
+import com.jcabi.s3.mock.MkBucket;
+import com.rultor.spi.Talk;
+import com.rultor.spi.Talks;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedList;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Integration case for {@link DyActiveTalks}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class DyActiveTalksITCase {
+
+    /**
+     * Temp directory.
+     * @checkstyle VisibilityModifierCheck (5 lines)
+     */
+    @Rule
+    public final transient TemporaryFolder temp = new TemporaryFolder();
+
+    /**
+     * DyActiveTalks can keep active talks in sync.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void keepsActiveTalksInSync() throws Exception {
+        final DyTalks origin = new DyTalks(
+            this.dynamo(), new MkSttc().counters().get(""),
+            new MkBucket(this.temp.newFolder(), "cold")
+        );
+        final Talks talks = new DyActiveTalks(origin);
+        final String first = "yegor256/rultor#1101";
+        talks.create("a/active", first);
+        MatcherAssert.assertThat(
+            DyActiveTalksITCase.names(talks.active()),
+            Matchers.hasItem(first)
+        );
+        final String second = "yegor256/rultor#1102";
+        origin.create("a/active", second);
+        origin.get(first).active(false);
+        MatcherAssert.assertThat(
+            DyActiveTalksITCase.names(talks.active()),
+            Matchers.allOf(
+                Matchers.hasItem(second),
+                Matchers.not(Matchers.hasItem(first))
+            )
+        );
+    }
+
+    /**
+     * Names of talks.
+     * @param talks Talks
+     * @return Names
+     * @throws IOException If fails
+     */
+    private static Collection<String> names(final Iterable<Talk> talks)
+        throws IOException {
+        final Collection<String> names = new LinkedList<>();
+        for (final Talk talk : talks) {
+            names.add(talk.name());
+        }
+        return names;
+    }
+
+    /**
+     * DynamoDB region for tests.
+     * @return Region
+     */
+    private Region dynamo() {
+        final String key = Manifests.read("Rultor-DynamoKey");
+        Assume.assumeNotNull(key);
+        final String port = System.getProperty("dynamo.port");
+        Assume.assumeNotNull(port);
+        MatcherAssert.assertThat(key.startsWith("AAAA"), Matchers.is(true));
+        return new Region.Prefixed(
+            new ReRegion(
+                new Region.Simple(
+                    new Credentials.Direct(
+                        new Credentials.Simple(
+                            key,
+                            Manifests.read("Rultor-DynamoSecret")
+                        ),
+                        Integer.parseInt(port)
+                    )
+                )
+            ),
+            "rt-"
+        );
+    }
+
+}
@@ -30,16 +30,32 @@
 package com.rultor.dynamo;
 
 import co.stateful.mock.MkSttc;
+import com.jcabi.dynamo.Attributes;
 import com.jcabi.dynamo.Credentials;
+import com.jcabi.dynamo.Item;
 import com.jcabi.dynamo.Region;
+import com.jcabi.github.Issue;
+import com.jcabi.github.Repo;
+import com.jcabi.github.mock.MkGithub;
+import com.jcabi.immutable.ArrayMap;
 import com.jcabi.dynamo.retry.ReRegion;
 import com.jcabi.manifests.Manifests;
+import com.jcabi.s3.Bucket;
+import com.jcabi.s3.mock.MkBucket;
 import com.jcabi.matchers.XhtmlMatchers;
+import com.rultor.agents.FakeCounter;
+import com.rultor.agents.IndexesRequests;
+import com.rultor.agents.github.Req;
+import com.rultor.agents.github.Understands;
+import com.rultor.agents.req.StartsRequest;
+import com.rultor.spi.Agent;
+import com.rultor.spi.Profile;
 import com.rultor.spi.Talk;
 import com.rultor.spi.Talks;
 import java.io.IOException;
 import java.util.Date;
 import java.util.concurrent.TimeUnit;
+import org.cactoos.iterable.Filtered;
 import org.hamcrest.CustomMatcher;
 import org.hamcrest.Description;
 import org.hamcrest.MatcherAssert;
@@ -47,7 +63,9 @@ import org.hamcrest.Matchers;
 import org.hamcrest.TypeSafeMatcher;
 import org.junit.Assume;
 import org.junit.Ignore;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.xembly.Directives;
 
 /**
@@ -59,6 +77,13 @@ import org.xembly.Directives;
  */
 public final class DyTalksITCase {
 
+    /**
+     * Temp directory.
+     * @checkstyle VisibilityModifierCheck (5 lines)
+     */
+    @Rule
+    public final transient TemporaryFolder temp = new TemporaryFolder();
+
     /**
      * DyTalks can add a talk.
      * @throws Exception If some problem inside
@@ -66,7 +91,7 @@ public final class DyTalksITCase {
     @Test
     public void addsTalks() throws Exception {
         final Talks talks = new DyTalks(
-            this.dynamo(), new MkSttc().counters().get("")
+            this.dynamo(), new MkSttc().counters().get(""), this.bucket()
         );
         final String name = "a5fe445";
         talks.create("hey/you", name);
@@ -83,7 +108,7 @@ public final class DyTalksITCase {
     @Test
     public void listsRecentTalks() throws Exception {
         final Talks talks = new DyTalks(
-            this.dynamo(), new MkSttc().counters().get("")
+            this.dynamo(), new MkSttc().counters().get(""), this.bucket()
         );
         final String name = "yegor256/rultor#529";
         talks.create("a/b", name);
@@ -103,7 +128,7 @@ public final class DyTalksITCase {
     @Ignore
     public void cachesRecentTalks() throws Exception {
         final Talks talks = new DyTalks(
-            this.dynamo(), new MkSttc().counters().get("")
+            this.dynamo(), new MkSttc().counters().get(""), this.bucket()
         );
         final String first = "krzyk1/rultor#562";
         final String repo = "some/other";
@@ -133,7 +158,7 @@ public final class DyTalksITCase {
     @Test
     public void listsSiblings() throws Exception {
         final Talks talks = new DyTalks(
-            this.dynamo(), new MkSttc().counters().get("")
+            this.dynamo(), new MkSttc().counters().get(""), this.bucket()
         );
         final String repo = "repo1";
         talks.create(repo, "yegor256/rultor#9");
@@ -151,6 +176,33 @@ public final class DyTalksITCase {
         );
     }
 
+    /**
+     * DyTalks can list siblings with their summaries.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void listsSiblingsWithSummaries() throws Exception {
+        final Talks talks = new DyTalks(
+            this.dynamo(), new MkSttc().counters().get(""), this.bucket()
+        );
+        final String repo = "repo7";
+        final String name = "yegor256/rultor#77";
+        talks.create(repo, name);
+        talks.get(name).modify(
+            new Directives().xpath("/talk")
+                .add("wire").add("href").set("#77").up().up()
+                .add("archive").add("log")
+                .attr("id", "a7").attr("title", "build").set("s3://a")
+        );
+        MatcherAssert.assertThat(
+            talks.siblings(repo, new Date()).iterator().next().summary(),
+            XhtmlMatchers.hasXPaths(
+                "/talk[wire/href='#77']",
+                "/talk/archive/log[@id='a7' and @title='build']"
+            )
+        );
+    }
+
     /**
      * DyTalks can list recent talks, ignoring private ones.
      * @throws Exception If some problem inside
@@ -158,7 +210,7 @@ public final class DyTalksITCase {
     @Test
     public void listsRecentTalksExceptPrivates() throws Exception {
         final Talks talks = new DyTalks(
-            this.dynamo(), new MkSttc().counters().get("")
+            this.dynamo(), new MkSttc().counters().get(""), this.bucket()
         );
         final String name = "yegor256/rultor#990";
         talks.create("a/ff", name);
@@ -185,6 +237,379 @@ public final class DyTalksITCase {
         );
     }
 
+    /**
+     * DyTalks can read and modify talks moved to cold storage.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void readsAndThawsFrozenTalks() throws Exception {
+        final Bucket bucket = new MkBucket(this.temp.newFolder(), "cold");
+        final Talks talks = new DyTalks(
+            this.dynamo(), new MkSttc().counters().get(""), bucket
+        );
+        final String name = "yegor256/rultor#1011";
+        talks.create("a/cold", name);
+        final Talk talk = talks.get(name);
+        talk.modify(new Directives().xpath("/talk").attr("later", "true"));
+        talk.active(false);
+        TimeUnit.MILLISECONDS.sleep(2L);
+        MatcherAssert.assertThat(
+            new DyTiering(this.dynamo(), bucket, 0L).freeze(),
+            Matchers.greaterThan(0)
+        );
+        MatcherAssert.assertThat(
+            bucket.list("cold/"),
+            Matchers.<String>iterableWithSize(Matchers.greaterThan(0))
+        );
+        MatcherAssert.assertThat(
+            talks.get(name).read(),
+            XhtmlMatchers.hasXPath("/talk[@later='true']")
+        );
+        talks.get(name).modify(
+            new Directives().xpath("/talk").attr("later", "false")
+        );
+        MatcherAssert.assertThat(
+            talks.get(name).read(),
+            XhtmlMatchers.hasXPath("/talk[@later='false']")
+        );
+    }
+
+    /**
+     * DyTalks can upgrade XML of an old talk only once.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void upgradesOldTalksOnce() throws Exception {
+        final Region region = this.dynamo();
+        final Talks talks = new DyTalks(
+            region, new MkSttc().counters().get(""), this.bucket()
+        );
+        final String name = "yegor256/rultor#1012";
+        region.table(DyTalks.TBL).put(
+            new Attributes()
+                .with(DyTalks.HASH, name)
+                .with(DyTalks.ATTR_ACTIVE, Boolean.toString(true))
+                .with(DyTalks.ATTR_REPO, "a/old")
+                .with(DyTalks.ATTR_NUMBER, 1L)
+                .with(DyTalks.ATTR_UPDATED, System.currentTimeMillis())
+                .with(DyTalks.ATTR_XML, "<talk name='x' number='1'/>")
+        );
+        MatcherAssert.assertThat(
+            talks.get(name).read(),
+            XhtmlMatchers.hasXPath("/talk[@later='false' and @public]")
+        );
+        final Item item = region.table(DyTalks.TBL)
+            .frame().where(DyTalks.HASH, name).iterator().next();
+        MatcherAssert.assertThat(
+            item.get(DyTalks.ATTR_VERSION).getN(),
+            Matchers.equalTo(Integer.toString(Talk.VERSION))
+        );
+        MatcherAssert.assertThat(
+            item.has(DyTalks.ATTR_XML),
+            Matchers.is(false)
+        );
+    }
+
+    /**
+     * DyTalks can create and activate a talk at once.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void activatesTalks() throws Exception {
+        final Region region = this.dynamo();
+        final Talks talks = new DyTalks(
+            region, new MkSttc().counters().get(""), this.bucket()
+        );
+        final String name = "yegor256/rultor#1013";
+        final String repo = "a/up";
+        talks.activate(
+            repo, name,
+            new Directives().xpath("/talk").add("wire")
+                .add("href").set("#").up()
+                .add("github-repo").set(repo).up()
+                .add("github-issue").set("1")
+        );
+        talks.get(name).active(false);
+        talks.activate(
+            repo, name,
+            new Directives().xpath("/talk").attr("later", "true")
+        );
+        final Talk talk = talks.get(name);
+        MatcherAssert.assertThat(
+            talk.read(),
+            XhtmlMatchers.hasXPaths(
+                "/talk[@later='true']",
+                "/talk/wire[github-issue='1']"
+            )
+        );
+        MatcherAssert.assertThat(talk.number(), Matchers.greaterThan(0L));
+        talk.modify(new Directives().xpath("/talk").attr("public", "true"));
+        MatcherAssert.assertThat(
+            region.table(DyTalks.TBL).frame().where(DyTalks.HASH, name)
+                .iterator().next().has(DyTalks.ATTR_PENDING),
+            Matchers.is(false)
+        );
+        MatcherAssert.assertThat(
+            talks.get(name).read(),
+            XhtmlMatchers.hasXPaths("/talk[@later='true' and @public]")
+        );
+    }
+
+    /**
+     * DyTalks can activate a new talk with its XML, number and phase.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void seedsNewTalksAtOnce() throws Exception {
+        final Region region = this.dynamo();
+        final String name = "yegor256/rultor#1014";
+        final Talks talks = new DyTalks(
+            region, new MkSttc().counters().get(""), this.bucket()
+        );
+        talks.activate("a/seed", name, new Directives().xpath("/talk"));
+        final long number = talks.get(name).number();
+        talks.activate("a/seed", name, new Directives().xpath("/talk"));
+        MatcherAssert.assertThat(
+            talks.get(name).number(), Matchers.equalTo(number)
+        );
+        final Item item = region.table(DyTalks.TBL)
+            .frame().where(DyTalks.HASH, name).iterator().next();
+        MatcherAssert.assertThat(
+            item.has(DyTalks.ATTR_XML), Matchers.is(true)
+        );
+        MatcherAssert.assertThat(
+            item.get(DyTalks.ATTR_PHASE).getS(),
+            Matchers.equalTo(DyTalks.PHASE_IDLE)
+        );
+        MatcherAssert.assertThat(
+            Long.parseLong(item.get(DyTalks.ATTR_NUMBER).getN()),
+            Matchers.greaterThan(0L)
+        );
+    }
+
+    /**
+     * DyTalks can list idle talks, without the busy and archived ones.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void listsIdleTalks() throws Exception {
+        final Talks talks = new DyTalks(
+            this.dynamo(), new MkSttc().counters().get(""), this.bucket()
+        );
+        final String idle = "yegor256/rultor#1101";
+        talks.create("c/idle", idle);
+        final String busy = "yegor256/rultor#1102";
+        talks.create("c/busy", busy);
+        talks.get(busy).modify(
+            new Directives().xpath("/talk")
+                .add("request").attr("id", "a1")
+                .add("type").set("merge").up()
+                .add("args")
+        );
+        final String archived = "yegor256/rultor#1103";
+        talks.create("c/archived", archived);
+        talks.get(archived).active(false);
+        MatcherAssert.assertThat(
+            talks.idle(),
+            Matchers.allOf(
+                Matchers.<Talk>hasItem(new DyTalksITCase.TalkMatcher(idle)),
+                Matchers.not(
+                    Matchers.<Talk>hasItem(
+                        new DyTalksITCase.TalkMatcher(busy)
+                    )
+                ),
+                Matchers.not(
+                    Matchers.<Talk>hasItem(
+                        new DyTalksITCase.TalkMatcher(archived)
+                    )
+                )
+            )
+        );
+        MatcherAssert.assertThat(
+            talks.requested(),
+            Matchers.allOf(
+                Matchers.<Talk>hasItem(new DyTalksITCase.TalkMatcher(busy)),
+                Matchers.not(
+                    Matchers.<Talk>hasItem(
+                        new DyTalksITCase.TalkMatcher(idle)
+                    )
+                )
+            )
+        );
+        talks.get(busy).modify(
+            new Directives().xpath("/talk/request").remove()
+        );
+        MatcherAssert.assertThat(
+            talks.idle(),
+            Matchers.<Talk>hasItem(new DyTalksITCase.TalkMatcher(busy))
+        );
+    }
+
+    /**
+     * DyTalks can list talks, which got a request and a daemon at once,
+     * for their requests to be indexed.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void indexesRequestsOfStartedTalks() throws Exception {
+        final Talks talks = new DyTalks(
+            this.dynamo(), new MkSttc().counters().get(""), this.bucket()
+        );
+        final Repo repo = new MkGithub().randomRepo();
+        final Issue issue = repo.issues().create("", "");
+        issue.comments().post("@jeff merge");
+        final String name = "yegor256/rultor#1104";
+        talks.create(repo.coordinates().toString(), name);
+        final Talk talk = talks.get(name);
+        talk.modify(
+            new Directives().xpath("/talk")
+                .attr("later", "true")
+                .add("wire")
+                .add("href").set("http://test").up()
+                .add("github-repo").set(repo.coordinates().toString()).up()
+                .add("github-issue").set(Integer.toString(issue.number()))
+        );
+        new Agent.Iterative(
+            new Understands(
+                repo.github(),
+                (comment, home) -> new Req.Simple(
+                    "merge", new ArrayMap<String, String>()
+                )
+            ),
+            new StartsRequest(new Profile.Fixed())
+        ).execute(talk);
+        new IndexesRequests(new FakeCounter()).execute(talks);
+        MatcherAssert.assertThat(
+            talks.get(name).read(),
+            XhtmlMatchers.hasXPaths(
+                "/talk/daemon",
+                "/talk/request[@index]"
+            )
+        );
+    }
+
+    /**
+     * DyTalk can keep a modification made by someone else after its
+     * item was read.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void keepsConcurrentModifications() throws Exception {
+        final Talks talks = new DyTalks(
+            this.dynamo(), new MkSttc().counters().get(""), this.bucket()
+        );
+        final String name = "yegor256/rultor#1105";
+        talks.create("c/concurrent", name);
+        final Talk stale = new Filtered<>(
+            talk -> name.equals(talk.name()), talks.active()
+        ).iterator().next();
+        talks.get(name).modify(
+            new Directives().xpath("/talk").attr("later", "true")
+        );
+        stale.modify(
+            new Directives().xpath("/talk").attr("public", "false")
+        );
+        MatcherAssert.assertThat(
+            talks.get(name).read(),
+            XhtmlMatchers.hasXPath("/talk[@later='true' and @public='false']")
+        );
+    }
+
+    /**
+     * DyTalks can backfill phase and visibility of old talks.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void backfillsOldTalks() throws Exception {
+        final Region region = this.dynamo();
+        final DyTalks talks = new DyTalks(
+            region, new MkSttc().counters().get(""), this.bucket()
+        );
+        final String active = "yegor256/rultor#1301";
+        final String archived = "yegor256/rultor#1302";
+        region.table(DyTalks.TBL).put(
+            new Attributes()
+                .with(DyTalks.HASH, active)
+                .with(DyTalks.ATTR_ACTIVE, Boolean.toString(true))
+                .with(DyTalks.ATTR_REPO, "d/active")
+                .with(DyTalks.ATTR_NUMBER, 1L)
+                .with(DyTalks.ATTR_UPDATED, System.currentTimeMillis())
+                .with(DyTalks.ATTR_XML, "<talk name='x' number='1'/>")
+        );
+        region.table(DyTalks.TBL).put(
+            new Attributes()
+                .with(DyTalks.HASH, archived)
+                .with(DyTalks.ATTR_ACTIVE, Boolean.toString(false))
+                .with(DyTalks.ATTR_REPO, "d/archived")
+                .with(DyTalks.ATTR_NUMBER, 2L)
+                .with(DyTalks.ATTR_UPDATED, System.currentTimeMillis())
+                .with(
+                    DyTalks.ATTR_XML,
+                    "<talk name='y' number='2' public='true'/>"
+                )
+        );
+        MatcherAssert.assertThat(
+            talks.backfill(), Matchers.greaterThanOrEqualTo(2)
+        );
+        MatcherAssert.assertThat(
+            talks.idle(),
+            Matchers.<Talk>hasItem(new DyTalksITCase.TalkMatcher(active))
+        );
+        MatcherAssert.assertThat(
+            talks.recent(),
+            Matchers.<Talk>hasItem(new DyTalksITCase.TalkMatcher(archived))
+        );
+    }
+
+    /**
+     * DyTalks can list awake talks, without the parked ones, until
+     * they are activated.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void listsAwakeTalks() throws Exception {
+        final Talks talks = new DyTalks(
+            this.dynamo(), new MkSttc().counters().get(""), this.bucket()
+        );
+        final String fresh = "yegor256/rultor#1201";
+        talks.create("c/fresh", fresh);
+        final String parked = "yegor256/rultor#1202";
+        talks.create("c/parked", parked);
+        talks.get(parked).modify(
+            new Directives().xpath("/talk").attr(
+                "wake", System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1L)
+            )
+        );
+        MatcherAssert.assertThat(
+            talks.awake(),
+            Matchers.allOf(
+                Matchers.<Talk>hasItem(new DyTalksITCase.TalkMatcher(fresh)),
+                Matchers.not(
+                    Matchers.<Talk>hasItem(
+                        new DyTalksITCase.TalkMatcher(parked)
+                    )
+                )
+            )
+        );
+        talks.activate(
+            "c/parked", parked,
+            new Directives().xpath("/talk").attr("later", "true")
+        );
+        MatcherAssert.assertThat(
+            talks.awake(),
+            Matchers.<Talk>hasItem(new DyTalksITCase.TalkMatcher(parked))
+        );
+    }
+
+    /**
+     * Bucket for cold storage of talks.
+     * @return Bucket
+     * @throws IOException If fails
+     */
+    private Bucket bucket() throws IOException {
+        return new MkBucket(this.temp.newFolder(), "cold");
+    }
+
     /**
      * DynamoDB region for tests.
      * @return Region
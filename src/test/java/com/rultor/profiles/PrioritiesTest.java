@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) 2009-2019, Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.profiles;
+
+import com.jcabi.xml.XMLDocument;
+import com.rultor.spi.Profile;
+import org.cactoos.text.JoinedText;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+/**
+ * Tests for {@link Priorities}.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class PrioritiesTest {
+
+    /**
+     * Priorities can put releases before merges and merges before
+     * everything else, by default.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void ordersByDefault() throws Exception {
+        final Priorities priorities = new Priorities(new Profile.Fixed());
+        MatcherAssert.assertThat(
+            priorities.of("release"),
+            Matchers.greaterThan(priorities.of("merge"))
+        );
+        MatcherAssert.assertThat(
+            priorities.of("merge"),
+            Matchers.greaterThan(priorities.of("deploy"))
+        );
+        MatcherAssert.assertThat(
+            priorities.of(
+                new XMLDocument(
+                    "<talk><request><type>deploy</type></request></talk>"
+                )
+            ),
+            Matchers.greaterThan(priorities.of(new XMLDocument("<talk/>")))
+        );
+    }
+
+    /**
+     * Priorities can skip the profile of a talk without a request.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void skipsProfileWithoutRequest() throws Exception {
+        final Profile profile = Mockito.mock(Profile.class);
+        MatcherAssert.assertThat(
+            new Priorities(profile).of(new XMLDocument("<talk/>")),
+            Matchers.is(0)
+        );
+        Mockito.verifyZeroInteractions(profile);
+    }
+
+    /**
+     * Priorities can be configured in the profile.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void readsProfile() throws Exception {
+        final Priorities priorities = new Priorities(
+            new Profile.Fixed(
+                new XMLDocument(
+                    new JoinedText(
+                        "",
+                        "<p><entry key='priorities'>",
+                        "<entry key='deploy'>2</entry>",
+                        "<entry key='merge'>oops</entry>",
+                        "<entry key='release'>999999999</entry>",
+                        "<entry key='kill'>-3</entry>",
+                        "</entry></p>"
+                    ).asString()
+                )
+            )
+        );
+        MatcherAssert.assertThat(priorities.of("deploy"), Matchers.is(2));
+        MatcherAssert.assertThat(priorities.of("merge"), Matchers.is(2));
+        MatcherAssert.assertThat(
+            priorities.of("release"), Matchers.is(Priorities.MAX)
+        );
+        MatcherAssert.assertThat(priorities.of("kill"), Matchers.is(0));
+    }
+
+}
@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2009-2019, Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.spi;
+
+import com.jcabi.xml.XML;
+import com.jcabi.xml.XMLDocument;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+/**
+ * Tests for {@link SuperAgent}.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class SuperAgentTest {
+
+    /**
+     * SuperAgent.Fused can run all closers on one read of XML.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void runsClosersOnOneRead() throws Exception {
+        final Talk talk = Mockito.mock(Talk.class);
+        Mockito.doReturn(
+            new XMLDocument("<talk later='false' name='a' number='1'/>")
+        ).when(talk).read();
+        final Talks talks = Mockito.mock(Talks.class);
+        Mockito.doReturn(Collections.singleton(talk)).when(talks).idle();
+        final AtomicInteger closed = new AtomicInteger();
+        new SuperAgent.Fused(
+            new SuperAgentTest.Counting("/talk[@later='false']", closed),
+            new SuperAgentTest.Counting("/talk[@later='true']", closed),
+            new SuperAgentTest.Counting("/talk[not(request)]", closed)
+        ).execute(talks);
+        MatcherAssert.assertThat(closed.get(), Matchers.is(2));
+        Mockito.verify(talk, Mockito.times(1)).read();
+    }
+
+    /**
+     * Closer, which counts talks it closed.
+     */
+    private static final class Counting implements SuperAgent.Closer {
+        /**
+         * XPath.
+         */
+        private final transient String path;
+        /**
+         * Counter.
+         */
+        private final transient AtomicInteger counter;
+        /**
+         * Ctor.
+         * @param xpath XPath
+         * @param cnt Counter
+         */
+        Counting(final String xpath, final AtomicInteger cnt) {
+            this.path = xpath;
+            this.counter = cnt;
+        }
+        @Override
+        public String xpath() {
+            return this.path;
+        }
+        @Override
+        public void close(final Talk talk, final XML xml) {
+            this.counter.incrementAndGet();
+        }
+    }
+
+}
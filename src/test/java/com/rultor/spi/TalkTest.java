@@ -29,8 +29,11 @@
  */
 package com.rultor.spi;
 
+import com.jcabi.aspects.Tv;
 import com.jcabi.matchers.XhtmlMatchers;
+import java.io.File;
 import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
 import org.junit.Test;
 import org.xembly.Directives;
 
@@ -67,4 +70,48 @@ public final class TalkTest {
         );
     }
 
+    /**
+     * Talk can summarize itself, with the last logs of the archive only.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void summarizesArchive() throws Exception {
+        final Talk talk = new Talk.InFile();
+        final Directives dirs = new Directives().xpath("/talk")
+            .add("wire").add("href").set("#5").up().up()
+            .add("daemon").attr("id", "abc")
+            .add("script").set("hi").up()
+            .add("title").set("merge").up()
+            .add("dir").set("/tmp").up().up()
+            .add("archive");
+        for (int idx = 1; idx <= Tv.TWENTY; ++idx) {
+            dirs.add("log")
+                .attr("id", String.format("%x", idx))
+                .attr("title", String.format("title %d", idx))
+                .set("s3://test").up();
+        }
+        talk.modify(dirs);
+        MatcherAssert.assertThat(
+            talk.summary(),
+            XhtmlMatchers.hasXPaths(
+                "/talk[@name and @number and wire/href='#5']",
+                "/talk/archive[count(log)=10]",
+                "/talk/archive/log[1][@id='b' and @title='title 11']",
+                "/talk[not(daemon)]"
+            )
+        );
+    }
+
+    /**
+     * Talk version matches the number of upgrade stylesheets.
+     * @throws Exception In case of error.
+     */
+    @Test
+    public void versionMatchesUpgrades() throws Exception {
+        MatcherAssert.assertThat(
+            new File(Talk.class.getResource("upgrade").toURI()).list(),
+            Matchers.arrayWithSize(Talk.VERSION)
+        );
+    }
+
 }
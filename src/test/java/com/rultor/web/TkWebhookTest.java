@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) 2009-2019, Yegor Bugayenko
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met: 1) Redistributions of source code must retain the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer. 2) Redistributions in binary form must reproduce the above
+ * copyright notice, this list of conditions and the following
+ * disclaimer in the documentation and/or other materials provided
+ * with the distribution. 3) Neither the name of the rultor.com nor
+ * the names of its contributors may be used to endorse or promote
+ * products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT
+ * NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL
+ * THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.rultor.web;
+
+import com.rultor.spi.Talks;
+import java.net.HttpURLConnection;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.io.IOUtils;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.takes.Request;
+import org.takes.rq.RqFake;
+import org.takes.rs.RsPrint;
+
+/**
+ * Test case for {@link TkWebhook}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class TkWebhookTest {
+
+    /**
+     * Secret of the webhook.
+     */
+    private static final String SECRET = "s3cr3t";
+
+    /**
+     * TkWebhook can wake up a talk, when rultor is mentioned.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void wakesUpMentionedTalk() throws Exception {
+        final Talks talks = Mockito.mock(Talks.class);
+        final Queue<String> urgent = new ConcurrentLinkedQueue<>();
+        final byte[] body = IOUtils.toByteArray(
+            this.getClass().getResourceAsStream("issue_comment.json")
+        );
+        MatcherAssert.assertThat(
+            new RsPrint(
+                new TkWebhook(talks, TkWebhookTest.SECRET, "rultor", urgent)
+                    .act(
+                        TkWebhookTest.request(
+                            "issue_comment", TkWebhookTest.sign(body), body
+                        )
+                    )
+            ).printBody(),
+            Matchers.equalTo("yegor256/rultor#1009")
+        );
+        MatcherAssert.assertThat(
+            urgent, Matchers.contains("yegor256/rultor#1009")
+        );
+        Mockito.verify(talks).activate(
+            Mockito.eq("yegor256/rultor"),
+            Mockito.eq("yegor256/rultor#1009"),
+            Mockito.any()
+        );
+    }
+
+    /**
+     * TkWebhook can reject a delivery with a wrong signature.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void rejectsWrongSignature() throws Exception {
+        final Queue<String> urgent = new ConcurrentLinkedQueue<>();
+        final byte[] body = IOUtils.toByteArray(
+            this.getClass().getResourceAsStream("issue_comment.json")
+        );
+        MatcherAssert.assertThat(
+            new RsPrint(
+                new TkWebhook(
+                    new Talks.InDir(), TkWebhookTest.SECRET, "rultor", urgent
+                ).act(
+                    TkWebhookTest.request(
+                        "issue_comment",
+                        TkWebhookTest.sign("{}".getBytes("UTF-8")),
+                        body
+                    )
+                )
+            ).print(),
+            Matchers.startsWith(
+                String.format("HTTP/1.1 %d", HttpURLConnection.HTTP_FORBIDDEN)
+            )
+        );
+        MatcherAssert.assertThat(urgent, Matchers.emptyIterable());
+    }
+
+    /**
+     * TkWebhook can ignore events it doesn't need.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void ignoresOtherEvents() throws Exception {
+        final Queue<String> urgent = new ConcurrentLinkedQueue<>();
+        final byte[] body = "{\"ref\":\"refs/heads/master\"}".getBytes("UTF-8");
+        MatcherAssert.assertThat(
+            new RsPrint(
+                new TkWebhook(
+                    new Talks.InDir(), TkWebhookTest.SECRET, "rultor", urgent
+                ).act(
+                    TkWebhookTest.request(
+                        "push", TkWebhookTest.sign(body), body
+                    )
+                )
+            ).printBody(),
+            Matchers.equalTo("ignored")
+        );
+        MatcherAssert.assertThat(urgent, Matchers.emptyIterable());
+    }
+
+    /**
+     * Make a request.
+     * @param event Type of event
+     * @param signature Signature
+     * @param body Body
+     * @return Request
+     */
+    private static Request request(final String event, final String signature,
+        final byte[] body) {
+        return new RqFake(
+            Arrays.asList(
+                "POST /hook HTTP/1.1",
+                "Host: www.rultor.com",
+                String.format("X-GitHub-Event: %s", event),
+                String.format("X-Hub-Signature: sha1=%s", signature),
+                String.format("Content-Length: %d", body.length)
+            ),
+            body
+        );
+    }
+
+    /**
+     * Sign the body.
+     * @param body Body
+     * @return Signature in HEX
+     * @throws Exception If fails
+     */
+    private static String sign(final byte[] body) throws Exception {
+        final Mac mac = Mac.getInstance("HmacSHA1");
+        mac.init(
+            new SecretKeySpec(
+                TkWebhookTest.SECRET.getBytes("UTF-8"), "HmacSHA1"
+            )
+        );
+        return Hex.encodeHexString(mac.doFinal(body));
+    }
+
+}